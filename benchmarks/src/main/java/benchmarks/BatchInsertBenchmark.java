@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import db.ConnectionPool;
+import model.dao.BatchResult;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+	@Param({ "1000" })
+	public int rows;
+
+	@Param({ "100", "500" })
+	public int batchSize;
+
+	private ConnectionPool pool;
+	private SellerDaoJDBC dao;
+	private List<Seller> sellers;
+
+	@Setup
+	public void setUp() {
+		pool = BenchmarkDatabase.create("batch", 10, 0);
+		dao = new SellerDaoJDBC(pool, batchSize, null);
+	}
+
+	@Setup(Level.Invocation)
+	public void prepareRows() throws SQLException {
+		try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+			st.execute("TRUNCATE TABLE seller");
+		}
+		Department dep = new Department(1, "Department 1");
+		sellers = new ArrayList<>(rows);
+		for (int i = 0; i < rows; i++) {
+			sellers.add(new Seller(null, "Seller " + i, "seller" + i + "@example.com", LocalDate.now(), 1000.0 + i, dep));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Benchmark
+	public BatchResult insertAll() {
+		return dao.insertAll(sellers);
+	}
+
+	@Benchmark
+	public List<Seller> insertOneByOne() {
+		for (Seller obj : sellers) {
+			dao.insert(obj);
+		}
+		return sellers;
+	}
+}
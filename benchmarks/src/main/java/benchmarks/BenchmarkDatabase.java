@@ -0,0 +1,78 @@
+package benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import db.ConnectionPool;
+import db.DbException;
+import db.MigrationRunner;
+
+/**
+ * Embedded H2 database in MySQL compatibility mode, seeded with a configurable
+ * number of departments and sellers. The schema comes from the application's
+ * own migrations, so benchmarks run against the same columns, constraints and
+ * indexes.
+ */
+public class BenchmarkDatabase {
+
+	public static ConnectionPool create(String name, int departments, int sellers) {
+
+		Properties props = new Properties();
+		props.setProperty("dburl", "jdbc:h2:mem:" + name + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+		props.setProperty("pool.maxSize", "4");
+		props.setProperty("pool.minIdle", "1");
+		props.setProperty("pool.statementCacheSize", "64");
+
+		ConnectionPool pool = new ConnectionPool(props);
+
+		try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+
+			st.execute("DROP ALL OBJECTS");
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+
+		new MigrationRunner(pool).migrate();
+
+		try (Connection conn = pool.getConnection()) {
+
+			seed(conn, departments, sellers);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+
+		return pool;
+	}
+
+	private static void seed(Connection conn, int departments, int sellers) throws SQLException {
+
+		try (PreparedStatement st = conn.prepareStatement("INSERT INTO department (Name) VALUES (?)")) {
+			for (int i = 1; i <= departments; i++) {
+				st.setString(1, "Department " + i);
+				st.addBatch();
+			}
+			st.executeBatch();
+		}
+
+		try (PreparedStatement st = conn.prepareStatement(
+				"INSERT INTO seller (Name, Email, BirthDate, BaseSalary, DepartmentId) VALUES (?, ?, ?, ?, ?)")) {
+			for (int i = 1; i <= sellers; i++) {
+				st.setString(1, "Seller " + i);
+				st.setString(2, "seller" + i + "@example.com");
+				st.setDate(3, java.sql.Date.valueOf(java.time.LocalDate.of(1960 + i % 40, 1 + i % 12, 1 + i % 28)));
+				st.setDouble(4, 1000.0 + (i % 5000));
+				st.setInt(5, 1 + i % departments);
+				st.addBatch();
+				if (i % 1000 == 0) {
+					st.executeBatch();
+				}
+			}
+			st.executeBatch();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC (allocation) profiler and writes the results
+ * as JSON, so runs can be compared for regressions. Accepts the usual JMH
+ * command line options, e.g. a benchmark name regex or -p sellers=500000.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+
+		CommandLineOptions cmd = new CommandLineOptions(args);
+
+		Options options = new OptionsBuilder()
+				.parent(cmd)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(cmd.getResult().orElse("jmh-result.json"))
+				.build();
+
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,158 @@
+package benchmarks;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gui.util.CellTextCache;
+import gui.util.FixedPointFormat;
+import gui.util.Utils;
+import model.entities.Seller;
+
+/**
+ * Cost of producing the text of the salary and birth date cells, as done in
+ * the updateItem() of the cells built by Utils.formatTableColumnCents and
+ * Utils.formatTableColumnEpochDay. The legacy* benchmarks keep the previous
+ * String.format / SimpleDateFormat code as a baseline; the scrollFrame*
+ * benchmarks render both columns for one screen of rows while scrolling one
+ * row per frame through the table. Compare gc.alloc.rate.norm from the GC
+ * profiler that BenchmarkRunner adds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellFormattingBenchmark {
+
+	@Param({ "40" })
+	private int visibleRows;
+
+	private Double salary;
+	private Date birthDate;
+	private LocalDate birthDay;
+	private SimpleDateFormat cellDateFormat;
+	private DateTimeFormatter dateFormatter;
+	private StringBuilder cellBuffer;
+
+	private Seller[] sellers;
+	private Date[] legacyBirthDates;
+	private CellTextCache salaryCache;
+	private CellTextCache birthDateCache;
+	private int firstRow;
+
+	@Setup
+	public void setUp() {
+		salary = 3512.5;
+		birthDate = new Date();
+		cellDateFormat = new SimpleDateFormat("dd/MM/yyyy");
+		birthDay = LocalDate.now();
+		dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+		cellBuffer = new StringBuilder(16);
+
+		sellers = new Seller[1000];
+		legacyBirthDates = new Date[sellers.length];
+		for (int i = 0; i < sellers.length; i++) {
+			sellers[i] = new Seller(i + 1, "Seller " + i, "seller" + i + "@mail.com",
+					LocalDate.now().minusDays(i * 37L), 1000.0 + i * 7.25, null);
+			legacyBirthDates[i] = new Date(birthDate.getTime() - i * 86400000L * 37);
+		}
+		salaryCache = new CellTextCache(1024);
+		birthDateCache = new CellTextCache(1024);
+	}
+
+	@Benchmark
+	public String legacyFormatSalary() {
+		Locale.setDefault(Locale.US);
+		return String.format("%." + 2 + "f", salary);
+	}
+
+	@Benchmark
+	public String legacyFormatBirthDate() {
+		return cellDateFormat.format(birthDate);
+	}
+
+	@Benchmark
+	public String formatSalary() {
+		return Utils.formatDouble(salary, 2);
+	}
+
+	@Benchmark
+	public StringBuilder formatSalaryIntoBuffer() {
+		cellBuffer.setLength(0);
+		return FixedPointFormat.append(cellBuffer, salary, 2);
+	}
+
+	@Benchmark
+	public StringBuilder formatBirthDateIntoBuffer() {
+		cellBuffer.setLength(0);
+		dateFormatter.formatTo(birthDay, cellBuffer);
+		return cellBuffer;
+	}
+
+	@Benchmark
+	public void scrollFrameLegacy(Blackhole bh) {
+		int first = nextFrame();
+		for (int i = first; i < first + visibleRows; i++) {
+			Seller seller = sellers[i];
+			Locale.setDefault(Locale.US);
+			bh.consume(String.format("%." + 2 + "f", seller.getBaseSalary()));
+			bh.consume(cellDateFormat.format(legacyBirthDates[i]));
+		}
+	}
+
+	@Benchmark
+	public void scrollFrameMemoized(Blackhole bh) {
+		int first = nextFrame();
+		for (int i = first; i < first + visibleRows; i++) {
+			Seller seller = sellers[i];
+			bh.consume(salaryText(seller));
+			bh.consume(birthDateText(seller));
+		}
+	}
+
+	private int nextFrame() {
+		firstRow = firstRow + 1 + visibleRows < sellers.length ? firstRow + 1 : 0;
+		return firstRow;
+	}
+
+	private String salaryText(Seller seller) {
+		long value = seller.getBaseSalaryCents();
+		String text = salaryCache.get(seller.getId(), seller.getVersion(), value);
+		if (text == null) {
+			cellBuffer.setLength(0);
+			text = FixedPointFormat.append(cellBuffer, value / 100.0, 2).toString();
+			salaryCache.put(seller.getId(), seller.getVersion(), value, text);
+		}
+		return text;
+	}
+
+	private String birthDateText(Seller seller) {
+		long value = seller.getBirthEpochDay();
+		String text = birthDateCache.get(seller.getId(), seller.getVersion(), value);
+		if (text == null) {
+			cellBuffer.setLength(0);
+			dateFormatter.formatTo(LocalDate.ofEpochDay(value), cellBuffer);
+			text = cellBuffer.toString();
+			birthDateCache.put(seller.getId(), seller.getVersion(), value, text);
+		}
+		return text;
+	}
+}
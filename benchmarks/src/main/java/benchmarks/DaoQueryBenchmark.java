@@ -0,0 +1,100 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import db.ConnectionPool;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Department;
+import model.entities.Seller;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoQueryBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int sellers;
+
+	@Param({ "10" })
+	public int departments;
+
+	@Param({ "100" })
+	public int lookupIds;
+
+	private ConnectionPool pool;
+	private SellerDaoJDBC dao;
+	private Department department;
+
+	@Setup
+	public void setUp() {
+		pool = BenchmarkDatabase.create("query", departments, sellers);
+		dao = new SellerDaoJDBC(pool);
+		department = new Department(1, "Department 1");
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Benchmark
+	public List<Seller> findAll() {
+		return dao.findAll();
+	}
+
+	@Benchmark
+	public List<Seller> findByDepartment() {
+		return dao.findByDepartment(department);
+	}
+
+	@Benchmark
+	public Seller findById() {
+		return dao.findById(1 + ThreadLocalRandom.current().nextInt(sellers));
+	}
+
+	/**
+	 * Resolves lookupIds random sellers one findById() round trip at a time,
+	 * as the search results did before findByIds().
+	 */
+	@Benchmark
+	public List<Seller> findByIdLoop() {
+		List<Seller> list = new ArrayList<>(lookupIds);
+		for (Integer id : randomIds()) {
+			list.add(dao.findById(id));
+		}
+		return list;
+	}
+
+	@Benchmark
+	public Map<Integer, Seller> findByIds() {
+		return dao.findByIds(randomIds());
+	}
+
+	private List<Integer> randomIds() {
+		List<Integer> ids = new ArrayList<>(lookupIds);
+		for (int i = 0; i < lookupIds; i++) {
+			ids.add(1 + ThreadLocalRandom.current().nextInt(sellers));
+		}
+		return ids;
+	}
+}
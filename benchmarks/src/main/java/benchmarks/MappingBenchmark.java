@@ -0,0 +1,84 @@
+package benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import db.ConnectionPool;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Seller;
+
+/**
+ * Mapping cost is the difference between findAll, which builds a Seller and
+ * Department per row, and rawScan, which runs the same query and only reads
+ * the columns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+
+	private static final String FIND_ALL = "SELECT seller.*,department.Name as DepName "
+			+ "FROM seller INNER JOIN department "
+			+ "ON seller.DepartmentId = department.Id "
+			+ "ORDER BY Name";
+
+	@Param({ "100000" })
+	public int sellers;
+
+	private ConnectionPool pool;
+	private SellerDaoJDBC dao;
+
+	@Setup
+	public void setUp() {
+		pool = BenchmarkDatabase.create("mapping", 10, sellers);
+		dao = new SellerDaoJDBC(pool);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Benchmark
+	public List<Seller> findAll() {
+		return dao.findAll();
+	}
+
+	@Benchmark
+	public void rawScan(Blackhole bh) throws SQLException {
+		try (Connection conn = pool.getConnection();
+				PreparedStatement st = conn.prepareStatement(FIND_ALL);
+				ResultSet rs = st.executeQuery()) {
+			while (rs.next()) {
+				bh.consume(rs.getInt(1));
+				bh.consume(rs.getString(2));
+				bh.consume(rs.getString(3));
+				bh.consume(rs.getTimestamp(4));
+				bh.consume(rs.getDouble(5));
+				bh.consume(rs.getInt(6));
+				bh.consume(rs.getString(7));
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import db.ConnectionPool;
+import model.dao.impl.CachingPayrollDao;
+import model.dao.impl.PayrollDaoJDBC;
+import model.dao.impl.SellerDaoJDBC;
+import model.entities.Seller;
+import model.reports.PayrollReport;
+
+/**
+ * Payroll per department computed from every seller row read with findAll(),
+ * as was done by exporting to a spreadsheet, against the GROUP BY query of
+ * PayrollDaoJDBC, with and without the window-function percentiles, and a hit
+ * in CachingPayrollDao. H2 runs in process and reuses the result of an
+ * unchanged query, so aggregateFindAll pays for mapping but not for
+ * transferring the rows as it would against a server; H2 is also slow at the
+ * window functions, so run aggregateQueryWithPercentiles against MySQL before
+ * turning dao.payrollPercentiles on by default.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollReportBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int sellers;
+
+	@Param({ "10" })
+	public int departments;
+
+	private ConnectionPool pool;
+	private SellerDaoJDBC sellerDao;
+	private PayrollDaoJDBC payrollDao;
+	private PayrollDaoJDBC percentilesDao;
+	private CachingPayrollDao cachingPayrollDao;
+
+	@Setup
+	public void setUp() {
+		pool = BenchmarkDatabase.create("payroll", departments, sellers);
+		sellerDao = new SellerDaoJDBC(pool);
+		payrollDao = new PayrollDaoJDBC(pool);
+		percentilesDao = new PayrollDaoJDBC(pool, true);
+		cachingPayrollDao = new CachingPayrollDao(payrollDao, Long.MAX_VALUE);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Benchmark
+	public Map<Integer, double[]> aggregateFindAll() {
+		Map<Integer, double[]> totals = new TreeMap<>();
+		for (Seller seller : sellerDao.findAll()) {
+			double[] sums = totals.computeIfAbsent(seller.getDepartmentId(), id -> new double[2]);
+			sums[0]++;
+			sums[1] += seller.getBaseSalary();
+		}
+		return totals;
+	}
+
+	@Benchmark
+	public PayrollReport aggregateQuery() {
+		return payrollDao.findPayrollByDepartment();
+	}
+
+	@Benchmark
+	public PayrollReport aggregateQueryWithPercentiles() {
+		return percentilesDao.findPayrollByDepartment();
+	}
+
+	@Benchmark
+	public PayrollReport cachedReport() {
+		return cachingPayrollDao.findPayrollByDepartment();
+	}
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import db.ConnectionPool;
+import model.dao.impl.SellerRowMapper;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Full scan of the seller join mapped by column label on every row (the
+ * mapping SellerDaoJDBC used before SellerRowMapper) against mapping by
+ * column indexes resolved once per result set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RowMappingBenchmark {
+
+	private static final String SCAN = "SELECT seller.*,department.Name as DepName "
+			+ "FROM seller INNER JOIN department "
+			+ "ON seller.DepartmentId = department.Id";
+
+	@Param({ "1000000" })
+	public int sellers;
+
+	private ConnectionPool pool;
+
+	@Setup
+	public void setUp() {
+		pool = BenchmarkDatabase.create("rowmapping", 10, sellers);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.close();
+	}
+
+	@Benchmark
+	public void byLabel(Blackhole bh) throws SQLException {
+		try (Connection conn = pool.getConnection();
+				PreparedStatement st = conn.prepareStatement(SCAN);
+				ResultSet rs = st.executeQuery()) {
+			Map<Integer, Department> map = new HashMap<>();
+			while (rs.next()) {
+				Department dep = map.get(rs.getInt("DepartmentId"));
+				if (dep == null) {
+					dep = new Department(rs.getInt("DepartmentId"), rs.getString("DepName"));
+					map.put(rs.getInt("DepartmentId"), dep);
+				}
+				Seller obj = new Seller();
+				obj.setId(rs.getInt("Id"));
+				obj.setName(rs.getString("Name"));
+				obj.setEmail(rs.getString("Email"));
+				obj.setBaseSalary(rs.getDouble("BaseSalary"));
+				obj.setBirthDate(rs.getTimestamp("BirthDate").toLocalDateTime().toLocalDate());
+				obj.setDepartment(dep);
+				bh.consume(obj);
+			}
+		}
+	}
+
+	@Benchmark
+	public void byIndex(Blackhole bh) throws SQLException {
+		try (Connection conn = pool.getConnection();
+				PreparedStatement st = conn.prepareStatement(SCAN);
+				ResultSet rs = st.executeQuery()) {
+			SellerRowMapper mapper = new SellerRowMapper(rs, null);
+			while (rs.next()) {
+				bh.consume(mapper.map(rs));
+			}
+		}
+	}
+}
@@ -2,11 +2,14 @@ package application;
 
 import java.io.IOException;
 
+import db.DB;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.scene.control.ScrollPane;
 import javafx.stage.Stage;
+import model.services.SellerService;
 
 public class Main extends Application {
 
@@ -35,6 +38,8 @@ public class Main extends Application {
 			//primaryStage.setMaximized(true);
 			primaryStage.setTitle("Workshop (JavaFX-JDBC-MySQL)");
 			primaryStage.show();
+			
+			SellerService.startWriteBehind(Platform::runLater);
 		
 		} catch (IOException e) {
 			
@@ -42,6 +47,13 @@ public class Main extends Application {
 		}
 	}
 
+	@Override
+	public void stop() {
+		
+		SellerService.shutdownWriteBehind();
+		DB.closeConnection();
+	}
+
 	public static void main(String[] args) {
 		launch(args);
 	}
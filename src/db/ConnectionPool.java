@@ -0,0 +1,478 @@
+package db;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Bounded JDBC connection pool. Connections handed out are proxies whose
+ * close() returns the physical connection to the pool.
+ */
+public class ConnectionPool implements DataSource {
+
+	private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+	private static final String PREFIX = "pool.";
+
+	/** Settings in db.properties read by the application, not passed to the driver. */
+	private static final String[] APPLICATION_PREFIXES = { "dao.", "schema.", "writeBehind." };
+
+	private final String url;
+	private final Properties driverProps;
+
+	private final int maxSize;
+	private final int minIdle;
+	private final long connectionTimeout;
+	private final int validationTimeout;
+	private final long idleTimeout;
+	private final long maxLifetime;
+	private final long leakDetectionThreshold;
+	private final int statementCacheSize;
+
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+	private final Set<PooledConnection> all = ConcurrentHashMap.newKeySet();
+	/** Connections open or being opened; a slot is reserved before opening, so this never exceeds maxSize. */
+	private final AtomicInteger slots = new AtomicInteger();
+	private final Semaphore permits;
+	private final ScheduledExecutorService housekeeper;
+
+	private final AtomicLong borrowCount = new AtomicLong();
+	private final AtomicLong timeoutCount = new AtomicLong();
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	private final AtomicLong createdCount = new AtomicLong();
+	private final AtomicLong destroyedCount = new AtomicLong();
+	private final AtomicLong leakCount = new AtomicLong();
+	private final AtomicLong statementCacheHits = new AtomicLong();
+	private final AtomicLong statementCacheMisses = new AtomicLong();
+	private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+	private volatile boolean closed;
+
+	public ConnectionPool(Properties props) {
+
+		this.url = props.getProperty("dburl");
+
+		this.driverProps = new Properties();
+		for (String key : props.stringPropertyNames()) {
+			if (!key.startsWith(PREFIX) && !isApplicationProperty(key)) {
+				driverProps.setProperty(key, props.getProperty(key));
+			}
+		}
+
+		this.maxSize = intProperty(props, "maxSize", 10);
+		this.minIdle = Math.min(intProperty(props, "minIdle", 2), maxSize);
+		this.connectionTimeout = longProperty(props, "connectionTimeout", 30000L);
+		this.validationTimeout = (int) Math.max(1L, longProperty(props, "validationTimeout", 5000L) / 1000L);
+		this.idleTimeout = longProperty(props, "idleTimeout", 600000L);
+		this.maxLifetime = longProperty(props, "maxLifetime", 1800000L);
+		this.leakDetectionThreshold = longProperty(props, "leakDetectionThreshold", 0L);
+		this.statementCacheSize = intProperty(props, "statementCacheSize", 0);
+
+		this.permits = new Semaphore(maxSize, true);
+
+		this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "connection-pool-housekeeper");
+			t.setDaemon(true);
+			return t;
+		});
+
+		long period = Math.min(30000L, idleTimeout / 2);
+		if (leakDetectionThreshold > 0) {
+			period = Math.min(period, leakDetectionThreshold / 2);
+		}
+		period = Math.max(1000L, period);
+		housekeeper.scheduleWithFixedDelay(this::houseKeep, period, period, TimeUnit.MILLISECONDS);
+
+		fillToMinIdle();
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+
+		if (closed) {
+			throw new SQLException("Connection pool is closed");
+		}
+
+		long start = System.nanoTime();
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(connectionTimeout, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection");
+		}
+
+		long waited = System.nanoTime() - start;
+		totalWaitNanos.addAndGet(waited);
+		maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+		if (!acquired) {
+			timeoutCount.incrementAndGet();
+			throw new SQLException("Timed out after " + connectionTimeout + "ms waiting for a connection "
+					+ "(active=" + (all.size() - idle.size()) + ", max=" + maxSize + ")");
+		}
+
+		try {
+			PooledConnection pc = takeValidConnection();
+			pc.borrowedAt = System.currentTimeMillis();
+			pc.borrowStack = leakDetectionThreshold > 0 ? new Throwable("Connection borrowed here") : null;
+			pc.leakReported = false;
+			borrowCount.incrementAndGet();
+			return pc.newHandle();
+		}
+		catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	private PooledConnection takeValidConnection() throws SQLException {
+
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			if (isExpired(pc, System.currentTimeMillis()) || !isValid(pc)) {
+				destroy(pc);
+				continue;
+			}
+			return pc;
+		}
+		if (reserveSlot()) {
+			return create();
+		}
+		// every slot is taken, so with our permit one of them is being opened
+		// to fill the idle queue and will be offered there
+		try {
+			pc = idle.pollFirst(connectionTimeout, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a connection");
+		}
+		if (pc == null) {
+			throw new SQLException("Timed out after " + connectionTimeout + "ms waiting for a connection to open");
+		}
+		return pc;
+	}
+
+	private boolean reserveSlot() {
+
+		int reserved;
+		do {
+			reserved = slots.get();
+			if (reserved >= maxSize) {
+				return false;
+			}
+		}
+		while (!slots.compareAndSet(reserved, reserved + 1));
+		return true;
+	}
+
+	private boolean isValid(PooledConnection pc) {
+
+		try {
+			return pc.physical.isValid(validationTimeout);
+		}
+		catch (SQLException e) {
+			return false;
+		}
+	}
+
+	private boolean isExpired(PooledConnection pc, long now) {
+
+		return maxLifetime > 0 && now - pc.createdAt > maxLifetime;
+	}
+
+	/**
+	 * Opens a connection in a slot the caller has reserved; the slot is given
+	 * back if opening fails.
+	 */
+	private PooledConnection create() throws SQLException {
+
+		PooledConnection pc;
+		try {
+			pc = new PooledConnection(DriverManager.getConnection(url, driverProps));
+		}
+		catch (SQLException | RuntimeException e) {
+			slots.decrementAndGet();
+			throw e;
+		}
+		all.add(pc);
+		createdCount.incrementAndGet();
+		return pc;
+	}
+
+	private void destroy(PooledConnection pc) {
+
+		if (all.remove(pc)) {
+			slots.decrementAndGet();
+			destroyedCount.incrementAndGet();
+			pc.closePhysical();
+		}
+	}
+
+	private void release(PooledConnection pc) {
+
+		pc.borrowedAt = 0L;
+		pc.borrowStack = null;
+		pc.lastUsedAt = System.currentTimeMillis();
+
+		try {
+			if (closed || pc.physical.isClosed() || isExpired(pc, pc.lastUsedAt)) {
+				destroy(pc);
+			}
+			else {
+				if (!pc.physical.getAutoCommit()) {
+					pc.physical.rollback();
+					pc.physical.setAutoCommit(true);
+				}
+				pc.physical.clearWarnings();
+				idle.offerFirst(pc);
+			}
+		}
+		catch (SQLException e) {
+			destroy(pc);
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	private void houseKeep() {
+
+		long now = System.currentTimeMillis();
+
+		Iterator<PooledConnection> it = idle.descendingIterator();
+		while (it.hasNext() && idle.size() > minIdle) {
+			PooledConnection pc = it.next();
+			if (isExpired(pc, now) || (idleTimeout > 0 && now - pc.lastUsedAt > idleTimeout)) {
+				if (idle.remove(pc)) {
+					destroy(pc);
+				}
+			}
+		}
+
+		if (leakDetectionThreshold > 0) {
+			for (PooledConnection pc : all) {
+				long borrowedAt = pc.borrowedAt;
+				if (borrowedAt > 0 && !pc.leakReported && now - borrowedAt > leakDetectionThreshold) {
+					pc.leakReported = true;
+					leakCount.incrementAndGet();
+					LOGGER.log(Level.WARNING, "Possible connection leak: connection held for "
+							+ (now - borrowedAt) + "ms", pc.borrowStack);
+				}
+			}
+		}
+
+		fillToMinIdle();
+	}
+
+	private void fillToMinIdle() {
+
+		while (!closed && idle.size() < minIdle && reserveSlot()) {
+			try {
+				PooledConnection pc = create();
+				idle.offerLast(pc);
+			}
+			catch (SQLException e) {
+				LOGGER.log(Level.WARNING, "Could not open pooled connection: " + e.getMessage());
+				return;
+			}
+		}
+	}
+
+	public PoolMetrics getMetrics() {
+
+		int total = all.size();
+		int idleCount = idle.size();
+		long borrows = borrowCount.get();
+		return new PoolMetrics(total - idleCount, idleCount, total, maxSize, permits.getQueueLength(), borrows,
+				timeoutCount.get(), TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()),
+				TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()), createdCount.get(), destroyedCount.get(),
+				leakCount.get(), statementCacheHits.get(), statementCacheMisses.get(),
+				statementCacheEvictions.get());
+	}
+
+	public void close() {
+
+		closed = true;
+		housekeeper.shutdownNow();
+		PooledConnection pc;
+		while ((pc = idle.pollFirst()) != null) {
+			destroy(pc);
+		}
+	}
+
+	private static int intProperty(Properties props, String name, int defaultValue) {
+
+		return (int) longProperty(props, name, defaultValue);
+	}
+
+	private static boolean isApplicationProperty(String key) {
+
+		for (String prefix : APPLICATION_PREFIXES) {
+			if (key.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static long longProperty(Properties props, String name, long defaultValue) {
+
+		String value = props.getProperty(PREFIX + name);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		}
+		catch (NumberFormatException e) {
+			throw new DbException("Invalid value for " + PREFIX + name + ": " + value);
+		}
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLFeatureNotSupportedException("Pooled connections use the configured credentials");
+	}
+
+	@Override
+	public PrintWriter getLogWriter() {
+		return null;
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) {
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) {
+	}
+
+	@Override
+	public int getLoginTimeout() {
+		return (int) (connectionTimeout / 1000L);
+	}
+
+	@Override
+	public Logger getParentLogger() {
+		return LOGGER;
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return iface.cast(this);
+		}
+		throw new SQLException("Not a wrapper for " + iface.getName());
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) {
+		return iface.isInstance(this);
+	}
+
+	private class PooledConnection {
+
+		private final Connection physical;
+		private final StatementCache statements;
+		private final long createdAt;
+
+		private volatile long lastUsedAt;
+		private volatile long borrowedAt;
+		private volatile Throwable borrowStack;
+		private volatile boolean leakReported;
+
+		private PooledConnection(Connection physical) {
+			this.physical = physical;
+			this.statements = statementCacheSize > 0 ? new StatementCache(physical, statementCacheSize,
+					statementCacheHits, statementCacheMisses, statementCacheEvictions) : null;
+			this.createdAt = System.currentTimeMillis();
+			this.lastUsedAt = createdAt;
+		}
+
+		private Connection newHandle() {
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Handle(this));
+		}
+
+		private void closePhysical() {
+			if (statements != null) {
+				statements.closeAll();
+			}
+			try {
+				physical.close();
+			}
+			catch (SQLException e) {
+				LOGGER.log(Level.FINE, "Error closing pooled connection", e);
+			}
+		}
+	}
+
+	private class Handle implements InvocationHandler {
+
+		private PooledConnection pc;
+
+		private Handle(PooledConnection pc) {
+			this.pc = pc;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			switch (method.getName()) {
+			case "close":
+				if (pc != null) {
+					PooledConnection released = pc;
+					pc = null;
+					release(released);
+				}
+				return null;
+			case "isClosed":
+				return pc == null || pc.physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "PooledConnection[" + (pc == null ? "closed" : pc.physical) + "]";
+			default:
+				if (pc == null) {
+					throw new SQLException("Connection is closed");
+				}
+				if (pc.statements != null && StatementCache.isCacheable(method, args)) {
+					return pc.statements.prepare(method, args);
+				}
+				try {
+					return method.invoke(pc.physical, args);
+				}
+				catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+	}
+}
@@ -3,31 +3,184 @@ package db;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Properties;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
 
 public class DB {
 
-	private static Connection conn = null;
-	
-	public static Connection getConnection() {
-		if (conn == null) {
+	private static final int DEFAULT_BATCH_SIZE = 500;
+
+	private static final long DEFAULT_DEPARTMENT_CACHE_TTL = 300000L;
+
+	private static final long DEFAULT_PAYROLL_CACHE_TTL = 300000L;
+
+	private static final long DEFAULT_SLOW_QUERY_MILLIS = 500L;
+
+	private static final String DEFAULT_WRITE_BEHIND_JOURNAL = "seller-writes.journal";
+
+	private static final int DEFAULT_WRITE_BEHIND_CAPACITY = 10000;
+
+	private static final long DEFAULT_WRITE_BEHIND_FLUSH_MILLIS = 250L;
+
+	private static ConnectionPool pool = null;
+
+	private static TransactionalDataSource dataSource = null;
+
+	private static Properties props = null;
+
+	public static synchronized DataSource getDataSource() {
+		if (pool == null) {
+			ConnectionPool created = new ConnectionPool(getProperties());
 			try {
-				Properties props = loadProperties();
-				String url = props.getProperty("dburl");
-				conn = DriverManager.getConnection(url, props);
+				prepareSchema(created);
 			}
-			catch (SQLException e) {
-				throw new DbException(e.getMessage());
+			catch (RuntimeException e) {
+				created.close();
+				throw e;
 			}
+			pool = created;
+			dataSource = new TransactionalDataSource(created);
+		}
+		return dataSource;
+	}
+
+	public static <T> T inTransaction(Supplier<T> work) {
+		return ((TransactionalDataSource) getDataSource()).execute(work);
+	}
+
+	public static void inTransaction(Runnable work) {
+		inTransaction(() -> {
+			work.run();
+			return null;
+		});
+	}
+
+	public static boolean isInTransaction() {
+		TransactionalDataSource ds;
+		synchronized (DB.class) {
+			ds = dataSource;
+		}
+		return ds != null && ds.isInTransaction();
+	}
+
+	public static void afterCompletion(Runnable callback) {
+		TransactionalDataSource ds;
+		synchronized (DB.class) {
+			ds = dataSource;
+		}
+		if (ds == null) {
+			callback.run();
+		}
+		else {
+			ds.afterCompletion(callback);
+		}
+	}
+
+	private static void prepareSchema(DataSource dataSource) {
+		if (getBooleanProperty("schema.migrate", true)) {
+			new MigrationRunner(dataSource).migrate();
+		}
+	}
+
+	public static int getBatchSize() {
+		return (int) getLongProperty("dao.batchSize", DEFAULT_BATCH_SIZE);
+	}
+
+	public static int getStreamFetchSize() {
+		return (int) getLongProperty("dao.streamFetchSize", Integer.MIN_VALUE);
+	}
+
+	public static long getSlowQueryThreshold() {
+		return getLongProperty("dao.slowQueryMillis", DEFAULT_SLOW_QUERY_MILLIS);
+	}
+
+	public static long getDepartmentCacheTtl() {
+		return getLongProperty("dao.departmentCacheTtl", DEFAULT_DEPARTMENT_CACHE_TTL);
+	}
+
+	public static long getPayrollCacheTtl() {
+		return getLongProperty("dao.payrollCacheTtl", DEFAULT_PAYROLL_CACHE_TTL);
+	}
+
+	public static boolean isPayrollPercentilesEnabled() {
+		return getBooleanProperty("dao.payrollPercentiles", false);
+	}
+
+	public static boolean isQueryPlanCheckEnabled() {
+		return getBooleanProperty("schema.checkQueryPlans", true);
+	}
+
+	public static boolean isWriteBehindEnabled() {
+		return getBooleanProperty("writeBehind.enabled", false);
+	}
+
+	public static String getWriteBehindJournal() {
+		return getProperties().getProperty("writeBehind.journal", DEFAULT_WRITE_BEHIND_JOURNAL).trim();
+	}
+
+	public static int getWriteBehindCapacity() {
+		return (int) getLongProperty("writeBehind.capacity", DEFAULT_WRITE_BEHIND_CAPACITY);
+	}
+
+	public static long getWriteBehindFlushMillis() {
+		return getLongProperty("writeBehind.flushMillis", DEFAULT_WRITE_BEHIND_FLUSH_MILLIS);
+	}
+
+	private static long getLongProperty(String name, long defaultValue) {
+		String value = getProperties().getProperty(name);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		try {
+			return Long.parseLong(value.trim());
+		}
+		catch (NumberFormatException e) {
+			throw new DbException("Invalid value for " + name + ": " + value);
+		}
+	}
+
+	private static boolean getBooleanProperty(String name, boolean defaultValue) {
+		String value = getProperties().getProperty(name);
+		if (value == null || value.trim().isEmpty()) {
+			return defaultValue;
+		}
+		return Boolean.parseBoolean(value.trim());
+	}
+
+	public static Connection getConnection() {
+		try {
+			return getDataSource().getConnection();
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Returns the pool's metrics, or all zeros while no pool is open; reading
+	 * them never opens one.
+	 */
+	public static synchronized PoolMetrics getPoolMetrics() {
+		if (pool == null) {
+			return new PoolMetrics(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
 		}
-		return conn;
+		return pool.getMetrics();
 	}
-	
-	public static void closeConnection() {
+
+	public static synchronized void closeConnection() {
+		if (pool != null) {
+			pool.close();
+			pool = null;
+			dataSource = null;
+		}
+	}
+
+	public static void closeConnection(Connection conn) {
 		if (conn != null) {
 			try {
 				conn.close();
@@ -36,7 +189,14 @@ public class DB {
 			}
 		}
 	}
-	
+
+	private static synchronized Properties getProperties() {
+		if (props == null) {
+			props = loadProperties();
+		}
+		return props;
+	}
+
 	private static Properties loadProperties() {
 		try (FileInputStream fs = new FileInputStream("db.properties")) {
 			Properties props = new Properties();
@@ -47,7 +207,7 @@ public class DB {
 			throw new DbException(e.getMessage());
 		}
 	}
-	
+
 	public static void closeStatement(Statement st) {
 		if (st != null) {
 			try {
@@ -0,0 +1,15 @@
+package db;
+
+/**
+ * Thrown when an update finds the row changed or deleted since it was read,
+ * i.e. its Version column no longer matches the entity's version.
+ */
+public class DbConcurrencyException extends DbException {
+	private static final long serialVersionUID = 1L;
+
+	public static final String STALE_ROW = "Row was changed or deleted by another user";
+
+	public DbConcurrencyException(String msg) {
+		super(msg);
+	}
+}
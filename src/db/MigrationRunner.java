@@ -0,0 +1,276 @@
+package db;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.sql.DataSource;
+
+/**
+ * Applies the versioned SQL scripts under /db/migration in order and records
+ * each one in schema_version, so every script runs once per database. A
+ * script and its version row share a transaction; where the database commits
+ * DDL implicitly (MySQL) a failed script can be re-run safely because the
+ * scripts only create what is missing: tables use IF NOT EXISTS, CREATE
+ * INDEX statements are skipped when an index with that name already exists
+ * and ALTER TABLE ... ADD COLUMN when the table already has the column.
+ */
+public class MigrationRunner {
+
+	private static final Logger LOGGER = Logger.getLogger(MigrationRunner.class.getName());
+
+	private static final String LOCATION = "/db/migration/";
+
+	private static final String[] SCRIPTS = {
+			"V1__create_tables.sql",
+			"V2__seller_indexes.sql",
+			"V3__row_versions.sql",
+			"V4__payroll_index.sql"
+	};
+
+	private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+
+	private static final Pattern CREATE_INDEX = Pattern
+			.compile("(?is)\\s*CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(\\w+)\\s+ON\\s+(\\w+).*");
+
+	private static final Pattern ADD_COLUMN = Pattern
+			.compile("(?is)\\s*ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+(?:COLUMN\\s+)?(\\w+).*");
+
+	private final DataSource dataSource;
+
+	public MigrationRunner(DataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	public int migrate() {
+		Connection conn = null;
+		try {
+			conn = dataSource.getConnection();
+
+			createVersionTable(conn);
+
+			Map<Integer, Long> applied = appliedVersions(conn);
+			int count = 0;
+
+			for (String script : SCRIPTS) {
+				Migration migration = load(script);
+				Long checksum = applied.get(migration.version);
+
+				if (checksum == null) {
+					apply(conn, migration);
+					count++;
+				}
+				else if (checksum != migration.checksum) {
+					LOGGER.warning("Migration " + script + " changed after it was applied");
+				}
+			}
+
+			return count;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	private void createVersionTable(Connection conn) throws SQLException {
+		Statement st = null;
+		try {
+			st = conn.createStatement();
+			st.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+					+ "Version INT NOT NULL, "
+					+ "Description VARCHAR(200) NOT NULL, "
+					+ "Checksum BIGINT NOT NULL, "
+					+ "InstalledOn TIMESTAMP NOT NULL, "
+					+ "PRIMARY KEY (Version))");
+		}
+		finally {
+			DB.closeStatement(st);
+		}
+	}
+
+	private Map<Integer, Long> appliedVersions(Connection conn) throws SQLException {
+		Statement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.createStatement();
+			rs = st.executeQuery("SELECT Version, Checksum FROM schema_version");
+
+			Map<Integer, Long> applied = new HashMap<>();
+			while (rs.next()) {
+				applied.put(rs.getInt(1), rs.getLong(2));
+			}
+			return applied;
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+		}
+	}
+
+	private void apply(Connection conn, Migration migration) throws SQLException {
+		boolean autoCommit = conn.getAutoCommit();
+		Statement st = null;
+		PreparedStatement version = null;
+		try {
+			conn.setAutoCommit(false);
+
+			st = conn.createStatement();
+			for (String sql : migration.statements) {
+				if (!indexExists(conn, sql) && !columnExists(conn, sql)) {
+					st.execute(sql);
+				}
+			}
+
+			version = conn.prepareStatement(
+					"INSERT INTO schema_version (Version, Description, Checksum, InstalledOn) VALUES (?, ?, ?, ?)");
+			version.setInt(1, migration.version);
+			version.setString(2, migration.description);
+			version.setLong(3, migration.checksum);
+			version.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+			version.executeUpdate();
+
+			conn.commit();
+
+			LOGGER.info("Applied migration V" + migration.version + " " + migration.description);
+		}
+		catch (SQLException e) {
+			conn.rollback();
+			throw new DbException("Migration V" + migration.version + " failed: " + e.getMessage());
+		}
+		finally {
+			DB.closeStatement(version);
+			DB.closeStatement(st);
+			conn.setAutoCommit(autoCommit);
+		}
+	}
+
+	private boolean indexExists(Connection conn, String sql) throws SQLException {
+		Matcher matcher = CREATE_INDEX.matcher(sql);
+		if (!matcher.matches()) {
+			return false;
+		}
+		String index = matcher.group(1);
+		String table = matcher.group(2);
+
+		DatabaseMetaData meta = conn.getMetaData();
+		for (String name : new String[] { table, table.toUpperCase(), table.toLowerCase() }) {
+			ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, name, false, true);
+			try {
+				while (rs.next()) {
+					if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+						return true;
+					}
+				}
+			}
+			finally {
+				DB.closeResultSet(rs);
+			}
+		}
+		return false;
+	}
+
+	private boolean columnExists(Connection conn, String sql) throws SQLException {
+		Matcher matcher = ADD_COLUMN.matcher(sql);
+		if (!matcher.matches()) {
+			return false;
+		}
+		String table = matcher.group(1);
+		String column = matcher.group(2);
+
+		DatabaseMetaData meta = conn.getMetaData();
+		for (String name : new String[] { table, table.toUpperCase(), table.toLowerCase() }) {
+			ResultSet rs = meta.getColumns(conn.getCatalog(), null, name, null);
+			try {
+				while (rs.next()) {
+					if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+						return true;
+					}
+				}
+			}
+			finally {
+				DB.closeResultSet(rs);
+			}
+		}
+		return false;
+	}
+
+	private static Migration load(String script) {
+		Matcher matcher = SCRIPT_NAME.matcher(script);
+		if (!matcher.matches()) {
+			throw new DbException("Invalid migration name: " + script);
+		}
+
+		String text;
+		try (InputStream in = MigrationRunner.class.getResourceAsStream(LOCATION + script)) {
+			if (in == null) {
+				throw new DbException("Migration not found: " + LOCATION + script);
+			}
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) > 0) {
+				out.write(buffer, 0, n);
+			}
+			text = new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+		catch (IOException e) {
+			throw new DbException(e.getMessage());
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(text.getBytes(StandardCharsets.UTF_8));
+
+		return new Migration(Integer.parseInt(matcher.group(1)), matcher.group(2).replace('_', ' '), crc.getValue(),
+				split(text));
+	}
+
+	private static List<String> split(String text) {
+		StringBuilder sql = new StringBuilder();
+		for (String line : text.split("\\R")) {
+			if (!line.trim().startsWith("--")) {
+				sql.append(line).append('\n');
+			}
+		}
+		List<String> statements = new ArrayList<>();
+		for (String statement : sql.toString().split(";")) {
+			if (!statement.trim().isEmpty()) {
+				statements.add(statement.trim());
+			}
+		}
+		return statements;
+	}
+
+	private static class Migration {
+
+		private final int version;
+		private final String description;
+		private final long checksum;
+		private final List<String> statements;
+
+		private Migration(int version, String description, long checksum, List<String> statements) {
+			this.version = version;
+			this.description = description;
+			this.checksum = checksum;
+			this.statements = statements;
+		}
+	}
+}
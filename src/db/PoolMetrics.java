@@ -0,0 +1,119 @@
+package db;
+
+public class PoolMetrics {
+
+	private final int active;
+	private final int idle;
+	private final int total;
+	private final int maxSize;
+	private final int pendingThreads;
+	private final long borrowCount;
+	private final long timeoutCount;
+	private final long totalWaitMillis;
+	private final long maxWaitMillis;
+	private final long createdCount;
+	private final long destroyedCount;
+	private final long leakCount;
+	private final long statementCacheHits;
+	private final long statementCacheMisses;
+	private final long statementCacheEvictions;
+
+	public PoolMetrics(int active, int idle, int total, int maxSize, int pendingThreads, long borrowCount,
+			long timeoutCount, long totalWaitMillis, long maxWaitMillis, long createdCount, long destroyedCount,
+			long leakCount, long statementCacheHits, long statementCacheMisses, long statementCacheEvictions) {
+		this.active = active;
+		this.idle = idle;
+		this.total = total;
+		this.maxSize = maxSize;
+		this.pendingThreads = pendingThreads;
+		this.borrowCount = borrowCount;
+		this.timeoutCount = timeoutCount;
+		this.totalWaitMillis = totalWaitMillis;
+		this.maxWaitMillis = maxWaitMillis;
+		this.createdCount = createdCount;
+		this.destroyedCount = destroyedCount;
+		this.leakCount = leakCount;
+		this.statementCacheHits = statementCacheHits;
+		this.statementCacheMisses = statementCacheMisses;
+		this.statementCacheEvictions = statementCacheEvictions;
+	}
+
+	public int getActive() {
+		return active;
+	}
+
+	public int getIdle() {
+		return idle;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public int getPendingThreads() {
+		return pendingThreads;
+	}
+
+	public long getBorrowCount() {
+		return borrowCount;
+	}
+
+	public long getTimeoutCount() {
+		return timeoutCount;
+	}
+
+	public long getTotalWaitMillis() {
+		return totalWaitMillis;
+	}
+
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	public double getAverageWaitMillis() {
+		return borrowCount == 0 ? 0.0 : (double) totalWaitMillis / borrowCount;
+	}
+
+	public long getCreatedCount() {
+		return createdCount;
+	}
+
+	public long getDestroyedCount() {
+		return destroyedCount;
+	}
+
+	public long getLeakCount() {
+		return leakCount;
+	}
+
+	public long getStatementCacheHits() {
+		return statementCacheHits;
+	}
+
+	public long getStatementCacheMisses() {
+		return statementCacheMisses;
+	}
+
+	public long getStatementCacheEvictions() {
+		return statementCacheEvictions;
+	}
+
+	public double getStatementCacheHitRate() {
+		long total = statementCacheHits + statementCacheMisses;
+		return total == 0 ? 0.0 : (double) statementCacheHits / total;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolMetrics [active=" + active + ", idle=" + idle + ", total=" + total + ", maxSize=" + maxSize
+				+ ", pendingThreads=" + pendingThreads + ", borrowCount=" + borrowCount + ", timeoutCount="
+				+ timeoutCount + ", totalWaitMillis=" + totalWaitMillis + ", maxWaitMillis=" + maxWaitMillis
+				+ ", createdCount=" + createdCount + ", destroyedCount=" + destroyedCount + ", leakCount="
+				+ leakCount + ", statementCacheHits=" + statementCacheHits + ", statementCacheMisses="
+				+ statementCacheMisses + ", statementCacheEvictions=" + statementCacheEvictions + "]";
+	}
+}
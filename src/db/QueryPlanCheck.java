@@ -0,0 +1,159 @@
+package db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Runs EXPLAIN on the queries a DAO issues, with sample values bound to the
+ * parameters, and logs a warning for every one that reads a table without an
+ * index. The plan is read the way the database reports it: the access type
+ * and row estimate of MySQL and MariaDB, or the table scans named in the plan
+ * text of H2. Only scans of tables with at least MIN_ROWS rows are reported,
+ * so small tables do not cause noise; other databases are not checked.
+ */
+public class QueryPlanCheck {
+
+	private static final Logger LOGGER = Logger.getLogger(QueryPlanCheck.class.getName());
+
+	private static final long MIN_ROWS = 1000;
+
+	public static class Query {
+
+		private final String name;
+		private final String sql;
+		private final Object[] params;
+
+		public Query(String name, String sql, Object... params) {
+			this.name = name;
+			this.sql = sql;
+			this.params = params;
+		}
+	}
+
+	private enum Dialect {
+		MYSQL, H2
+	}
+
+	private final DataSource dataSource;
+	private final List<Query> queries;
+
+	public QueryPlanCheck(DataSource dataSource, List<Query> queries) {
+		this.dataSource = dataSource;
+		this.queries = queries;
+	}
+
+	public List<String> run() {
+		List<String> warnings = new ArrayList<>();
+		Connection conn = null;
+		try {
+			conn = dataSource.getConnection();
+
+			Dialect dialect = dialectOf(conn.getMetaData().getDatabaseProductName());
+			if (dialect == null) {
+				LOGGER.info("Query plans not checked on " + conn.getMetaData().getDatabaseProductName());
+				return warnings;
+			}
+
+			for (Query query : queries) {
+				String scanned = findFullScan(conn, dialect, query);
+				if (scanned != null) {
+					String warning = query.name + " does not use an index on " + scanned;
+					LOGGER.warning(warning);
+					warnings.add(warning);
+				}
+			}
+			return warnings;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	private static Dialect dialectOf(String product) {
+		if (product == null) {
+			return null;
+		}
+		if (product.equalsIgnoreCase("MySQL") || product.equalsIgnoreCase("MariaDB")) {
+			return Dialect.MYSQL;
+		}
+		if (product.equalsIgnoreCase("H2")) {
+			return Dialect.H2;
+		}
+		return null;
+	}
+
+	private String findFullScan(Connection conn, Dialect dialect, Query query) throws SQLException {
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.prepareStatement("EXPLAIN " + query.sql);
+			for (int i = 0; i < query.params.length; i++) {
+				st.setObject(i + 1, query.params[i]);
+			}
+			rs = st.executeQuery();
+
+			return dialect == Dialect.MYSQL ? findMySqlScan(rs) : findH2Scan(conn, rs);
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+		}
+	}
+
+	/**
+	 * MySQL reports one row per table read, with access type ALL for a full
+	 * scan and the optimizer's row estimate.
+	 */
+	private static String findMySqlScan(ResultSet rs) throws SQLException {
+		while (rs.next()) {
+			if ("ALL".equalsIgnoreCase(rs.getString("type")) && rs.getLong("rows") >= MIN_ROWS) {
+				return rs.getString("table");
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * H2 returns the plan as text, naming a scanned table as
+	 * "SCHEMA.TABLE.tableScan".
+	 */
+	private String findH2Scan(Connection conn, ResultSet rs) throws SQLException {
+		while (rs.next()) {
+			String plan = rs.getString(1);
+			int scan = plan == null ? -1 : plan.indexOf(".tableScan");
+			if (scan >= 0) {
+				int start = plan.lastIndexOf('.', scan - 1) + 1;
+				String table = plan.substring(start, scan);
+				if (countRows(conn, table) >= MIN_ROWS) {
+					return table;
+				}
+			}
+		}
+		return null;
+	}
+
+	private long countRows(Connection conn, String table) throws SQLException {
+		Statement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.createStatement();
+			rs = st.executeQuery("SELECT COUNT(*) FROM " + table);
+			return rs.next() ? rs.getLong(1) : 0;
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package db;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection. Statements
+ * handed out are proxies whose close() puts the statement back in the cache
+ * instead of closing it, so the next prepare of the same SQL skips the
+ * round trip to the server.
+ */
+class StatementCache {
+
+	private final Connection physical;
+	private final int maxSize;
+
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+
+	private final Map<List<Object>, CachedStatement> idle = new LinkedHashMap<>(16, 0.75f, true);
+
+	StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+		this.physical = physical;
+		this.maxSize = maxSize;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+
+	static boolean isCacheable(Method method, Object[] args) {
+
+		if (!method.getName().equals("prepareStatement") || args == null || !(args[0] instanceof String)) {
+			return false;
+		}
+		for (int i = 1; i < args.length; i++) {
+			if (!(args[i] instanceof Integer)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	synchronized PreparedStatement prepare(Method method, Object[] args) throws Throwable {
+
+		List<Object> key = Arrays.asList(args);
+
+		CachedStatement cached = idle.remove(key);
+
+		if (cached != null) {
+			hits.incrementAndGet();
+		}
+		else {
+			misses.incrementAndGet();
+			PreparedStatement st;
+			try {
+				st = (PreparedStatement) method.invoke(physical, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+			cached = new CachedStatement(key, st);
+		}
+
+		return cached.newHandle();
+	}
+
+	private synchronized void giveBack(CachedStatement cached) {
+
+		try {
+			if (cached.statement.isClosed()) {
+				return;
+			}
+			cached.statement.clearParameters();
+			cached.statement.clearBatch();
+			cached.statement.clearWarnings();
+			if (cached.statement.getFetchSize() != cached.defaultFetchSize) {
+				cached.statement.setFetchSize(cached.defaultFetchSize);
+			}
+		}
+		catch (SQLException e) {
+			closeQuietly(cached.statement);
+			return;
+		}
+
+		CachedStatement previous = idle.put(cached.key, cached);
+		if (previous != null && previous != cached) {
+			closeQuietly(previous.statement);
+		}
+
+		if (idle.size() > maxSize) {
+			Iterator<CachedStatement> it = idle.values().iterator();
+			CachedStatement eldest = it.next();
+			it.remove();
+			evictions.incrementAndGet();
+			closeQuietly(eldest.statement);
+		}
+	}
+
+	synchronized void closeAll() {
+
+		List<CachedStatement> statements = new ArrayList<>(idle.values());
+		idle.clear();
+		for (CachedStatement cached : statements) {
+			closeQuietly(cached.statement);
+		}
+	}
+
+	private static void closeQuietly(PreparedStatement st) {
+
+		try {
+			st.close();
+		}
+		catch (SQLException e) {
+			// the statement is discarded either way
+		}
+	}
+
+	private class CachedStatement {
+
+		private final List<Object> key;
+		private final PreparedStatement statement;
+		private final int defaultFetchSize;
+
+		private CachedStatement(List<Object> key, PreparedStatement statement) throws SQLException {
+			this.key = key;
+			this.statement = statement;
+			this.defaultFetchSize = statement.getFetchSize();
+		}
+
+		private PreparedStatement newHandle() {
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+					new Class<?>[] { PreparedStatement.class }, new Handle(this));
+		}
+	}
+
+	private class Handle implements InvocationHandler {
+
+		private CachedStatement cached;
+
+		private Handle(CachedStatement cached) {
+			this.cached = cached;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			switch (method.getName()) {
+			case "close":
+				if (cached != null) {
+					CachedStatement released = cached;
+					cached = null;
+					giveBack(released);
+				}
+				return null;
+			case "isClosed":
+				return cached == null || cached.statement.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				if (cached == null) {
+					throw new SQLException("Statement is closed");
+				}
+				try {
+					return method.invoke(cached.statement, args);
+				}
+				catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+	}
+}
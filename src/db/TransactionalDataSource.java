@@ -0,0 +1,238 @@
+package db;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource that binds one connection to the current thread while a
+ * transaction is running. Every getConnection() inside execute() returns that
+ * connection, so DAOs and batches called from the callback share its commit.
+ *
+ * The handle they get ignores close(), commit() and setAutoCommit(); calling
+ * rollback() marks the transaction rollback-only instead of undoing work the
+ * caller did not do. Nested execute() calls join the running transaction.
+ */
+public class TransactionalDataSource implements DataSource {
+
+	private static final Logger LOGGER = Logger.getLogger(TransactionalDataSource.class.getName());
+
+	private final DataSource target;
+	private final ThreadLocal<Transaction> current = new ThreadLocal<>();
+
+	public TransactionalDataSource(DataSource target) {
+		this.target = target;
+	}
+
+	public DataSource getTarget() {
+		return target;
+	}
+
+	public boolean isInTransaction() {
+		return current.get() != null;
+	}
+
+	public <T> T execute(Supplier<T> work) {
+
+		Transaction joined = current.get();
+		if (joined != null) {
+			try {
+				return work.get();
+			}
+			catch (RuntimeException | Error e) {
+				joined.rollbackOnly = true;
+				throw e;
+			}
+		}
+
+		Connection conn;
+		try {
+			conn = target.getConnection();
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+
+		Transaction tx = new Transaction(conn);
+		T result;
+		try {
+			conn.setAutoCommit(false);
+			current.set(tx);
+			try {
+				result = work.get();
+			}
+			finally {
+				current.remove();
+			}
+			if (tx.rollbackOnly) {
+				conn.rollback();
+				throw new DbException("Transaction rolled back: it was marked rollback-only");
+			}
+			conn.commit();
+			tx.committed = true;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			if (!tx.committed) {
+				rollback(conn);
+			}
+			DB.closeConnection(conn);
+			tx.complete();
+		}
+		return result;
+	}
+
+	public void afterCompletion(Runnable callback) {
+		Transaction tx = current.get();
+		if (tx == null) {
+			callback.run();
+		}
+		else {
+			tx.callbacks.add(callback);
+		}
+	}
+
+	private static void rollback(Connection conn) {
+		try {
+			conn.rollback();
+		}
+		catch (SQLException e) {
+			// the original failure is the one worth reporting
+		}
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		Transaction tx = current.get();
+		return tx != null ? tx.handle : target.getConnection();
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		if (current.get() != null) {
+			throw new SQLException("Cannot open a connection for another user inside a transaction");
+		}
+		return target.getConnection(username, password);
+	}
+
+	@Override
+	public PrintWriter getLogWriter() throws SQLException {
+		return target.getLogWriter();
+	}
+
+	@Override
+	public void setLogWriter(PrintWriter out) throws SQLException {
+		target.setLogWriter(out);
+	}
+
+	@Override
+	public void setLoginTimeout(int seconds) throws SQLException {
+		target.setLoginTimeout(seconds);
+	}
+
+	@Override
+	public int getLoginTimeout() throws SQLException {
+		return target.getLoginTimeout();
+	}
+
+	@Override
+	public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+		return target.getParentLogger();
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return iface.cast(this);
+		}
+		return target.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || target.isWrapperFor(iface);
+	}
+
+	private static class Transaction {
+
+		private final Connection handle;
+		private final List<Runnable> callbacks = new ArrayList<>();
+
+		private boolean rollbackOnly;
+		private boolean committed;
+
+		private Transaction(Connection conn) {
+			this.handle = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new BoundHandle(this, conn));
+		}
+
+		private void complete() {
+			for (Runnable callback : callbacks) {
+				try {
+					callback.run();
+				}
+				catch (RuntimeException e) {
+					LOGGER.log(Level.WARNING, "Transaction completion callback failed", e);
+				}
+			}
+		}
+	}
+
+	private static class BoundHandle implements InvocationHandler {
+
+		private final Transaction tx;
+		private final Connection conn;
+
+		private BoundHandle(Transaction tx, Connection conn) {
+			this.tx = tx;
+			this.conn = conn;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+			switch (method.getName()) {
+			case "close":
+			case "commit":
+			case "setAutoCommit":
+				return null;
+			case "getAutoCommit":
+				return false;
+			case "rollback":
+				if (args == null || args.length == 0) {
+					tx.rollbackOnly = true;
+					return null;
+				}
+				break;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "TransactionalConnection[" + conn + "]";
+			default:
+				break;
+			}
+			try {
+				return method.invoke(conn, args);
+			}
+			catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
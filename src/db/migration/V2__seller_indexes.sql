@@ -0,0 +1,9 @@
+-- findByDepartment filters on DepartmentId and sorts by Name; the secondary
+-- index also carries the primary key, so (DepartmentId, Name, Id) is covered.
+CREATE INDEX ix_seller_department_name ON seller (DepartmentId, Name);
+
+-- Name ordering and keyset paging (Name, Id) and name prefix search.
+CREATE INDEX ix_seller_name ON seller (Name);
+
+-- Email prefix search.
+CREATE INDEX ix_seller_email ON seller (Email);
@@ -0,0 +1,6 @@
+-- Row versions for optimistic locking: every update checks the version it
+-- read and increments it, so concurrent edits are detected instead of lost.
+
+ALTER TABLE department ADD COLUMN Version INT NOT NULL DEFAULT 0;
+
+ALTER TABLE seller ADD COLUMN Version INT NOT NULL DEFAULT 0;
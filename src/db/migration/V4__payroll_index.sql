@@ -0,0 +1,4 @@
+-- The payroll report groups sellers by DepartmentId and ranks BaseSalary
+-- within each department; with both columns in one index the report reads
+-- the index alone, already in that order, instead of every seller row.
+CREATE INDEX ix_seller_department_salary ON seller (DepartmentId, BaseSalary);
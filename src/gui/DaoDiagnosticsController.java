@@ -0,0 +1,173 @@
+package gui;
+
+import java.net.URL;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import application.Main;
+import gui.util.Alerts;
+import gui.util.Background;
+import gui.util.Utils;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.dao.DaoMethodStats;
+import model.services.DiagnosticsService;
+
+public class DaoDiagnosticsController implements Initializable {
+
+	private static final Duration REFRESH_INTERVAL = Duration.seconds(1);
+
+	@FXML
+	private Button btRefresh;
+
+	@FXML
+	private Button btReset;
+
+	@FXML
+	private Label labelSlowQueries;
+
+	@FXML
+	private Label labelPool;
+
+	@FXML
+	private Label labelDepartmentCache;
+
+	@FXML
+	private TableView<DaoMethodStats> tableViewStats;
+
+	@FXML
+	private TableColumn<DaoMethodStats, String> tableColumnMethod;
+
+	@FXML
+	private TableColumn<DaoMethodStats, Long> tableColumnCalls;
+
+	@FXML
+	private TableColumn<DaoMethodStats, Long> tableColumnErrors;
+
+	@FXML
+	private TableColumn<DaoMethodStats, Long> tableColumnRows;
+
+	@FXML
+	private TableColumn<DaoMethodStats, Double> tableColumnMean;
+
+	@FXML
+	private TableColumn<DaoMethodStats, Double> tableColumnP50;
+
+	@FXML
+	private TableColumn<DaoMethodStats, Double> tableColumnP95;
+
+	@FXML
+	private TableColumn<DaoMethodStats, Double> tableColumnP99;
+
+	@FXML
+	private TableColumn<DaoMethodStats, Double> tableColumnMax;
+
+	private DiagnosticsService service;
+
+	private final Timeline refresher = new Timeline(new KeyFrame(REFRESH_INTERVAL, event -> refresh()));
+
+	public void setDiagnosticsService(DiagnosticsService service) {
+
+		this.service = service;
+	}
+
+	@Override
+	public void initialize(URL url, ResourceBundle rb) {
+
+		tableColumnMethod.setCellValueFactory(new PropertyValueFactory<>("method"));
+		tableColumnCalls.setCellValueFactory(new PropertyValueFactory<>("calls"));
+		tableColumnErrors.setCellValueFactory(new PropertyValueFactory<>("errors"));
+		tableColumnRows.setCellValueFactory(new PropertyValueFactory<>("rows"));
+		tableColumnMean.setCellValueFactory(new PropertyValueFactory<>("meanMillis"));
+		Utils.formatTableColumnDouble(tableColumnMean, 3);
+		tableColumnP50.setCellValueFactory(new PropertyValueFactory<>("p50Millis"));
+		Utils.formatTableColumnDouble(tableColumnP50, 3);
+		tableColumnP95.setCellValueFactory(new PropertyValueFactory<>("p95Millis"));
+		Utils.formatTableColumnDouble(tableColumnP95, 3);
+		tableColumnP99.setCellValueFactory(new PropertyValueFactory<>("p99Millis"));
+		Utils.formatTableColumnDouble(tableColumnP99, 3);
+		tableColumnMax.setCellValueFactory(new PropertyValueFactory<>("maxMillis"));
+		Utils.formatTableColumnDouble(tableColumnMax, 3);
+
+		Stage stage = (Stage) Main.getMainScene().getWindow();
+
+		tableViewStats.prefHeightProperty().bind(stage.heightProperty());
+
+		refresher.setCycleCount(Animation.INDEFINITE);
+	}
+
+	public void startRefreshing() {
+
+		if (service == null) {
+
+			throw new IllegalStateException("Service was null");
+		}
+
+		refresh();
+
+		refresher.play();
+
+		tableViewStats.sceneProperty().addListener((obs, oldScene, newScene) -> {
+			if (newScene == null) {
+				refresher.stop();
+			}
+		});
+	}
+
+	@FXML
+	public void onBtRefreshAction() {
+
+		refresh();
+	}
+
+	@FXML
+	public void onBtResetAction() {
+
+		service.reset();
+		refresh();
+	}
+
+	private void refresh() {
+
+		Background.submit(() -> new Snapshot(service), snapshot -> {
+
+			tableViewStats.setItems(FXCollections.observableArrayList(snapshot.methods));
+
+			labelSlowQueries.setText("Slow queries: " + snapshot.slowQueries);
+			labelPool.setText(snapshot.pool);
+			labelDepartmentCache.setText(snapshot.departmentCache);
+
+		}, e -> {
+
+			refresher.stop();
+			Alerts.showAlert("Error reading diagnostics", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+
+	private static class Snapshot {
+
+		private final List<DaoMethodStats> methods;
+		private final long slowQueries;
+		private final String pool;
+		private final String departmentCache;
+
+		private Snapshot(DiagnosticsService service) {
+			methods = service.getMethodStats();
+			slowQueries = service.getSlowQueryCount();
+			pool = service.getPoolMetrics().toString();
+			departmentCache = service.getDepartmentCacheStats().toString();
+		}
+	}
+}
@@ -4,21 +4,28 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-import db.DbException;
+import db.DbConcurrencyException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.Background;
 import gui.util.Constraints;
+import gui.util.TaskTracker;
 import gui.util.Utils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import model.entities.Department;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
@@ -46,6 +53,11 @@ public class DepartmentFormController implements Initializable {
 	@FXML
 	private Button btCancel;
 	
+	@FXML
+	private ProgressIndicator progressIndicator;
+	
+	private TaskTracker taskTracker;
+	
 	public void setDepartment(Department entity) {
 		
 		this.entity = entity;
@@ -77,28 +89,94 @@ public class DepartmentFormController implements Initializable {
 		try {
 			
 			updateEntityValues();
-			
-			service.saveOrUpdate(entity);
-			
-			notifyDataChangeListeners();
-			
-			Utils.currentStage(event).close();
 		}
 		catch (ValidationException e) {
 			
 			setErrorMessages(e.getErrors());
+			return;
 		}
-		catch (DbException e) {
+		
+		Stage stage = Utils.currentStage(event);
+		
+		btSave.setDisable(true);
+		
+		DataChangeEvent.Type type = entity.getId() == null ? DataChangeEvent.Type.INSERTED
+				: DataChangeEvent.Type.UPDATED;
+		
+		save(stage, type, () -> service.saveOrUpdate(entity));
+	}
+	
+	private void save(Stage stage, DataChangeEvent.Type type, Runnable action) {
+		
+		taskTracker.track(Background.run(action, () -> {
+			
+			notifyDataChangeListeners(new DataChangeEvent<>(type, entity, entity.getId()));
+			
+			stage.close();
+		}, e -> {
+			
+			btSave.setDisable(false);
+			
+			if (e instanceof DbConcurrencyException) {
+				
+				resolveConflict(stage, type);
+				return;
+			}
 			
 			Alerts.showAlert("Error saving object", null, e.getMessage(), AlertType.ERROR);
+		}));
+	}
+	
+	private void resolveConflict(Stage stage, DataChangeEvent.Type type) {
+		
+		ButtonType reload = new ButtonType("Reload");
+		ButtonType overwrite = new ButtonType("Overwrite");
+		
+		Optional<ButtonType> choice = Alerts.showChoice("Edit conflict", "This department was changed by another user",
+				"Reload to see their changes and edit again, or overwrite them with your values.",
+				reload, overwrite, ButtonType.CANCEL);
+		
+		if (!choice.isPresent() || choice.get() == ButtonType.CANCEL) {
+			
+			return;
+		}
+		
+		btSave.setDisable(true);
+		
+		if (choice.get() == overwrite) {
+			
+			save(stage, type, () -> service.overwrite(entity));
+			return;
 		}
+		
+		taskTracker.track(Background.submit(() -> service.findById(entity.getId()), current -> {
+			
+			btSave.setDisable(false);
+			
+			if (current == null) {
+				
+				notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, entity, entity.getId()));
+				Alerts.showAlert("Edit conflict", null, "This department was deleted by another user.", AlertType.WARNING);
+				stage.close();
+				return;
+			}
+			
+			setDepartment(current);
+			
+			notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Type.UPDATED, current, current.getId()));
+		}, e -> {
+			
+			btSave.setDisable(false);
+			
+			Alerts.showAlert("Error reloading object", null, e.getMessage(), AlertType.ERROR);
+		}));
 	}
 	
-	private void notifyDataChangeListeners() {
+	private void notifyDataChangeListeners(DataChangeEvent<Department> event) {
 
 		for (DataChangeListener listener : dataChangeListeners) {
 			
-			listener.onDataChanged();
+			listener.onDataChanged(event);
 		}
 		
 	}
@@ -137,6 +215,8 @@ public class DepartmentFormController implements Initializable {
 	public void initialize(URL url, ResourceBundle rs) {
 
 		initializeNodes();
+		
+		taskTracker = new TaskTracker(progressIndicator, null);
 	}
 
 	private void initializeNodes() {
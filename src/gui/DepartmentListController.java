@@ -2,18 +2,21 @@ package gui;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.List;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
 import application.Main;
-import db.DbIntegrityException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.Background;
+import gui.util.CoalescingRunner;
+import gui.util.TaskTracker;
 import gui.util.Utils;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -22,6 +25,7 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -55,8 +59,18 @@ public class DepartmentListController implements Initializable, DataChangeListen
 	@FXML
 	private Button btNewDepartment;
 
+	@FXML
+	private ProgressIndicator progressIndicator;
+
+	@FXML
+	private Button btCancelLoading;
+
 	private DepartmentService departmentService;
 
+	private TaskTracker taskTracker;
+
+	private final CoalescingRunner refresher = new CoalescingRunner(this::startRefresh);
+
 	public void setDepartmentService(DepartmentService departmentService) {
 
 		this.departmentService = departmentService;
@@ -76,6 +90,10 @@ public class DepartmentListController implements Initializable, DataChangeListen
 
 		tableColumnId.setCellValueFactory(new PropertyValueFactory<>("Id"));
 		tableColumnName.setCellValueFactory(new PropertyValueFactory<>("Name"));
+
+		initEditButtons();
+
+		initRemoveButtons();
 	}
 
 	@Override
@@ -83,6 +101,8 @@ public class DepartmentListController implements Initializable, DataChangeListen
 
 		initializeNodes();
 
+		taskTracker = new TaskTracker(progressIndicator, btCancelLoading);
+
 		Stage stage = (Stage) Main.getMainScene().getWindow();
 
 		tableViewDepartment.prefHeightProperty().bind(stage.heightProperty());
@@ -95,15 +115,17 @@ public class DepartmentListController implements Initializable, DataChangeListen
 			throw new IllegalStateException("Service was null");
 		}
 
-		List<Department> list = departmentService.findAll();
+		refresher.request();
+	}
 
-		obsList = FXCollections.observableArrayList(list);
+	private Task<?> startRefresh() {
 
-		tableViewDepartment.setItems(obsList);
+		return taskTracker.track(Background.submit(departmentService::findAll, list -> {
 
-		initEditButtons();
-		
-		initRemoveButtons();
+			obsList = FXCollections.observableArrayList(list);
+
+			tableViewDepartment.setItems(obsList);
+		}, e -> Alerts.showAlert("Error loading departments", null, e.getMessage(), AlertType.ERROR)));
 	}
 
 	private void createDialogForm(Department obj, String absoluteName, Stage parentStage) {
@@ -143,6 +165,52 @@ public class DepartmentListController implements Initializable, DataChangeListen
 		updateTableView();
 	}
 
+	@Override
+	public void onDataChanged(DataChangeEvent<?> event) {
+
+		if (obsList == null || !(event.getEntity() instanceof Department)) {
+
+			updateTableView();
+			return;
+		}
+
+		Department department = (Department) event.getEntity();
+
+		int current = obsList.indexOf(department);
+
+		if (event.getType() == DataChangeEvent.Type.DELETED) {
+
+			if (current >= 0) {
+
+				obsList.remove(current);
+			}
+			return;
+		}
+
+		int index = 0;
+
+		for (int i = 0; i < obsList.size(); i++) {
+
+			if (i != current && obsList.get(i).getName().compareToIgnoreCase(department.getName()) <= 0) {
+				index++;
+			}
+		}
+
+		if (index == current) {
+
+			obsList.set(current, department);
+		}
+		else {
+
+			if (current >= 0) {
+
+				obsList.remove(current);
+			}
+
+			obsList.add(index, department);
+		}
+	}
+
 	private void initEditButtons() {
 
 		tableColumnEDIT.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue()));
@@ -205,21 +273,9 @@ public class DepartmentListController implements Initializable, DataChangeListen
 				throw new IllegalStateException("Service was null");
 			}
 			
-			try {
-			
-				departmentService.remove(obj);
-	
-				updateTableView();
-			}
-			catch (DbIntegrityException e) {
-				
-				Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR);
-			}
-			finally
-			{
-				
-			}
-			
+			taskTracker.track(Background.run(() -> departmentService.remove(obj),
+					() -> onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, obj, obj.getId())),
+					e -> Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR)));
 		}
 	}
 	
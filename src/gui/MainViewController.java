@@ -17,6 +17,10 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.layout.VBox;
 import model.services.DepartmentService;
+import model.services.DiagnosticsService;
+import model.services.PayrollReportService;
+import model.services.SellerExportService;
+import model.services.SellerImportService;
 import model.services.SellerService;
 
 
@@ -28,6 +32,15 @@ public class MainViewController implements Initializable {
 	@FXML
 	private MenuItem menuItemDepartment;
 	
+	@FXML
+	private MenuItem menuItemSellerImport;
+	
+	@FXML
+	private MenuItem menuItemPayrollReport;
+	
+	@FXML
+	private MenuItem menuItemDiagnostics;
+	
 	@FXML
 	private MenuItem menuItemAbout;
 	
@@ -37,6 +50,7 @@ public class MainViewController implements Initializable {
 		loadView("/gui/SellerList.fxml", 
 				(SellerListController controller) -> {
 					controller.setSellerService(new SellerService());
+					controller.setSellerExportService(new SellerExportService());
 					controller.updateTableView();
 				}
 		);
@@ -53,6 +67,36 @@ public class MainViewController implements Initializable {
 		);
 	}
 	
+	@FXML
+	private synchronized void onMenuItemSellerImportAction() {
+		
+		loadView("/gui/SellerImport.fxml", 
+				(SellerImportController controller) -> controller.setSellerImportService(new SellerImportService())
+		);
+	}
+	
+	@FXML
+	private synchronized void onMenuItemPayrollReportAction() {
+		
+		loadView("/gui/PayrollReport.fxml", 
+				(PayrollReportController controller) -> {
+					controller.setPayrollReportService(new PayrollReportService());
+					controller.updateReport();
+				}
+		);
+	}
+	
+	@FXML
+	private synchronized void onMenuItemDiagnosticsAction() {
+		
+		loadView("/gui/DaoDiagnostics.fxml", 
+				(DaoDiagnosticsController controller) -> {
+					controller.setDiagnosticsService(new DiagnosticsService());
+					controller.startRefreshing();
+				}
+		);
+	}
+	
 	@FXML
 	private synchronized void onMenuItemAboutAction() {
 		
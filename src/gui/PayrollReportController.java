@@ -0,0 +1,127 @@
+package gui;
+
+import java.net.URL;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+
+import application.Main;
+import gui.util.Alerts;
+import gui.util.Background;
+import gui.util.Utils;
+import javafx.collections.FXCollections;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Stage;
+import model.reports.DepartmentPayroll;
+import model.reports.PayrollReport;
+import model.services.PayrollReportService;
+
+public class PayrollReportController implements Initializable {
+
+	private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
+
+	@FXML
+	private Button btRefresh;
+
+	@FXML
+	private Label labelGeneratedAt;
+
+	@FXML
+	private TableView<DepartmentPayroll> tableViewPayroll;
+
+	@FXML
+	private TableColumn<DepartmentPayroll, String> tableColumnDepartment;
+
+	@FXML
+	private TableColumn<DepartmentPayroll, Integer> tableColumnSellers;
+
+	@FXML
+	private TableColumn<DepartmentPayroll, Double> tableColumnTotal;
+
+	@FXML
+	private TableColumn<DepartmentPayroll, Double> tableColumnAverage;
+
+	@FXML
+	private TableColumn<DepartmentPayroll, Double> tableColumnMinimum;
+
+	@FXML
+	private TableColumn<DepartmentPayroll, Double> tableColumnMaximum;
+
+	@FXML
+	private TableColumn<DepartmentPayroll, Double> tableColumnMedian;
+
+	@FXML
+	private TableColumn<DepartmentPayroll, Double> tableColumnP90;
+
+	private PayrollReportService service;
+
+	public void setPayrollReportService(PayrollReportService service) {
+
+		this.service = service;
+	}
+
+	@Override
+	public void initialize(URL url, ResourceBundle rb) {
+
+		tableColumnDepartment.setCellValueFactory(new PropertyValueFactory<>("departmentName"));
+		tableColumnSellers.setCellValueFactory(new PropertyValueFactory<>("sellers"));
+		tableColumnTotal.setCellValueFactory(new PropertyValueFactory<>("total"));
+		Utils.formatTableColumnDouble(tableColumnTotal, 2);
+		tableColumnAverage.setCellValueFactory(new PropertyValueFactory<>("average"));
+		Utils.formatTableColumnDouble(tableColumnAverage, 2);
+		tableColumnMinimum.setCellValueFactory(new PropertyValueFactory<>("minimum"));
+		Utils.formatTableColumnDouble(tableColumnMinimum, 2);
+		tableColumnMaximum.setCellValueFactory(new PropertyValueFactory<>("maximum"));
+		Utils.formatTableColumnDouble(tableColumnMaximum, 2);
+		tableColumnMedian.setCellValueFactory(new PropertyValueFactory<>("median"));
+		Utils.formatTableColumnDouble(tableColumnMedian, 2);
+		tableColumnP90.setCellValueFactory(new PropertyValueFactory<>("p90"));
+		Utils.formatTableColumnDouble(tableColumnP90, 2);
+
+		Stage stage = (Stage) Main.getMainScene().getWindow();
+
+		tableViewPayroll.prefHeightProperty().bind(stage.heightProperty());
+	}
+
+	public void updateReport() {
+
+		if (service == null) {
+
+			throw new IllegalStateException("Service was null");
+		}
+
+		Background.submit(service::getPayrollByDepartment, this::showReport, e -> {
+
+			Alerts.showAlert("Error loading payroll report", null, e.getMessage(), AlertType.ERROR);
+		});
+	}
+
+	@FXML
+	public void onBtRefreshAction() {
+
+		updateReport();
+	}
+
+	private void showReport(PayrollReport report) {
+
+		List<DepartmentPayroll> rows = new ArrayList<>(report.getDepartments());
+		rows.add(report.getTotal());
+
+		tableViewPayroll.setItems(FXCollections.observableArrayList(rows));
+
+		String generatedAt = TIME_FORMAT.format(Instant.ofEpochMilli(report.getGeneratedAt()).atZone(ZoneId.systemDefault()));
+
+		labelGeneratedAt.setText("Generated " + generatedAt
+				+ (report.hasPercentiles() ? "" : " (median and 90th percentile not computed)"));
+	}
+}
@@ -1,21 +1,20 @@
 package gui;
 
 import java.net.URL;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.ResourceBundle;
 import java.util.Set;
 
-import db.DbException;
+import db.DbConcurrencyException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.Background;
 import gui.util.Constraints;
+import gui.util.TaskTracker;
 import gui.util.Utils;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -24,18 +23,22 @@ import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.Label;
 import javafx.scene.control.ListCell;
 import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
+import javafx.stage.Stage;
 import javafx.util.Callback;
 import model.entities.Department;
 import model.entities.Seller;
 import model.exceptions.ValidationException;
 import model.services.DepartmentService;
 import model.services.SellerService;
+import model.services.SellerValidator;
 
 public class SellerFormController implements Initializable {
 
@@ -77,12 +80,20 @@ public class SellerFormController implements Initializable {
 	@FXML
 	private Label labelErrorBaseSalary;
 
+	@FXML
+	private Label labelErrorDepartment;
+
 	@FXML
 	private Button btSave;
 
 	@FXML
 	private Button btCancel;
 
+	@FXML
+	private ProgressIndicator progressIndicator;
+
+	private TaskTracker taskTracker;
+
 	@FXML
 	private ObservableList<Department> obsListDepartment;
 
@@ -118,82 +129,107 @@ public class SellerFormController implements Initializable {
 		try {
 
 			updateEntityValues();
+		} catch (ValidationException e) {
 
-			service.saveOrUpdate(entity);
+			setErrorMessages(e.getErrors());
+			return;
+		}
 
-			notifyDataChangeListeners();
+		Stage stage = Utils.currentStage(event);
 
-			Utils.currentStage(event).close();
-		} catch (ValidationException e) {
+		btSave.setDisable(true);
 
-			setErrorMessages(e.getErrors());
-		} catch (DbException e) {
+		DataChangeEvent.Type type = entity.getId() == null ? DataChangeEvent.Type.INSERTED
+				: DataChangeEvent.Type.UPDATED;
+
+		save(stage, type, () -> service.saveOrUpdate(entity));
+	}
+
+	private void save(Stage stage, DataChangeEvent.Type type, Runnable action) {
+
+		taskTracker.track(Background.run(action, () -> {
+
+			notifyDataChangeListeners(new DataChangeEvent<>(type, entity, entity.getId()));
+
+			stage.close();
+		}, e -> {
+
+			btSave.setDisable(false);
+
+			if (e instanceof DbConcurrencyException) {
+
+				resolveConflict(stage, type);
+				return;
+			}
 
 			Alerts.showAlert("Error saving object", null, e.getMessage(), AlertType.ERROR);
-		}
+		}));
 	}
 
-	private void notifyDataChangeListeners() {
+	private void resolveConflict(Stage stage, DataChangeEvent.Type type) {
 
-		for (DataChangeListener listener : dataChangeListeners) {
+		ButtonType reload = new ButtonType("Reload");
+		ButtonType overwrite = new ButtonType("Overwrite");
+
+		Optional<ButtonType> choice = Alerts.showChoice("Edit conflict", "This seller was changed by another user",
+				"Reload to see their changes and edit again, or overwrite them with your values.",
+				reload, overwrite, ButtonType.CANCEL);
+
+		if (!choice.isPresent() || choice.get() == ButtonType.CANCEL) {
 
-			listener.onDataChanged();
+			return;
 		}
-	}
 
-	private void updateEntityValues() {
+		btSave.setDisable(true);
 
-		if (entity == null) {
+		if (choice.get() == overwrite) {
 
-			entity = new Seller();
+			save(stage, type, () -> service.overwrite(entity));
+			return;
 		}
 
-		ValidationException exception = new ValidationException("Validation error.");
+		taskTracker.track(Background.submit(() -> service.findById(entity.getId()), current -> {
 
-		entity.setId(Utils.tryParseToInt(txtId.getText()));
+			btSave.setDisable(false);
 
-		if (txtName.getText() == null || txtName.getText().trim().isEmpty()) {
+			if (current == null) {
 
-			exception.addError("Name", "Field can't be empty");
-		}
+				notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, entity, entity.getId()));
+				Alerts.showAlert("Edit conflict", null, "This seller was deleted by another user.", AlertType.WARNING);
+				stage.close();
+				return;
+			}
 
-		entity.setName(txtName.getText());
-		
-		
-		if (txtEmail.getText() == null || txtEmail.getText().trim().isEmpty()) {
+			setSeller(current);
 
-			exception.addError("Email", "Field can't be empty");
-		}
+			notifyDataChangeListeners(new DataChangeEvent<>(DataChangeEvent.Type.UPDATED, current, current.getId()));
+		}, e -> {
 
-		entity.setEmail(txtEmail.getText());
-		
-		
-		if (dpBirthDate.getValue() == null) {
-			
-			exception.addError("BirthDate", "Field can't be empty");
-		}
-		else {
+			btSave.setDisable(false);
 
-			Instant inst = Instant.from(dpBirthDate.getValue().atStartOfDay(ZoneId.systemDefault()));
-			
-			entity.setBirthDate(Date.from(inst));	
-		}
+			Alerts.showAlert("Error reloading object", null, e.getMessage(), AlertType.ERROR);
+		}));
+	}
 
+	private void notifyDataChangeListeners(DataChangeEvent<Seller> event) {
 
-		if (txtBaseSalary.getText() == null || txtBaseSalary.getText().trim().isEmpty()) {
+		for (DataChangeListener listener : dataChangeListeners) {
 
-			exception.addError("BaseSalary", "Field can't be empty");
+			listener.onDataChanged(event);
 		}
+	}
 
-		entity.setBaseSalary(Utils.tryParseToDouble(txtBaseSalary.getText()));
-		
-		
-		entity.setDepartment(comboBoxDepartment.getValue());
-		
-		if (!exception.getErrors().isEmpty()) {
+	private void updateEntityValues() {
 
-			throw exception;
+		if (entity == null) {
+
+			entity = new Seller();
 		}
+
+		entity.setId(Utils.tryParseToInt(txtId.getText()));
+
+		SellerValidator.validate(entity, txtName.getText(), txtEmail.getText(), dpBirthDate.getValue(),
+				txtBaseSalary.getText(), comboBoxDepartment.getValue());
 	}
 
 	@FXML
@@ -206,14 +242,16 @@ public class SellerFormController implements Initializable {
 	public void initialize(URL url, ResourceBundle rs) {
 
 		initializeNodes();
+
+		taskTracker = new TaskTracker(progressIndicator, null);
 	}
 
 	private void initializeNodes() {
 
 		Constraints.setTextFieldInteger(txtId);
-		Constraints.setTextFieldMaxLength(txtName, 70);
+		Constraints.setTextFieldMaxLength(txtName, SellerValidator.NAME_MAX_LENGTH);
 		Constraints.setTextFieldDouble(txtBaseSalary);
-		Constraints.setTextFieldMaxLength(txtEmail, 60);
+		Constraints.setTextFieldMaxLength(txtEmail, SellerValidator.EMAIL_MAX_LENGTH);
 		Utils.formatDatePicker(dpBirthDate, "dd/MM/yyyy");
 	}
 
@@ -228,24 +266,33 @@ public class SellerFormController implements Initializable {
 		txtName.setText(entity.getName());
 		txtEmail.setText(entity.getEmail());
 
-		Locale.setDefault(Locale.US);
-
-		txtBaseSalary.setText(String.format("%.2f", entity.getBaseSalary()));
+		txtBaseSalary.setText(entity.hasBaseSalary() ? Utils.formatDouble(entity.getBaseSalary(), 2) : "");
 
 		if (entity.getBirthDate() != null) {
 
-			dpBirthDate.setValue(LocalDate.ofInstant(entity.getBirthDate().toInstant(), ZoneId.systemDefault()));
-		}
-		
-		if (entity.getDepartment() == null) {
-			
-			comboBoxDepartment.getSelectionModel().selectFirst();
+			dpBirthDate.setValue(entity.getBirthDate());
 		}
-		else {
 		
-			comboBoxDepartment.setValue(entity.getDepartment());
+		selectDepartment();
+	}
+
+	private void selectDepartment() {
+
+		Integer departmentId = entity == null ? null : entity.getDepartmentId();
+
+		if (departmentId != null && obsListDepartment != null) {
+
+			for (Department department : obsListDepartment) {
+
+				if (departmentId.equals(department.getId())) {
+
+					comboBoxDepartment.setValue(department);
+					return;
+				}
+			}
 		}
-		
+
+		comboBoxDepartment.getSelectionModel().selectFirst();
 	}
 
 	public void loadAssociatedObjects() {
@@ -255,13 +302,16 @@ public class SellerFormController implements Initializable {
 			throw new IllegalStateException("DepartmentService was null");
 		}
 
-		List<Department> list = departmentService.findAll();
+		initializeComboBoxDepartment();
 
-		obsListDepartment = FXCollections.observableArrayList(list);
+		taskTracker.track(Background.submit(departmentService::findAll, list -> {
 
-		comboBoxDepartment.setItems(obsListDepartment);
-		
-		initializeComboBoxDepartment();
+			obsListDepartment = FXCollections.observableArrayList(list);
+
+			comboBoxDepartment.setItems(obsListDepartment);
+
+			selectDepartment();
+		}, e -> Alerts.showAlert("Error loading departments", null, e.getMessage(), AlertType.ERROR)));
 	}
 
 	private void initializeComboBoxDepartment() {
@@ -288,6 +338,7 @@ public class SellerFormController implements Initializable {
 		labelErrorEmail.setText("");
 		labelErrorBaseSalary.setText("");
 		labelErrorBirthDate.setText("");
+		labelErrorDepartment.setText("");
 		
 		if (fields.contains("Name")) {
 
@@ -308,5 +359,10 @@ public class SellerFormController implements Initializable {
 
 			labelErrorBirthDate.setText(errors.get("BirthDate"));
 		}
+		
+		if (fields.contains("Department")) {
+
+			labelErrorDepartment.setText(errors.get("Department"));
+		}
 	}
 }
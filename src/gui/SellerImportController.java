@@ -0,0 +1,167 @@
+package gui;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ResourceBundle;
+
+import gui.util.Alerts;
+import gui.util.Background;
+import gui.util.TaskTracker;
+import gui.util.Utils;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.concurrent.Task;
+import javafx.event.ActionEvent;
+import javafx.fxml.FXML;
+import javafx.fxml.Initializable;
+import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
+import javafx.scene.control.ProgressIndicator;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
+import model.imports.ImportProgress;
+import model.imports.RejectedRow;
+import model.imports.SellerImporter;
+import model.services.SellerImportService;
+
+public class SellerImportController implements Initializable {
+
+	private static final Duration REFRESH_INTERVAL = Duration.millis(250);
+
+	@FXML
+	private Button btChooseFile;
+
+	@FXML
+	private ProgressIndicator progressIndicator;
+
+	@FXML
+	private Button btCancel;
+
+	@FXML
+	private Label labelStatus;
+
+	@FXML
+	private Label labelRead;
+
+	@FXML
+	private Label labelImported;
+
+	@FXML
+	private Label labelRejected;
+
+	@FXML
+	private Label labelThroughput;
+
+	@FXML
+	private Label labelElapsed;
+
+	@FXML
+	private ListView<RejectedRow> listViewRejected;
+
+	private SellerImportService service;
+
+	private TaskTracker taskTracker;
+
+	private volatile SellerImporter importer;
+
+	private final Timeline refresher = new Timeline(new KeyFrame(REFRESH_INTERVAL, event -> showProgress()));
+
+	public void setSellerImportService(SellerImportService service) {
+
+		this.service = service;
+	}
+
+	@Override
+	public void initialize(URL url, ResourceBundle rb) {
+
+		taskTracker = new TaskTracker(progressIndicator, btCancel);
+
+		refresher.setCycleCount(Animation.INDEFINITE);
+	}
+
+	@FXML
+	public void onBtChooseFileAction(ActionEvent event) {
+
+		if (service == null) {
+
+			throw new IllegalStateException("Service was null");
+		}
+
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Import Sellers");
+		chooser.getExtensionFilters().addAll(new FileChooser.ExtensionFilter("CSV or JSON", "*.csv", "*.json"),
+				new FileChooser.ExtensionFilter("All files", "*.*"));
+
+		File file = chooser.showOpenDialog(Utils.currentStage(event));
+
+		if (file == null) {
+
+			return;
+		}
+
+		startImport(file);
+	}
+
+	private void startImport(File file) {
+
+		btChooseFile.setDisable(true);
+		listViewRejected.getItems().clear();
+		labelStatus.setText("Importing " + file.getName());
+
+		Task<ImportProgress> task = Background.submit(() -> {
+
+			importer = service.createImporter();
+
+			return service.importFile(importer, file.toPath());
+
+		}, progress -> finish("Finished")
+		, e -> {
+
+			finish("Failed");
+			Alerts.showAlert("Error importing sellers", null, e.getMessage(), AlertType.ERROR);
+		});
+
+		task.setOnCancelled(event -> finish("Cancelled"));
+
+		taskTracker.track(task);
+
+		refresher.play();
+	}
+
+	private void finish(String status) {
+
+		refresher.stop();
+		showProgress();
+
+		SellerImporter current = importer;
+
+		if (current != null) {
+
+			listViewRejected.getItems().setAll(current.getRejectedRows());
+		}
+
+		labelStatus.setText(status);
+		btChooseFile.setDisable(false);
+	}
+
+	private void showProgress() {
+
+		SellerImporter current = importer;
+
+		if (current == null) {
+
+			return;
+		}
+
+		ImportProgress progress = current.getProgress();
+
+		labelRead.setText(String.valueOf(progress.getRead()));
+		labelImported.setText(String.valueOf(progress.getImported()));
+		labelRejected.setText(String.valueOf(progress.getRejected()));
+		labelThroughput.setText(String.format("%.0f", progress.getRowsPerSecond()));
+		labelElapsed.setText(String.format("%.1f s", progress.getElapsedMillis() / 1000.0));
+	}
+}
@@ -1,20 +1,33 @@
 package gui;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ResourceBundle;
 
 import application.Main;
-import db.DbIntegrityException;
+import gui.listeners.DataChangeEvent;
 import gui.listeners.DataChangeListener;
 import gui.util.Alerts;
+import gui.util.Background;
+import gui.util.CoalescingRunner;
+import gui.util.Debouncer;
+import gui.util.LazyPagedList;
+import gui.util.TaskTracker;
 import gui.util.Utils;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -23,20 +36,42 @@ import javafx.scene.Scene;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.Pane;
+import javafx.stage.FileChooser;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import javafx.util.Duration;
+import model.dao.SellerQuery;
+import model.dao.SellerSortColumn;
 import model.entities.Department;
 import model.entities.Seller;
+import model.exports.ExportFormat;
+import model.exports.ExportProgress;
+import model.exports.SellerExporter;
+import model.search.SellerSearchIndex;
 import model.services.DepartmentService;
+import model.services.SellerExportService;
 import model.services.SellerService;
+import model.writebehind.WriteBehindStats;
+import model.writebehind.WriteFailure;
 
 public class SellerListController implements Initializable, DataChangeListener {
 
+	private static final int PAGE_SIZE = 100;
+
+	private static final int MAX_CACHED_PAGES = 20;
+
+	private static final int SEARCH_LIMIT = 1000;
+
+	private static final Duration SEARCH_DELAY = Duration.millis(150);
+
 	@FXML
 	private TableView<Seller> tableViewSeller;
 
@@ -53,10 +88,10 @@ public class SellerListController implements Initializable, DataChangeListener {
 	private TableColumn<Seller, String> tableColumnEmail;
 	
 	@FXML
-	private TableColumn<Seller, Date> tableColumnBirthDate;
+	private TableColumn<Seller, Seller> tableColumnBirthDate;
 	
 	@FXML
-	private TableColumn<Seller, Double> tableColumnBaseSalary;
+	private TableColumn<Seller, Seller> tableColumnBaseSalary;
 	
 	@FXML
 	private TableColumn<Seller, Department> tableColumnDepartment;
@@ -70,11 +105,76 @@ public class SellerListController implements Initializable, DataChangeListener {
 	@FXML
 	private Button btNewSeller;
 
+	@FXML
+	private ProgressIndicator progressIndicator;
+
+	@FXML
+	private Button btCancelLoading;
+
+	@FXML
+	private Button btExport;
+
+	@FXML
+	private Label labelExportStatus;
+
+	@FXML
+	private TextField txtSearch;
+
+	@FXML
+	private Label labelWriteBehind;
+
+	@FXML
+	private Button btRetryWrites;
+
 	private SellerService sellerService;
 
+	private SellerExportService exportService;
+
+	private volatile SellerExporter exporter;
+
+	private final Timeline exportRefresher = new Timeline(
+			new KeyFrame(Duration.millis(250), event -> showExportProgress("Exporting")));
+
+	private final Timeline writeBehindRefresher = new Timeline(
+			new KeyFrame(Duration.seconds(1), event -> showWriteBehindStatus()));
+
+	private TaskTracker taskTracker;
+
+	private LazyPagedList<Seller> pagedList;
+
+	private final SellerQuery query = new SellerQuery();
+
+	private SellerQuery listQuery;
+
+	private final Map<TableColumn<Seller, ?>, SellerSortColumn> sortColumns = new HashMap<>();
+
+	private final Debouncer searchDebouncer = new Debouncer(SEARCH_DELAY, this::onSearchChanged);
+
+	private String searchText = "";
+
+	private SellerSearchIndex searchIndex;
+
+	private boolean indexBuilding;
+
+	private final List<DataChangeEvent<?>> pendingIndexEvents = new ArrayList<>();
+
+	private final CoalescingRunner refresher = new CoalescingRunner(this::startRefresh);
+
 	public void setSellerService(SellerService sellerService) {
 
 		this.sellerService = sellerService;
+
+		if (sellerService.isWriteBehindEnabled()) {
+
+			showWriteBehindStatus();
+			writeBehindRefresher.setCycleCount(Animation.INDEFINITE);
+			writeBehindRefresher.play();
+		}
+	}
+
+	public void setSellerExportService(SellerExportService exportService) {
+
+		this.exportService = exportService;
 	}
 
 	@FXML
@@ -87,15 +187,296 @@ public class SellerListController implements Initializable, DataChangeListener {
 		createDialogForm(obj, "/gui/SellerForm.fxml", parentStage);
 	}
 
+	@FXML
+	public void onBtExportAction(ActionEvent event) {
+
+		if (exportService == null) {
+
+			throw new IllegalStateException("Service was null");
+		}
+
+		FileChooser.ExtensionFilter csv = new FileChooser.ExtensionFilter("CSV", "*" + ExportFormat.CSV.getExtension());
+		FileChooser.ExtensionFilter columnar = new FileChooser.ExtensionFilter("Columnar",
+				"*" + ExportFormat.COLUMNAR.getExtension());
+
+		FileChooser chooser = new FileChooser();
+		chooser.setTitle("Export Sellers");
+		chooser.getExtensionFilters().addAll(csv, columnar);
+
+		File file = chooser.showSaveDialog(Utils.currentStage(event));
+
+		if (file == null) {
+
+			return;
+		}
+
+		ExportFormat format = chooser.getSelectedExtensionFilter() == columnar ? ExportFormat.COLUMNAR : ExportFormat.CSV;
+
+		if (!file.getName().toLowerCase().endsWith(format.getExtension())) {
+
+			file = new File(file.getPath() + format.getExtension());
+		}
+
+		startExport(format, file);
+	}
+
+	private void startExport(ExportFormat format, File file) {
+
+		btExport.setDisable(true);
+
+		SellerExporter current = exportService.createExporter();
+		exporter = current;
+
+		Task<ExportProgress> task = Background.submit(() -> exportService.export(current, format, file.toPath()),
+				progress -> finishExport("Exported"), e -> {
+
+					finishExport("Export failed");
+					Alerts.showAlert("Error exporting sellers", null, e.getMessage(), AlertType.ERROR);
+				});
+
+		task.setOnCancelled(event -> finishExport("Export cancelled"));
+
+		taskTracker.track(task);
+
+		exportRefresher.setCycleCount(Animation.INDEFINITE);
+		exportRefresher.play();
+	}
+
+	private void finishExport(String status) {
+
+		exportRefresher.stop();
+		showExportProgress(status);
+		btExport.setDisable(false);
+	}
+
+	private void showExportProgress(String status) {
+
+		SellerExporter current = exporter;
+
+		if (current == null) {
+
+			return;
+		}
+
+		ExportProgress progress = current.getProgress();
+
+		labelExportStatus.setText(String.format("%s %d rows in %.1f s (%.0f rows/s)", status, progress.getRows(),
+				progress.getElapsedMillis() / 1000.0, progress.getRowsPerSecond()));
+	}
+
+	@FXML
+	public void onBtRetryWritesAction() {
+
+		List<WriteFailure> failures = sellerService.getWriteBehindFailures();
+
+		if (failures.isEmpty()) {
+
+			return;
+		}
+
+		StringBuilder content = new StringBuilder();
+
+		for (WriteFailure failure : failures) {
+
+			content.append(failure.getSellerName()).append(" (").append(failure.getSellerId()).append("): ")
+					.append(failure.getMessage()).append('\n');
+		}
+
+		ButtonType retry = new ButtonType("Retry");
+		ButtonType discard = new ButtonType("Discard");
+
+		Optional<ButtonType> choice = Alerts.showChoice("Failed writes",
+				failures.size() + " queued seller updates could not be saved", content.toString(), retry, discard,
+				ButtonType.CANCEL);
+
+		if (choice.isPresent() && choice.get() == retry) {
+
+			sellerService.retryFailedWrites();
+		}
+		else if (choice.isPresent() && choice.get() == discard) {
+
+			sellerService.discardFailedWrites();
+			updateTableView();
+		}
+
+		showWriteBehindStatus();
+	}
+
+	private void showWriteBehindStatus() {
+
+		WriteBehindStats stats = sellerService.getWriteBehindStats();
+
+		if (stats == null) {
+
+			return;
+		}
+
+		String status = String.format("Pending writes: %d, last flush %d rows in %d ms",
+				stats.getPending() + stats.getInFlight(), stats.getLastFlushRows(), stats.getLastFlushMillis());
+
+		if (stats.getFailed() > 0) {
+
+			status += String.format(", %d failed", stats.getFailed());
+		}
+
+		labelWriteBehind.setText(status);
+		btRetryWrites.setVisible(stats.getFailed() > 0);
+	}
+
 	private void initializeNodes() {
 
 		tableColumnId.setCellValueFactory(new PropertyValueFactory<>("id"));
 		tableColumnName.setCellValueFactory(new PropertyValueFactory<>("name"));
 		tableColumnEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
-		tableColumnBirthDate.setCellValueFactory(new PropertyValueFactory<>("birthDate"));
-		Utils.formatTableColumnDate(tableColumnBirthDate, "dd/MM/yyyy");
-		tableColumnBaseSalary.setCellValueFactory(new PropertyValueFactory<>("baseSalary"));
-		Utils.formatTableColumnDouble(tableColumnBaseSalary, 2);
+		tableColumnBirthDate.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(
+				param.getValue() == null || !param.getValue().hasBirthDate() ? null : param.getValue()));
+		Utils.formatTableColumnEpochDay(tableColumnBirthDate, "dd/MM/yyyy", Seller::getBirthEpochDay, Seller::getId,
+				Seller::getVersion);
+		tableColumnBaseSalary.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(
+				param.getValue() == null || !param.getValue().hasBaseSalary() ? null : param.getValue()));
+		Utils.formatTableColumnCents(tableColumnBaseSalary, Seller::getBaseSalaryCents, Seller::getId,
+				Seller::getVersion);
+
+		initSorting();
+
+		initColumnDepartment();
+
+		initEditButtons();
+
+		initRemoveButtons();
+	}
+
+	private void initSorting() {
+
+		sortColumns.put(tableColumnId, SellerSortColumn.ID);
+		sortColumns.put(tableColumnName, SellerSortColumn.NAME);
+		sortColumns.put(tableColumnEmail, SellerSortColumn.EMAIL);
+		sortColumns.put(tableColumnBirthDate, SellerSortColumn.BIRTH_DATE);
+		sortColumns.put(tableColumnBaseSalary, SellerSortColumn.BASE_SALARY);
+		sortColumns.put(tableColumnDepartment, SellerSortColumn.DEPARTMENT);
+
+		tableColumnEDIT.setSortable(false);
+		tableColumnREMOVE.setSortable(false);
+
+		tableViewSeller.setSortPolicy(table -> {
+			onSortChanged();
+			return true;
+		});
+	}
+
+	private void onSortChanged() {
+
+		List<TableColumn<Seller, ?>> sortOrder = tableViewSeller.getSortOrder();
+		TableColumn<Seller, ?> column = sortOrder.isEmpty() ? null : sortOrder.get(0);
+
+		SellerSortColumn sortColumn = column == null ? SellerSortColumn.NAME : sortColumns.get(column);
+		boolean ascending = column == null || column.getSortType() == TableColumn.SortType.ASCENDING;
+
+		if (sortColumn == query.getSortColumn() && ascending == query.isAscending()) {
+
+			return;
+		}
+
+		query.setSortColumn(sortColumn);
+		query.setAscending(ascending);
+
+		if (sellerService != null) {
+
+			updateTableView();
+		}
+	}
+
+	@FXML
+	public void onTxtSearchAction() {
+
+		searchDebouncer.flush();
+	}
+
+	private void onSearchChanged() {
+
+		String text = txtSearch.getText() == null ? "" : txtSearch.getText().trim();
+
+		if (text.equals(searchText)) {
+
+			return;
+		}
+
+		searchText = text;
+
+		if (!text.isEmpty()) {
+
+			ensureSearchIndex();
+		}
+
+		if (sellerService != null) {
+
+			refresher.restart();
+		}
+	}
+
+	private void ensureSearchIndex() {
+
+		if (searchIndex != null || indexBuilding) {
+
+			return;
+		}
+
+		indexBuilding = true;
+
+		Task<SellerSearchIndex> task = Background.submit(sellerService::buildSearchIndex, index -> {
+
+			for (DataChangeEvent<?> event : pendingIndexEvents) {
+				applyToIndex(index, event);
+			}
+			pendingIndexEvents.clear();
+
+			searchIndex = index;
+			indexBuilding = false;
+
+			if (!searchText.isEmpty()) {
+
+				refresher.restart();
+			}
+		}, e -> {
+
+			indexBuilding = false;
+			pendingIndexEvents.clear();
+			showLoadError(e);
+		});
+
+		task.setOnCancelled(event -> {
+
+			indexBuilding = false;
+			pendingIndexEvents.clear();
+		});
+
+		taskTracker.track(task);
+	}
+
+	private void updateSearchIndex(DataChangeEvent<?> event) {
+
+		if (searchIndex != null) {
+
+			applyToIndex(searchIndex, event);
+		}
+		else if (indexBuilding) {
+
+			pendingIndexEvents.add(event);
+		}
+	}
+
+	private static void applyToIndex(SellerSearchIndex index, DataChangeEvent<?> event) {
+
+		Seller seller = (Seller) event.getEntity();
+
+		if (event.getType() == DataChangeEvent.Type.DELETED) {
+
+			index.remove(seller.getId());
+		}
+		else {
+
+			index.put(seller);
+		}
 	}
 
 	@Override
@@ -103,9 +484,19 @@ public class SellerListController implements Initializable, DataChangeListener {
 
 		initializeNodes();
 
+		taskTracker = new TaskTracker(progressIndicator, btCancelLoading);
+
+		txtSearch.textProperty().addListener((obs, oldValue, newValue) -> searchDebouncer.request());
+
 		Stage stage = (Stage) Main.getMainScene().getWindow();
 
 		tableViewSeller.prefHeightProperty().bind(stage.heightProperty());
+
+		tableViewSeller.sceneProperty().addListener((obs, oldScene, newScene) -> {
+			if (newScene == null) {
+				writeBehindRefresher.stop();
+			}
+		});
 	}
 
 	public void updateTableView() {
@@ -115,17 +506,74 @@ public class SellerListController implements Initializable, DataChangeListener {
 			throw new IllegalStateException("Service was null");
 		}
 
-		List<Seller> list = sellerService.findAll();
+		refresher.request();
+	}
 
-		obsList = FXCollections.observableArrayList(list);
+	private Task<?> startRefresh() {
 
-		tableViewSeller.setItems(obsList);
+		if (searchIndex != null && !searchText.isEmpty()) {
 
-		initColumnDepartment();
-		
-		initEditButtons();
-		
-		initRemoveButtons();
+			return startSearch();
+		}
+
+		SellerQuery snapshot = new SellerQuery(query);
+
+		snapshot.setNamePrefix(searchText);
+
+		return taskTracker.track(Background.submit(() -> sellerService.count(snapshot), count -> {
+
+			pagedList = new LazyPagedList<>((after, limit) -> sellerService.findPage(snapshot, after, limit),
+					(offset, limit) -> {
+						SellerQuery page = new SellerQuery(snapshot);
+						page.setLimit(limit);
+						page.setOffset(offset);
+						return sellerService.find(page);
+					}, snapshot.getComparator(), count, PAGE_SIZE, MAX_CACHED_PAGES);
+
+			listQuery = snapshot;
+
+			pagedList.setTaskListener(taskTracker::track);
+			pagedList.setOnLoadFailed(this::showLoadError);
+			pagedList.setPositionLoader(seller -> sellerService.countBefore(snapshot, seller));
+
+			obsList = pagedList;
+
+			tableViewSeller.setItems(obsList);
+		}, this::showLoadError));
+	}
+
+	/**
+	 * Loads the sellers matching the search from the index with one batched
+	 * findByIds, sorted off the FX thread. A newer keystroke cancels the task,
+	 * which stops the lookup before its next chunk of ids.
+	 */
+	private Task<?> startSearch() {
+
+		int[] ids = searchIndex.search(searchText, SEARCH_LIMIT);
+
+		Comparator<Seller> order = query.getComparator();
+
+		return taskTracker.track(Background.submit(() -> {
+
+			List<Seller> found = sellerService.findByIds(ids);
+
+			found.sort(order);
+
+			return found;
+		}, sellers -> {
+
+			pagedList = null;
+			listQuery = null;
+
+			obsList = FXCollections.observableArrayList(sellers);
+
+			tableViewSeller.setItems(obsList);
+		}, this::showLoadError));
+	}
+
+	private void showLoadError(Throwable e) {
+
+		Alerts.showAlert("Error loading sellers", null, e.getMessage(), AlertType.ERROR);
 	}
 
 	private void createDialogForm(Seller obj, String absoluteName, Stage parentStage) {
@@ -138,10 +586,10 @@ public class SellerListController implements Initializable, DataChangeListener {
 
 			SellerFormController controller = loader.getController();
 
-			controller.setSeller(obj);
-			
 			controller.setServices(sellerService, new DepartmentService());
 			
+			controller.setSeller(obj);
+			
 			controller.loadAssociatedObjects();
 			
 			controller.subscribeDataChangeListener(this);
@@ -169,11 +617,50 @@ public class SellerListController implements Initializable, DataChangeListener {
 		updateTableView();
 	}
 
+	@Override
+	public void onDataChanged(DataChangeEvent<?> event) {
+
+		if (event.getEntity() instanceof Seller) {
+
+			updateSearchIndex(event);
+		}
+
+		if (pagedList == null || !(event.getEntity() instanceof Seller)) {
+
+			updateTableView();
+			return;
+		}
+
+		Seller seller = (Seller) event.getEntity();
+
+		switch (event.getType()) {
+		case INSERTED:
+			if (listQuery.matches(seller)) {
+				pagedList.applyInserted(seller);
+			}
+			break;
+		case UPDATED:
+			if (listQuery.matches(seller)) {
+				pagedList.applyUpdated(seller);
+			}
+			else {
+				updateTableView();
+			}
+			break;
+		case DELETED:
+			if (listQuery.matches(seller)) {
+				pagedList.applyDeleted(seller);
+			}
+			break;
+		}
+	}
+
 	private void initColumnDepartment() {
 		
 		//tableColumnBirthDate.setCellValueFactory(new PropertyValueFactory<>("birthDate"));
 		
-		tableColumnDepartment.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(param.getValue().getDepartment()));
+		tableColumnDepartment.setCellValueFactory(param -> new ReadOnlyObjectWrapper<>(
+				param.getValue() == null ? null : param.getValue().getDepartment()));
 		
 		tableColumnDepartment.setCellFactory(param -> new TableCell<Seller, Department>() {
 
@@ -191,6 +678,18 @@ public class SellerListController implements Initializable, DataChangeListener {
 			}
 
 		});
+
+		tableViewSeller.setTableMenuButtonVisible(true);
+
+		tableColumnDepartment.visibleProperty().addListener((observable, wasVisible, visible) -> {
+
+			query.setFetchDepartment(visible);
+
+			if (sellerService != null) {
+
+				updateTableView();
+			}
+		});
 	}
 	
 	private void initEditButtons() {
@@ -255,21 +754,9 @@ public class SellerListController implements Initializable, DataChangeListener {
 				throw new IllegalStateException("Service was null");
 			}
 			
-			try {
-			
-				sellerService.remove(obj);
-	
-				updateTableView();
-			}
-			catch (DbIntegrityException e) {
-				
-				Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR);
-			}
-			finally
-			{
-				
-			}
-			
+			taskTracker.track(Background.run(() -> sellerService.remove(obj),
+					() -> onDataChanged(new DataChangeEvent<>(DataChangeEvent.Type.DELETED, obj, obj.getId())),
+					e -> Alerts.showAlert("Error removing object", null, e.getMessage(), AlertType.ERROR)));
 		}
 	}
 	
@@ -0,0 +1,35 @@
+package gui.listeners;
+
+public class DataChangeEvent<T> {
+
+	public enum Type {
+		INSERTED, UPDATED, DELETED
+	}
+
+	private final Type type;
+	private final T entity;
+	private final Integer id;
+
+	public DataChangeEvent(Type type, T entity, Integer id) {
+		this.type = type;
+		this.entity = entity;
+		this.id = id;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public T getEntity() {
+		return entity;
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return "DataChangeEvent [type=" + type + ", id=" + id + ", entity=" + entity + "]";
+	}
+}
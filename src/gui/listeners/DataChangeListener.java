@@ -3,4 +3,8 @@ package gui.listeners;
 public interface DataChangeListener {
 
 	void onDataChanged();
+
+	default void onDataChanged(DataChangeEvent<?> event) {
+		onDataChanged();
+	}
 }
@@ -29,4 +29,14 @@ public class Alerts {
 		
 		return alert.showAndWait();
 	}
+	
+	public static Optional<ButtonType> showChoice(String title, String header, String content, ButtonType... buttons) {
+		
+		Alert alert = new Alert(AlertType.CONFIRMATION, content, buttons);
+		
+		alert.setTitle(title);
+		alert.setHeaderText(header);
+		
+		return alert.showAndWait();
+	}
 }
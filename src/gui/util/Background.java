@@ -0,0 +1,48 @@
+package gui.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import javafx.concurrent.Task;
+
+public class Background {
+
+	private static final int THREADS = 4;
+
+	private static final AtomicInteger threadNumber = new AtomicInteger();
+
+	private static final ExecutorService executor = Executors.newFixedThreadPool(THREADS, r -> {
+		Thread t = new Thread(r, "data-access-" + threadNumber.incrementAndGet());
+		t.setDaemon(true);
+		return t;
+	});
+
+	public static <T> Task<T> submit(Callable<T> work, Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+
+		Task<T> task = new Task<T>() {
+
+			@Override
+			protected T call() throws Exception {
+				return work.call();
+			}
+		};
+
+		task.setOnSucceeded(event -> onSuccess.accept(task.getValue()));
+		task.setOnFailed(event -> onFailure.accept(task.getException()));
+
+		executor.execute(task);
+
+		return task;
+	}
+
+	public static Task<Void> run(Runnable work, Runnable onSuccess, Consumer<Throwable> onFailure) {
+
+		return submit(() -> {
+			work.run();
+			return null;
+		}, result -> onSuccess.run(), onFailure);
+	}
+}
@@ -0,0 +1,47 @@
+package gui.util;
+
+/**
+ * Remembers the text rendered for a cell, keyed by the row entity's id and
+ * version. Slots are picked by id in a fixed-size array, so lookups neither
+ * allocate nor grow; a colliding id simply replaces the slot. The raw cell
+ * value is stored with the text and checked on lookup, so an edit not yet
+ * reflected in the version (e.g. one still queued for writing) is not
+ * answered with stale text. Meant for use on the FX application thread.
+ */
+public class CellTextCache {
+
+	private final int mask;
+	private final int[] ids;
+	private final int[] versions;
+	private final long[] values;
+	private final String[] texts;
+
+	public CellTextCache(int capacity) {
+		int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+		this.mask = size - 1;
+		this.ids = new int[size];
+		this.versions = new int[size];
+		this.values = new long[size];
+		this.texts = new String[size];
+	}
+
+	public String get(int id, int version, long value) {
+		int slot = slot(id);
+		if (texts[slot] != null && ids[slot] == id && versions[slot] == version && values[slot] == value) {
+			return texts[slot];
+		}
+		return null;
+	}
+
+	public void put(int id, int version, long value, String text) {
+		int slot = slot(id);
+		ids[slot] = id;
+		versions[slot] = version;
+		values[slot] = value;
+		texts[slot] = text;
+	}
+
+	private int slot(int id) {
+		return (id ^ (id >>> 16)) & mask;
+	}
+}
@@ -0,0 +1,73 @@
+package gui.util;
+
+import java.util.function.Supplier;
+
+import javafx.concurrent.Task;
+
+/**
+ * Starts a background task on request, folding requests that arrive while a
+ * task is still running into a single re-run once it finishes. Must be used
+ * from the JavaFX Application Thread.
+ */
+public class CoalescingRunner {
+
+	private final Supplier<Task<?>> starter;
+
+	private Task<?> current;
+
+	private boolean pending;
+
+	public CoalescingRunner(Supplier<Task<?>> starter) {
+
+		this.starter = starter;
+	}
+
+	public void request() {
+
+		if (current != null && !current.isDone()) {
+
+			pending = true;
+			return;
+		}
+
+		start();
+	}
+
+	/**
+	 * Cancels the running task, whose result is stale, and starts a new one.
+	 */
+	public void restart() {
+
+		Task<?> stale = current;
+
+		current = null;
+
+		if (stale != null) {
+			stale.cancel();
+		}
+
+		start();
+	}
+
+	private void start() {
+
+		pending = false;
+
+		Task<?> task = starter.get();
+
+		current = task;
+
+		if (task == null || task.isDone()) {
+			return;
+		}
+
+		task.runningProperty().addListener((obs, wasRunning, isRunning) -> {
+			if (!isRunning && task.isDone() && current == task) {
+				current = null;
+				if (pending) {
+					start();
+				}
+			}
+		});
+	}
+}
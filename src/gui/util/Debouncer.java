@@ -0,0 +1,40 @@
+package gui.util;
+
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+
+/**
+ * Runs an action once requests have stopped arriving for a quiet period, so a
+ * burst of keystrokes triggers a single search. Must be used from the JavaFX
+ * Application Thread.
+ */
+public class Debouncer {
+
+	private final PauseTransition delay;
+
+	private final Runnable action;
+
+	public Debouncer(Duration quietPeriod, Runnable action) {
+
+		this.action = action;
+		this.delay = new PauseTransition(quietPeriod);
+
+		delay.setOnFinished(event -> action.run());
+	}
+
+	public void request() {
+
+		delay.playFromStart();
+	}
+
+	public void flush() {
+
+		delay.stop();
+		action.run();
+	}
+
+	public void cancel() {
+
+		delay.stop();
+	}
+}
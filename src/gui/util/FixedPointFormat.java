@@ -0,0 +1,88 @@
+package gui.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Appends a double with a fixed number of decimal places to a StringBuilder,
+ * giving the same text as String.format("%.Nf") in Locale.US: half-up rounding
+ * of the shortest decimal form of the value, no grouping, '.' as separator.
+ * Values that scale to a long are done in integer arithmetic without
+ * allocating; ties too close to call in binary and very large values go
+ * through BigDecimal.
+ */
+public final class FixedPointFormat {
+
+	private static final int MAX_FAST_DECIMAL_PLACES = 9;
+
+	private static final double MAX_FAST_SCALED = 1e15;
+
+	private static final long[] POWERS_OF_TEN = { 1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+			100000000L, 1000000000L };
+
+	private FixedPointFormat() {
+	}
+
+	public static StringBuilder append(StringBuilder sb, double value, int decimalPlaces) {
+
+		if (decimalPlaces < 0) {
+			throw new IllegalArgumentException("decimalPlaces must not be negative");
+		}
+
+		if (Double.isNaN(value)) {
+			return sb.append("NaN");
+		}
+
+		boolean negative = Double.compare(value, 0.0) < 0;
+
+		if (Double.isInfinite(value)) {
+			return sb.append(negative ? "-Infinity" : "Infinity");
+		}
+
+		double magnitude = Math.abs(value);
+
+		if (decimalPlaces > MAX_FAST_DECIMAL_PLACES || magnitude * POWERS_OF_TEN[Math.min(decimalPlaces,
+				MAX_FAST_DECIMAL_PLACES)] >= MAX_FAST_SCALED) {
+			return appendExact(sb, value, decimalPlaces);
+		}
+
+		long power = POWERS_OF_TEN[decimalPlaces];
+		double scaled = magnitude * power;
+		double floor = Math.floor(scaled);
+		double fraction = scaled - floor;
+
+		if (Math.abs(fraction - 0.5) <= 4 * Math.ulp(scaled)) {
+			return appendExact(sb, value, decimalPlaces);
+		}
+
+		long rounded = (long) floor + (fraction > 0.5 ? 1 : 0);
+
+		if (negative) {
+			sb.append('-');
+		}
+
+		sb.append(rounded / power);
+
+		if (decimalPlaces > 0) {
+			sb.append('.');
+			long decimals = rounded % power;
+			for (int i = decimalPlaces - 1; i > 0 && decimals < POWERS_OF_TEN[i]; i--) {
+				sb.append('0');
+			}
+			sb.append(decimals);
+		}
+
+		return sb;
+	}
+
+	private static StringBuilder appendExact(StringBuilder sb, double value, int decimalPlaces) {
+
+		BigDecimal rounded = BigDecimal.valueOf(value).setScale(decimalPlaces, RoundingMode.HALF_UP);
+
+		if (Double.compare(value, 0.0) < 0 && rounded.signum() == 0) {
+			sb.append('-');
+		}
+
+		return sb.append(rounded.toPlainString());
+	}
+}
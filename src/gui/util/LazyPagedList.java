@@ -0,0 +1,559 @@
+package gui.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javafx.collections.ObservableListBase;
+import javafx.concurrent.Task;
+
+/**
+ * Read-only list that loads its items page by page on demand using keyset
+ * pagination. Only a bounded number of pages is kept in memory; for every full
+ * page ever loaded the last item is remembered so the next page can be fetched
+ * without an OFFSET scan. Those page ends are always contiguous from page 0.
+ *
+ * Pages are fetched on a background thread. Until a page arrives its rows read
+ * as null, and a replace change is fired for them once it is loaded. A page is
+ * fetched by keyset when the end of the page before it is known; a page
+ * further out (e.g. after dragging the scroll bar) is fetched directly with
+ * the offset loader, or without one by walking at most MAX_WALK_PAGES pages
+ * per request from the last known page end.
+ *
+ * Single-row inserts, updates and deletes can be applied in place; the
+ * comparator must match the order the loader returns rows in. When a position
+ * loader is set the index of a changed row is asked from the source instead,
+ * so an order the comparator can only approximate (such as a database
+ * collation) still puts the row where the loader will return it.
+ */
+public class LazyPagedList<T> extends ObservableListBase<T> {
+
+	public interface PageLoader<T> {
+
+		List<T> loadPage(T after, int limit);
+	}
+
+	public interface OffsetLoader<T> {
+
+		List<T> loadPageAt(int offset, int limit);
+	}
+
+	public interface PositionLoader<T> {
+
+		/**
+		 * Returns how many of the other rows come before the given one.
+		 */
+		int indexOf(T item);
+	}
+
+	private static final int MAX_WALK_PAGES = 4;
+
+	private final PageLoader<T> loader;
+	private final OffsetLoader<T> offsetLoader;
+	private final Comparator<? super T> comparator;
+	private final int pageSize;
+	private final Map<Integer, List<T>> pages;
+	private final List<T> pageEnds = new ArrayList<>();
+	private final Set<Integer> loading = new HashSet<>();
+
+	private Consumer<Task<?>> taskListener = task -> {};
+	private Consumer<Throwable> onLoadFailed = error -> {};
+	private PositionLoader<T> positionLoader;
+
+	private int size;
+	private int generation;
+
+	public LazyPagedList(PageLoader<T> loader, Comparator<? super T> comparator, int size, int pageSize,
+			int maxCachedPages) {
+
+		this(loader, null, comparator, size, pageSize, maxCachedPages);
+	}
+
+	public LazyPagedList(PageLoader<T> loader, OffsetLoader<T> offsetLoader, Comparator<? super T> comparator,
+			int size, int pageSize, int maxCachedPages) {
+
+		this.loader = loader;
+		this.offsetLoader = offsetLoader;
+		this.comparator = comparator;
+		this.size = size;
+		this.pageSize = pageSize;
+		this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+				return size() > maxCachedPages;
+			}
+		};
+	}
+
+	public void setTaskListener(Consumer<Task<?>> taskListener) {
+
+		this.taskListener = taskListener;
+	}
+
+	public void setOnLoadFailed(Consumer<Throwable> onLoadFailed) {
+
+		this.onLoadFailed = onLoadFailed;
+	}
+
+	public void setPositionLoader(PositionLoader<T> positionLoader) {
+
+		this.positionLoader = positionLoader;
+	}
+
+	@Override
+	public T get(int index) {
+
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+
+		int pageIndex = index / pageSize;
+		List<T> page = pages.get(pageIndex);
+
+		if (page == null) {
+			requestPage(pageIndex);
+			return null;
+		}
+
+		int offset = index % pageSize;
+
+		return offset < page.size() ? page.get(offset) : null;
+	}
+
+	@Override
+	public int size() {
+
+		return size;
+	}
+
+	public int getCachedPageCount() {
+
+		return pages.size();
+	}
+
+	public void applyInserted(T item) {
+
+		if (positionLoader != null) {
+			requestPosition(item, index -> {
+				truncateFrom(index / pageSize);
+				size++;
+				beginChange();
+				nextAdd(index, index + 1);
+				endChange();
+			}, 1);
+			return;
+		}
+
+		int pageIndex = pageOf(item);
+		int index = indexInCachedPage(pageIndex, item, false);
+		int oldSize = size;
+
+		truncateFrom(pageIndex);
+
+		size++;
+
+		if (index < 0) {
+			// the row belongs in a page that is not cached, so its exact
+			// position is unknown
+			fireInvalidated(Math.min(pageIndex * pageSize, oldSize), oldSize);
+			return;
+		}
+
+		beginChange();
+		nextAdd(index, index + 1);
+		endChange();
+	}
+
+	public void applyDeleted(T item) {
+
+		if (positionLoader != null) {
+			requestPosition(item, index -> {
+				truncateFrom(index / pageSize);
+				if (size == 0) {
+					return;
+				}
+				size--;
+				beginChange();
+				nextRemove(index, item);
+				endChange();
+			}, -1);
+			return;
+		}
+
+		int pageIndex = pageOf(item);
+		int index = indexInCachedPage(pageIndex, item, true);
+		int oldSize = size;
+
+		truncateFrom(pageIndex);
+
+		if (size == 0) {
+			return;
+		}
+
+		size--;
+
+		if (index < 0 || index > size) {
+			fireInvalidated(Math.min(pageIndex * pageSize, size), oldSize);
+			return;
+		}
+
+		beginChange();
+		nextRemove(index, item);
+		endChange();
+	}
+
+	public void applyUpdated(T item) {
+
+		if (positionLoader != null) {
+			requestPosition(item, index -> moveTo(item, index), 0);
+			return;
+		}
+
+		int anchor = indexOfIdentity(pageEnds, item);
+
+		for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+
+			List<T> page = entry.getValue();
+			int offset = page.indexOf(item);
+
+			if (offset < 0) {
+				continue;
+			}
+
+			int pageIndex = entry.getKey();
+
+			if (anchor < 0 && isInOrder(pageIndex, page, offset, item)) {
+
+				page.set(offset, item);
+
+				beginChange();
+				nextSet(pageIndex * pageSize + offset, item);
+				endChange();
+				return;
+			}
+
+			int from = Math.min(pageIndex, pageOf(item));
+			if (anchor >= 0) {
+				from = Math.min(from, anchor);
+			}
+			invalidateFrom(from);
+			return;
+		}
+
+		invalidateFrom(0);
+	}
+
+	/**
+	 * Asks the position loader for the row's index in the background and
+	 * applies the change with it. If the list changed meanwhile the index may
+	 * no longer fit the pages, so only the size is adjusted and every row is
+	 * read again.
+	 */
+	private void requestPosition(T item, Consumer<Integer> apply, int sizeChange) {
+
+		int requestGeneration = generation;
+
+		Task<Integer> task = Background.submit(() -> positionLoader.indexOf(item), index -> {
+
+			if (requestGeneration == generation) {
+				apply.accept(Math.max(0, Math.min(index, size - 1 + Math.max(sizeChange, 0))));
+				return;
+			}
+
+			int oldSize = size;
+
+			truncateFrom(0);
+			size = Math.max(0, size + sizeChange);
+			fireInvalidated(0, oldSize);
+		}, onLoadFailed);
+
+		taskListener.accept(task);
+	}
+
+	private void moveTo(T item, int index) {
+
+		int from = -1;
+
+		for (Map.Entry<Integer, List<T>> entry : pages.entrySet()) {
+
+			int offset = entry.getValue().indexOf(item);
+
+			if (offset >= 0) {
+				from = entry.getKey() * pageSize + offset;
+				break;
+			}
+		}
+
+		if (from < 0) {
+			// the row is not cached, so its old position may be in any page that is not
+			invalidateFrom(Math.min(index / pageSize, firstUncachedPage()));
+			return;
+		}
+
+		if (from == index) {
+			pages.get(index / pageSize).set(index % pageSize, item);
+			beginChange();
+			nextSet(index, item);
+			endChange();
+			return;
+		}
+
+		truncateFrom(Math.min(from, index) / pageSize);
+
+		beginChange();
+		nextRemove(from, item);
+		nextAdd(index, index + 1);
+		endChange();
+	}
+
+	private int firstUncachedPage() {
+
+		int pageIndex = 0;
+
+		while (pages.containsKey(pageIndex)) {
+			pageIndex++;
+		}
+
+		return pageIndex;
+	}
+
+	private boolean isInOrder(int pageIndex, List<T> page, int offset, T item) {
+
+		T previous = offset > 0 ? page.get(offset - 1) : (pageIndex > 0 ? pageEnds.get(pageIndex - 1) : null);
+		T next = offset + 1 < page.size() ? page.get(offset + 1) : null;
+
+		return (previous == null || comparator.compare(previous, item) < 0)
+				&& (next == null || comparator.compare(item, next) < 0);
+	}
+
+	private int pageOf(T item) {
+
+		int low = 0;
+		int high = pageEnds.size();
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (comparator.compare(pageEnds.get(mid), item) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	private int indexInCachedPage(int pageIndex, T item, boolean exact) {
+
+		List<T> page = pages.get(pageIndex);
+
+		if (page == null) {
+			return -1;
+		}
+
+		if (exact) {
+			int offset = page.indexOf(item);
+			return offset < 0 ? -1 : pageIndex * pageSize + offset;
+		}
+
+		int offset = 0;
+		while (offset < page.size() && comparator.compare(page.get(offset), item) < 0) {
+			offset++;
+		}
+
+		return pageIndex * pageSize + offset;
+	}
+
+	private void invalidateFrom(int pageIndex) {
+
+		truncateFrom(pageIndex);
+
+		fireInvalidated(pageIndex * pageSize, size);
+	}
+
+	/**
+	 * Reports every row from the given index on as replaced, oldSize being
+	 * the size before the change, so the view reads them all again.
+	 */
+	private void fireInvalidated(int from, int oldSize) {
+
+		if (from >= oldSize && from >= size) {
+			return;
+		}
+
+		beginChange();
+		if (from < oldSize) {
+			nextRemove(from, Collections.<T>nCopies(oldSize - from, null));
+		}
+		if (from < size) {
+			nextAdd(from, size);
+		}
+		endChange();
+	}
+
+	private void truncateFrom(int pageIndex) {
+
+		generation++;
+
+		while (pageEnds.size() > pageIndex) {
+			pageEnds.remove(pageEnds.size() - 1);
+		}
+
+		Iterator<Integer> it = pages.keySet().iterator();
+		while (it.hasNext()) {
+			if (it.next() >= pageIndex) {
+				it.remove();
+			}
+		}
+
+		loading.clear();
+	}
+
+	private void requestPage(int pageIndex) {
+
+		if (loading.contains(pageIndex)) {
+			return;
+		}
+
+		T anchor;
+		int first;
+		int last = pageIndex;
+		List<T> previous = pageIndex > 0 ? pages.get(pageIndex - 1) : null;
+
+		if (pageIndex <= pageEnds.size()) {
+			first = pageIndex;
+			anchor = pageIndex == 0 ? null : pageEnds.get(pageIndex - 1);
+		}
+		else if (previous != null && previous.size() == pageSize) {
+			first = pageIndex;
+			anchor = previous.get(previous.size() - 1);
+		}
+		else if (offsetLoader != null) {
+			first = pageIndex;
+			anchor = null;
+		}
+		else {
+			first = pageEnds.size();
+			anchor = first == 0 ? null : pageEnds.get(first - 1);
+			last = Math.min(pageIndex, first + MAX_WALK_PAGES - 1);
+		}
+
+		boolean byOffset = first > 0 && anchor == null;
+		int lastPage = last;
+		int requestGeneration = generation;
+
+		for (int i = first; i <= lastPage; i++) {
+			loading.add(i);
+		}
+
+		Task<List<List<T>>> task = Background.submit(
+				() -> byOffset ? loadPageAt(first) : loadPages(anchor, first, lastPage),
+				loaded -> onPagesLoaded(first, lastPage, pageIndex, loaded, requestGeneration),
+				error -> {
+					doneLoading(first, lastPage, requestGeneration);
+					onLoadFailed.accept(error);
+				});
+
+		task.setOnCancelled(event -> doneLoading(first, lastPage, requestGeneration));
+
+		taskListener.accept(task);
+	}
+
+	private void doneLoading(int first, int last, int requestGeneration) {
+
+		if (requestGeneration != generation) {
+			return;
+		}
+
+		for (int i = first; i <= last; i++) {
+			loading.remove(i);
+		}
+	}
+
+	private List<List<T>> loadPageAt(int pageIndex) {
+
+		List<List<T>> loaded = new ArrayList<>(1);
+
+		loaded.add(offsetLoader.loadPageAt(pageIndex * pageSize, pageSize));
+
+		return loaded;
+	}
+
+	private List<List<T>> loadPages(T anchor, int first, int last) {
+
+		List<List<T>> loaded = new ArrayList<>();
+		T after = anchor;
+
+		for (int i = first; i <= last; i++) {
+
+			List<T> page = loader.loadPage(after, pageSize);
+
+			loaded.add(page);
+
+			if (page.size() < pageSize) {
+				break;
+			}
+
+			after = page.get(page.size() - 1);
+		}
+
+		return loaded;
+	}
+
+	private void onPagesLoaded(int first, int last, int pageIndex, List<List<T>> loaded, int requestGeneration) {
+
+		if (requestGeneration != generation) {
+			return;
+		}
+
+		doneLoading(first, last, requestGeneration);
+
+		for (int i = 0; i < loaded.size(); i++) {
+
+			List<T> page = new ArrayList<>(loaded.get(i));
+
+			pages.put(first + i, page);
+
+			if (page.size() == pageSize && pageEnds.size() == first + i) {
+				pageEnds.add(page.get(page.size() - 1));
+			}
+		}
+
+		beginChange();
+		fireReplaced(first * pageSize, (first + loaded.size()) * pageSize);
+		if (pageIndex >= first + loaded.size()) {
+			// the walk stopped short of the requested page; reading its rows
+			// again makes the table request the next stretch
+			fireReplaced(pageIndex * pageSize, (pageIndex + 1) * pageSize);
+		}
+		endChange();
+	}
+
+	private void fireReplaced(int from, int to) {
+
+		for (int i = from; i < Math.min(size, to); i++) {
+			nextSet(i, null);
+		}
+	}
+
+	private static <T> int indexOfIdentity(List<T> list, T item) {
+
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == item) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
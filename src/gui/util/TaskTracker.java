@@ -0,0 +1,80 @@
+package gui.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javafx.concurrent.Task;
+import javafx.concurrent.Worker;
+import javafx.scene.control.Button;
+import javafx.scene.control.ProgressIndicator;
+
+/**
+ * Shows a progress indicator while background tasks are running and lets the
+ * user cancel them. Must be used from the JavaFX Application Thread.
+ */
+public class TaskTracker {
+
+	private final List<Task<?>> running = new ArrayList<>();
+
+	private final ProgressIndicator indicator;
+
+	private final Button cancelButton;
+
+	public TaskTracker(ProgressIndicator indicator, Button cancelButton) {
+
+		this.indicator = indicator;
+		this.cancelButton = cancelButton;
+
+		if (cancelButton != null) {
+			cancelButton.setOnAction(event -> cancelAll());
+		}
+
+		updateNodes();
+	}
+
+	public <T> Task<T> track(Task<T> task) {
+
+		if (task.isDone()) {
+			return task;
+		}
+
+		running.add(task);
+
+		task.stateProperty().addListener((obs, oldValue, newValue) -> {
+			if (newValue == Worker.State.SUCCEEDED || newValue == Worker.State.FAILED
+					|| newValue == Worker.State.CANCELLED) {
+				running.remove(task);
+				updateNodes();
+			}
+		});
+
+		updateNodes();
+
+		return task;
+	}
+
+	public boolean isBusy() {
+
+		return !running.isEmpty();
+	}
+
+	public void cancelAll() {
+
+		for (Task<?> task : new ArrayList<>(running)) {
+			task.cancel(true);
+		}
+	}
+
+	private void updateNodes() {
+
+		boolean busy = isBusy();
+
+		if (indicator != null) {
+			indicator.setVisible(busy);
+		}
+
+		if (cancelButton != null) {
+			cancelButton.setVisible(busy);
+		}
+	}
+}
@@ -1,10 +1,11 @@
 package gui.util;
 
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.Date;
-import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 import javafx.event.ActionEvent;
 import javafx.scene.Node;
@@ -16,6 +17,10 @@ import javafx.util.StringConverter;
 
 public class Utils {
 
+	private static final int CELL_TEXT_CACHE_SIZE = 1024;
+
+	private static final ThreadLocal<StringBuilder> FORMAT_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
 	public static Stage currentStage(ActionEvent event) {
 
 		return (Stage) ((Node) event.getSource()).getScene().getWindow();
@@ -45,52 +50,93 @@ public class Utils {
 		}
 	}
 
-	public static <T> void formatTableColumnDate(TableColumn<T, Date> tableColumn, String format) {
+	public static <T> void formatTableColumnDate(TableColumn<T, LocalDate> tableColumn, String format) {
 	
-		tableColumn.setCellFactory(column -> {
+		DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(format);
 		
-			TableCell<T, Date> cell = new TableCell<T, Date>() {
-				
-				private SimpleDateFormat sdf = new SimpleDateFormat(format);
+		formatTableColumn(tableColumn, null, null, null, LocalDate::toEpochDay,
+				(sb, item) -> dateFormatter.formatTo(item, sb));
+	}
 
-				@Override
-				protected void updateItem(Date item, boolean empty) {
-					super.updateItem(item, empty);
-					
-					if (empty) {
-						
-						setText(null);
-					}
-					else {
-						
-						setText(sdf.format(item));
-					}
-				}
-			};
-			
-			return cell;
-		});
+	/**
+	 * Formats a column whose cell value is the row itself (or null), reading
+	 * the date as an epoch day through a primitive accessor. The text is
+	 * remembered per row entity and version, so updating a cell allocates
+	 * nothing unless the row was not shown before.
+	 */
+	public static <T> void formatTableColumnEpochDay(TableColumn<T, T> tableColumn, String format,
+			ToLongFunction<T> epochDay, Function<T, Integer> id, ToIntFunction<T> version) {
+	
+		DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern(format);
+		
+		formatTableColumn(tableColumn, new CellTextCache(CELL_TEXT_CACHE_SIZE), id, version, epochDay,
+				(sb, row) -> dateFormatter.formatTo(LocalDate.ofEpochDay(epochDay.applyAsLong(row)), sb));
 	}
 
 	public static <T> void formatTableColumnDouble(TableColumn<T, Double> tableColumn, int decimalPlaces) {
 		
+		formatTableColumn(tableColumn, null, null, null, Double::doubleToLongBits,
+				(sb, item) -> FixedPointFormat.append(sb, item, decimalPlaces));
+	}
+
+	/**
+	 * Like formatTableColumnEpochDay, for an amount read in cents through a
+	 * primitive accessor and shown with two decimal places.
+	 */
+	public static <T> void formatTableColumnCents(TableColumn<T, T> tableColumn, ToLongFunction<T> cents,
+			Function<T, Integer> id, ToIntFunction<T> version) {
+		
+		formatTableColumn(tableColumn, new CellTextCache(CELL_TEXT_CACHE_SIZE), id, version, cents,
+				(sb, row) -> FixedPointFormat.append(sb, cents.applyAsLong(row) / 100.0, 2));
+	}
+	
+	private static <T, V> void formatTableColumn(TableColumn<T, V> tableColumn, CellTextCache cache,
+			Function<T, Integer> id, ToIntFunction<T> version, ToLongFunction<V> key,
+			BiConsumer<StringBuilder, V> formatter) {
+		
 		tableColumn.setCellFactory(column -> {
 			
-			TableCell<T, Double> cell = new TableCell<T, Double>() {
+			TableCell<T, V> cell = new TableCell<T, V>() {
+				
+				private final StringBuilder sb = new StringBuilder(16);
 				
 				@Override
-				protected void updateItem(Double item, boolean empty) {					
+				protected void updateItem(V item, boolean empty) {
 					super.updateItem(item, empty);
 					
-					if (empty) {
+					if (empty || item == null) {
 						
 						setText(null);
+						return;
+					}
+					
+					T row = cache == null || getTableRow() == null ? null : getTableRow().getItem();
+					Integer rowId = row == null ? null : id.apply(row);
+					
+					if (rowId == null) {
+						
+						setText(format(item));
+						return;
 					}
-					else {
+					
+					int rowVersion = version.applyAsInt(row);
+					long value = key.applyAsLong(item);
+					String text = cache.get(rowId, rowVersion, value);
+					
+					if (text == null) {
 						
-						Locale.setDefault(Locale.US);
-						setText(String.format("%." + decimalPlaces + "f", item));
+						text = format(item);
+						cache.put(rowId, rowVersion, value, text);
 					}
+					
+					setText(text);
+				}
+				
+				private String format(V item) {
+					
+					sb.setLength(0);
+					formatter.accept(sb, item);
+					return sb.toString();
 				}
 			};
 
@@ -98,6 +144,13 @@ public class Utils {
 		});
 	}
 	
+	public static String formatDouble(Double value, int decimalPlaces) {
+		
+		StringBuilder sb = FORMAT_BUFFER.get();
+		sb.setLength(0);
+		return FixedPointFormat.append(sb, value, decimalPlaces).toString();
+	}
+	
 	public static void formatDatePicker(DatePicker datePicker, String format) {
 		
 		datePicker.setConverter(new StringConverter<LocalDate>() {
@@ -0,0 +1,37 @@
+package model.collections;
+
+/**
+ * Hashing and sizing shared by the open-addressing int collections. Tables
+ * are powers of two kept at most three quarters full.
+ */
+final class IntHashing {
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private IntHashing() {
+	}
+
+	/**
+	 * Spreads sequential ids over the table (Fibonacci hashing), since database
+	 * ids would otherwise fill consecutive slots and form long probe runs.
+	 */
+	static int mix(int key) {
+		int h = key * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	static int tableSize(int expectedSize) {
+		long needed = (long) Math.ceil(expectedSize / 0.75) + 1;
+		if (needed > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Too many entries: " + expectedSize);
+		}
+		return Integer.highestOneBit((int) needed - 1) << 1;
+	}
+
+	static int resizeThreshold(int capacity) {
+		if (capacity == MAX_CAPACITY) {
+			return capacity - 1;
+		}
+		return capacity - (capacity >>> 2);
+	}
+}
@@ -0,0 +1,195 @@
+package model.collections;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Map from int keys to objects with open addressing and linear probing, so a
+ * lookup neither boxes the key nor allocates an entry. Keys live in an int
+ * array and values in a parallel array; 0 marks a free slot, and a value for
+ * key 0 is kept aside. Removal shifts the following entries back instead of
+ * leaving tombstones. Null values are not allowed. Not thread-safe.
+ */
+public class IntObjectMap<V> {
+
+	private static final int MIN_CAPACITY = 8;
+
+	private int[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	private int resizeAt;
+
+	private boolean hasZeroKey;
+	private Object zeroValue;
+
+	public IntObjectMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Creates a map that holds expectedSize entries without resizing.
+	 */
+	public IntObjectMap(int expectedSize) {
+		allocate(IntHashing.tableSize(Math.max(expectedSize, MIN_CAPACITY)));
+	}
+
+	public int size() {
+		return size + (hasZeroKey ? 1 : 0);
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean containsKey(int key) {
+		if (key == 0) {
+			return hasZeroKey;
+		}
+		return keys[find(key)] == key;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		if (key == 0) {
+			return (V) zeroValue;
+		}
+		int slot = find(key);
+		return keys[slot] == key ? (V) values[slot] : null;
+	}
+
+	public V getOrDefault(int key, V defaultValue) {
+		V value = get(key);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * Associates value with key and returns the previous value, or null.
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if (value == null) {
+			throw new NullPointerException("value");
+		}
+		if (key == 0) {
+			V old = (V) zeroValue;
+			hasZeroKey = true;
+			zeroValue = value;
+			return old;
+		}
+		int slot = find(key);
+		if (keys[slot] == key) {
+			V old = (V) values[slot];
+			values[slot] = value;
+			return old;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Stores value unless key is already mapped, and returns the value mapped
+	 * afterwards.
+	 */
+	public V putIfAbsent(int key, V value) {
+		V existing = get(key);
+		if (existing != null) {
+			return existing;
+		}
+		put(key, value);
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		if (key == 0) {
+			V old = (V) zeroValue;
+			hasZeroKey = false;
+			zeroValue = null;
+			return old;
+		}
+		int slot = find(key);
+		if (keys[slot] != key) {
+			return null;
+		}
+		V old = (V) values[slot];
+		shiftBack(slot);
+		size--;
+		return old;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(values, null);
+		size = 0;
+		hasZeroKey = false;
+		zeroValue = null;
+	}
+
+	@SuppressWarnings("unchecked")
+	public void forEachValue(Consumer<? super V> action) {
+		if (hasZeroKey) {
+			action.accept((V) zeroValue);
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != 0) {
+				action.accept((V) values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot holding key, or the free slot where it would go.
+	 */
+	private int find(int key) {
+		int slot = IntHashing.mix(key) & mask;
+		while (keys[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void shiftBack(int free) {
+		int slot = free;
+		while (true) {
+			slot = (slot + 1) & mask;
+			int key = keys[slot];
+			if (key == 0) {
+				break;
+			}
+			int home = IntHashing.mix(key) & mask;
+			// the entry may move to free only if free lies on its probe path
+			if (((slot - home) & mask) >= ((slot - free) & mask)) {
+				keys[free] = key;
+				values[free] = values[slot];
+				free = slot;
+			}
+		}
+		keys[free] = 0;
+		values[free] = null;
+	}
+
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = find(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		resizeAt = IntHashing.resizeThreshold(capacity);
+	}
+}
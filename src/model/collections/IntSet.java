@@ -0,0 +1,123 @@
+package model.collections;
+
+import java.util.Arrays;
+
+/**
+ * Set of ints with open addressing and linear probing, stored in a single int
+ * array; 0 marks a free slot and is tracked separately. Not thread-safe.
+ */
+public class IntSet {
+
+	private static final int MIN_CAPACITY = 8;
+
+	private int[] keys;
+	private int mask;
+	private int size;
+	private int resizeAt;
+
+	private boolean hasZero;
+
+	public IntSet() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Creates a set that holds expectedSize values without resizing.
+	 */
+	public IntSet(int expectedSize) {
+		allocate(IntHashing.tableSize(Math.max(expectedSize, MIN_CAPACITY)));
+	}
+
+	public int size() {
+		return size + (hasZero ? 1 : 0);
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public boolean contains(int value) {
+		if (value == 0) {
+			return hasZero;
+		}
+		return keys[find(value)] == value;
+	}
+
+	/**
+	 * Adds value and returns true if it was not already present.
+	 */
+	public boolean add(int value) {
+		if (value == 0) {
+			boolean added = !hasZero;
+			hasZero = true;
+			return added;
+		}
+		int slot = find(value);
+		if (keys[slot] == value) {
+			return false;
+		}
+		keys[slot] = value;
+		if (++size >= resizeAt) {
+			rehash(keys.length << 1);
+		}
+		return true;
+	}
+
+	public boolean remove(int value) {
+		if (value == 0) {
+			boolean removed = hasZero;
+			hasZero = false;
+			return removed;
+		}
+		int free = find(value);
+		if (keys[free] != value) {
+			return false;
+		}
+		int slot = free;
+		while (true) {
+			slot = (slot + 1) & mask;
+			int key = keys[slot];
+			if (key == 0) {
+				break;
+			}
+			int home = IntHashing.mix(key) & mask;
+			if (((slot - home) & mask) >= ((slot - free) & mask)) {
+				keys[free] = key;
+				free = slot;
+			}
+		}
+		keys[free] = 0;
+		size--;
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0);
+		size = 0;
+		hasZero = false;
+	}
+
+	private int find(int value) {
+		int slot = IntHashing.mix(value) & mask;
+		while (keys[slot] != 0 && keys[slot] != value) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void rehash(int capacity) {
+		int[] old = keys;
+		allocate(capacity);
+		for (int key : old) {
+			if (key != 0) {
+				keys[find(key)] = key;
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		mask = capacity - 1;
+		resizeAt = IntHashing.resizeThreshold(capacity);
+	}
+}
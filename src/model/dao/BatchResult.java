@@ -0,0 +1,55 @@
+package model.dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class BatchResult {
+
+	public static final String NOT_EXECUTED = "Not executed: batch aborted by an earlier row";
+
+	private final int rowCount;
+	private final int affectedRows;
+	private final List<Integer> generatedKeys;
+	private final Map<Integer, String> failures;
+	private final boolean committed;
+
+	public BatchResult(int rowCount, int affectedRows, List<Integer> generatedKeys, Map<Integer, String> failures,
+			boolean committed) {
+		this.rowCount = rowCount;
+		this.affectedRows = affectedRows;
+		this.generatedKeys = Collections.unmodifiableList(generatedKeys);
+		this.failures = Collections.unmodifiableMap(failures);
+		this.committed = committed;
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getAffectedRows() {
+		return affectedRows;
+	}
+
+	public List<Integer> getGeneratedKeys() {
+		return generatedKeys;
+	}
+
+	public Map<Integer, String> getFailures() {
+		return failures;
+	}
+
+	public boolean hasFailures() {
+		return !failures.isEmpty();
+	}
+
+	public boolean isCommitted() {
+		return committed;
+	}
+
+	@Override
+	public String toString() {
+		return "BatchResult [rowCount=" + rowCount + ", affectedRows=" + affectedRows + ", generatedKeys="
+				+ generatedKeys.size() + ", failures=" + failures.size() + ", committed=" + committed + "]";
+	}
+}
@@ -0,0 +1,43 @@
+package model.dao;
+
+public class CacheStats {
+
+	private final long hits;
+	private final long misses;
+	private final long invalidations;
+	private final int size;
+
+	public CacheStats(long hits, long misses, long invalidations, int size) {
+		this.hits = hits;
+		this.misses = misses;
+		this.invalidations = invalidations;
+		this.size = size;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getInvalidations() {
+		return invalidations;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats [hits=" + hits + ", misses=" + misses + ", hitRate=" + String.format("%.2f", getHitRate())
+				+ ", invalidations=" + invalidations + ", size=" + size + "]";
+	}
+}
@@ -1,16 +1,104 @@
 package model.dao;
 
+import java.util.logging.Logger;
+
 import db.DB;
+import db.DbException;
+import db.QueryPlanCheck;
+import model.dao.impl.CachingDepartmentDao;
+import model.dao.impl.CachingPayrollDao;
 import model.dao.impl.DepartmentDaoJDBC;
+import model.dao.impl.InstrumentedDao;
+import model.dao.impl.PayrollDaoJDBC;
 import model.dao.impl.SellerDaoJDBC;
 
 public class DaoFactory {
 
+	private static final Logger LOGGER = Logger.getLogger(DaoFactory.class.getName());
+
+	private static CachingDepartmentDao departmentDao;
+
+	private static CachingPayrollDao payrollDao;
+
+	private static DaoMetrics metrics;
+
+	private static EntitySession session;
+
+	private static boolean queryPlansChecked;
+
 	public static SellerDao createSellerDao() {
-		return new SellerDaoJDBC(DB.getConnection());
+		SellerDaoJDBC dao = new SellerDaoJDBC(DB.getDataSource(), DB.getBatchSize(), getDepartmentCache());
+		dao.setStreamFetchSize(DB.getStreamFetchSize());
+		dao.setSession(getSession());
+		dao.setWriteListener(getPayrollCache()::invalidate);
+		checkQueryPlans(dao);
+		return InstrumentedDao.wrap(SellerDao.class, dao, getDaoMetrics());
+	}
+
+	/**
+	 * Explains the seller queries once, when the first seller DAO is created,
+	 * so a missing index shows up in the log at startup.
+	 */
+	private static synchronized void checkQueryPlans(SellerDaoJDBC dao) {
+		if (queryPlansChecked || !DB.isQueryPlanCheckEnabled()) {
+			return;
+		}
+		queryPlansChecked = true;
+		try {
+			new QueryPlanCheck(DB.getDataSource(), dao.getQueryPlanSamples()).run();
+		}
+		catch (DbException e) {
+			LOGGER.warning("Query plan check failed: " + e.getMessage());
+		}
 	}
 	
 	public static DepartmentDao createDepartmentDao() {
-		return new DepartmentDaoJDBC(DB.getConnection());
+		return InstrumentedDao.wrap(DepartmentDao.class, getDepartmentCache(), getDaoMetrics());
+	}
+	
+	public static PayrollDao createPayrollDao() {
+		return InstrumentedDao.wrap(PayrollDao.class, getPayrollCache(), getDaoMetrics());
+	}
+
+	public static synchronized DaoMetrics getDaoMetrics() {
+		if (metrics == null) {
+			metrics = new DaoMetrics(DB.getSlowQueryThreshold());
+			metrics.registerMBean();
+		}
+		return metrics;
+	}
+
+	public static synchronized EntitySession getSession() {
+		if (session == null) {
+			session = new EntitySession();
+		}
+		return session;
+	}
+
+	public static CacheStats getDepartmentCacheStats() {
+		return getDepartmentCache().getStats();
+	}
+
+	public static CacheStats getPayrollCacheStats() {
+		return getPayrollCache().getStats();
+	}
+
+	private static synchronized CachingDepartmentDao getDepartmentCache() {
+		if (departmentDao == null) {
+			DepartmentDaoJDBC dao = new DepartmentDaoJDBC(DB.getDataSource(), DB.getBatchSize());
+			dao.setSession(getSession());
+			departmentDao = new CachingDepartmentDao(dao, DB.getDepartmentCacheTtl());
+			departmentDao.setSession(getSession());
+			departmentDao.setWriteListener(getPayrollCache()::invalidate);
+		}
+		return departmentDao;
+	}
+
+	private static synchronized CachingPayrollDao getPayrollCache() {
+		if (payrollDao == null) {
+			payrollDao = new CachingPayrollDao(new PayrollDaoJDBC(DB.getDataSource(), DB.isPayrollPercentilesEnabled()),
+					DB.getPayrollCacheTtl());
+		}
+		return payrollDao;
 	}
 }
@@ -0,0 +1,77 @@
+package model.dao;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Point-in-time statistics of one DAO method. Latencies are in milliseconds.
+ */
+public class DaoMethodStats {
+
+	private final String method;
+	private final long calls;
+	private final long errors;
+	private final long rows;
+	private final double meanMillis;
+	private final double p50Millis;
+	private final double p95Millis;
+	private final double p99Millis;
+	private final double maxMillis;
+
+	@ConstructorProperties({ "method", "calls", "errors", "rows", "meanMillis", "p50Millis", "p95Millis", "p99Millis",
+			"maxMillis" })
+	public DaoMethodStats(String method, long calls, long errors, long rows, double meanMillis, double p50Millis,
+			double p95Millis, double p99Millis, double maxMillis) {
+		this.method = method;
+		this.calls = calls;
+		this.errors = errors;
+		this.rows = rows;
+		this.meanMillis = meanMillis;
+		this.p50Millis = p50Millis;
+		this.p95Millis = p95Millis;
+		this.p99Millis = p99Millis;
+		this.maxMillis = maxMillis;
+	}
+
+	public String getMethod() {
+		return method;
+	}
+
+	public long getCalls() {
+		return calls;
+	}
+
+	public long getErrors() {
+		return errors;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public double getMeanMillis() {
+		return meanMillis;
+	}
+
+	public double getP50Millis() {
+		return p50Millis;
+	}
+
+	public double getP95Millis() {
+		return p95Millis;
+	}
+
+	public double getP99Millis() {
+		return p99Millis;
+	}
+
+	public double getMaxMillis() {
+		return maxMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "DaoMethodStats [method=" + method + ", calls=" + calls + ", errors=" + errors + ", rows=" + rows
+				+ ", mean=" + String.format("%.3f", meanMillis) + "ms, p50=" + p50Millis + "ms, p95=" + p95Millis
+				+ "ms, p99=" + p99Millis + "ms, max=" + maxMillis + "ms]";
+	}
+}
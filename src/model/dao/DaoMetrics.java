@@ -0,0 +1,136 @@
+package model.dao;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Collects latency, row and error counts per DAO method and logs calls slower
+ * than the threshold together with their arguments. Registered with the
+ * platform MBean server so the same numbers can be read over JMX.
+ */
+public class DaoMetrics implements DaoMetricsMXBean {
+
+	private static final Logger LOGGER = Logger.getLogger(DaoMetrics.class.getName());
+
+	private static final String OBJECT_NAME = "workshop:type=DaoMetrics";
+
+	private final Map<String, MethodMetrics> methods = new ConcurrentHashMap<>();
+
+	private final AtomicLong slowQueries = new AtomicLong();
+
+	private volatile long slowQueryThresholdMillis;
+
+	public DaoMetrics(long slowQueryThresholdMillis) {
+		this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+	}
+
+	public void registerMBean() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+			}
+		}
+		catch (JMException e) {
+			LOGGER.warning("Could not register " + OBJECT_NAME + ": " + e.getMessage());
+		}
+	}
+
+	public void record(String method, long nanos, long rows, boolean failed, Object[] args) {
+		MethodMetrics metrics = methods.computeIfAbsent(method, key -> new MethodMetrics());
+		metrics.latency.record(nanos);
+		if (rows > 0) {
+			metrics.rows.addAndGet(rows);
+		}
+		if (failed) {
+			metrics.errors.incrementAndGet();
+		}
+
+		long millis = nanos / 1_000_000;
+		if (millis >= slowQueryThresholdMillis) {
+			slowQueries.incrementAndGet();
+			LOGGER.warning("Slow DAO call " + method + " took " + millis + " ms" + (failed ? " and failed" : "")
+					+ ", rows=" + rows + ", args=" + describe(args));
+		}
+	}
+
+	@Override
+	public List<DaoMethodStats> getMethodStats() {
+		List<DaoMethodStats> list = new ArrayList<>();
+		for (Map.Entry<String, MethodMetrics> entry : methods.entrySet()) {
+			LatencyHistogram h = entry.getValue().latency;
+			list.add(new DaoMethodStats(entry.getKey(), h.getCount(), entry.getValue().errors.get(),
+					entry.getValue().rows.get(), h.getMeanMicros() / 1000.0, h.getPercentileMicros(50) / 1000.0,
+					h.getPercentileMicros(95) / 1000.0, h.getPercentileMicros(99) / 1000.0, h.getMaxMicros() / 1000.0));
+		}
+		list.sort(Comparator.comparing(DaoMethodStats::getMethod));
+		return list;
+	}
+
+	@Override
+	public long getSlowQueryThresholdMillis() {
+		return slowQueryThresholdMillis;
+	}
+
+	@Override
+	public void setSlowQueryThresholdMillis(long millis) {
+		this.slowQueryThresholdMillis = millis;
+	}
+
+	@Override
+	public long getSlowQueryCount() {
+		return slowQueries.get();
+	}
+
+	@Override
+	public void reset() {
+		methods.clear();
+		slowQueries.set(0);
+	}
+
+	private static String describe(Object[] args) {
+		if (args == null || args.length == 0) {
+			return "()";
+		}
+		StringBuilder sb = new StringBuilder("(");
+		for (int i = 0; i < args.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			Object arg = args[i];
+			if (arg instanceof Collection) {
+				sb.append(((Collection<?>) arg).size()).append(" items");
+			}
+			else if (arg instanceof int[]) {
+				sb.append(((int[]) arg).length).append(" ids");
+			}
+			else if (arg instanceof Consumer || arg instanceof SellerRowHandler) {
+				sb.append("<callback>");
+			}
+			else {
+				sb.append(arg);
+			}
+		}
+		return sb.append(')').toString();
+	}
+
+	private static class MethodMetrics {
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final AtomicLong rows = new AtomicLong();
+		private final AtomicLong errors = new AtomicLong();
+	}
+}
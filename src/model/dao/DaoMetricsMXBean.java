@@ -0,0 +1,16 @@
+package model.dao;
+
+import java.util.List;
+
+public interface DaoMetricsMXBean {
+
+	List<DaoMethodStats> getMethodStats();
+
+	long getSlowQueryThresholdMillis();
+
+	void setSlowQueryThresholdMillis(long millis);
+
+	long getSlowQueryCount();
+
+	void reset();
+}
@@ -1,6 +1,8 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import model.entities.Department;
 
@@ -9,6 +11,10 @@ public interface DepartmentDao {
 	void insert(Department obj);
 	void update(Department obj);
 	void deleteById(Integer id);
+	BatchResult insertAll(Collection<Department> list);
+	BatchResult updateAll(Collection<Department> list);
+	BatchResult deleteAllById(Collection<Integer> ids);
 	Department findById(Integer id);
+	Map<Integer, Department> findByIds(Collection<Integer> ids);
 	List<Department> findAll();
 }
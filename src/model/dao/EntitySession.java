@@ -0,0 +1,38 @@
+package model.dao;
+
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Identity maps shared by all seller and department mapping, so that within a
+ * session every id is represented by exactly one object. A row read again only
+ * overwrites that object when it carries a newer version, which keeps edits in
+ * progress from being clobbered by a concurrent page load.
+ */
+public class EntitySession {
+
+	private final IdentityMap<Seller> sellers = new IdentityMap<>();
+	private final IdentityMap<Department> departments = new IdentityMap<>();
+
+	public IdentityMap<Seller> getSellers() {
+		return sellers;
+	}
+
+	public IdentityMap<Department> getDepartments() {
+		return departments;
+	}
+
+	public Department merge(Department loaded) {
+		Department existing = departments.putIfAbsent(loaded.getId(), loaded);
+		if (existing != loaded && loaded.getVersion() > existing.getVersion()) {
+			existing.setName(loaded.getName());
+			existing.setVersion(loaded.getVersion());
+		}
+		return existing;
+	}
+
+	public void clear() {
+		sellers.clear();
+		departments.clear();
+	}
+}
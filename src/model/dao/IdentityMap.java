@@ -0,0 +1,76 @@
+package model.dao;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+import model.collections.IntObjectMap;
+
+/**
+ * Maps an entity id to the one instance loaded for it. Values are held by weak
+ * references, so an entity no screen or cache refers to any more can be
+ * collected; its entry is purged on the next access. Entries are kept in an
+ * int-keyed open-addressing table, so an id is never boxed and a cached
+ * entity costs its weak reference plus two array slots. Access is
+ * synchronized; every operation is a short table probe.
+ */
+public class IdentityMap<T> {
+
+	private final IntObjectMap<Ref<T>> entries = new IntObjectMap<>();
+	private final ReferenceQueue<T> collected = new ReferenceQueue<>();
+
+	public synchronized T get(int id) {
+		expunge();
+		Ref<T> ref = entries.get(id);
+		return ref == null ? null : ref.get();
+	}
+
+	/**
+	 * Registers value for id unless a live instance is already registered, and
+	 * returns the instance that is registered afterwards.
+	 */
+	public synchronized T putIfAbsent(int id, T value) {
+		expunge();
+		Ref<T> ref = entries.get(id);
+		T existing = ref == null ? null : ref.get();
+		if (existing != null) {
+			return existing;
+		}
+		entries.put(id, new Ref<>(id, value, collected));
+		return value;
+	}
+
+	public synchronized void remove(int id) {
+		expunge();
+		entries.remove(id);
+	}
+
+	public synchronized int size() {
+		expunge();
+		return entries.size();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		expunge();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void expunge() {
+		Ref<T> ref;
+		while ((ref = (Ref<T>) collected.poll()) != null) {
+			if (entries.get(ref.id) == ref) {
+				entries.remove(ref.id);
+			}
+		}
+	}
+
+	private static class Ref<T> extends WeakReference<T> {
+
+		private final int id;
+
+		private Ref(int id, T value, ReferenceQueue<T> queue) {
+			super(value, queue);
+			this.id = id;
+		}
+	}
+}
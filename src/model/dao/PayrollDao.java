@@ -0,0 +1,8 @@
+package model.dao;
+
+import model.reports.PayrollReport;
+
+public interface PayrollDao {
+
+	PayrollReport findPayrollByDepartment();
+}
@@ -1,6 +1,10 @@
 package model.dao;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import model.entities.Department;
 import model.entities.Seller;
@@ -10,7 +14,20 @@ public interface SellerDao {
 	void insert(Seller obj);
 	void update(Seller obj);
 	void deleteById(Integer id);
+	BatchResult insertAll(Collection<Seller> list);
+	BatchResult updateAll(Collection<Seller> list);
+	BatchResult deleteAllById(Collection<Integer> ids);
 	Seller findById(Integer id);
+	Map<Integer, Seller> findByIds(Collection<Integer> ids);
 	List<Seller> findAll();
 	List<Seller> findByDepartment(Department department);
+	List<Seller> findPage(String afterName, Integer afterId, int limit);
+	int count();
+	List<Seller> find(SellerQuery query);
+	List<Seller> findPage(SellerQuery query, Seller after, int limit);
+	int count(SellerQuery query);
+	int countBefore(SellerQuery query, Seller item);
+	void stream(Consumer<? super Seller> action);
+	Stream<Seller> stream();
+	void forEachRow(SellerRowHandler handler);
 }
@@ -0,0 +1,193 @@
+package model.dao;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+
+import model.entities.Seller;
+
+/**
+ * Filters and order for a seller query. Unset filters are ignored; results
+ * are always ordered by the sort column and then by Id, in the same direction,
+ * so every row has a unique position for keyset paging.
+ */
+public class SellerQuery {
+
+	private String namePrefix;
+	private String emailPrefix;
+	private Integer departmentId;
+	private Double minSalary;
+	private Double maxSalary;
+	private LocalDate bornFrom;
+	private LocalDate bornTo;
+
+	private SellerSortColumn sortColumn = SellerSortColumn.NAME;
+	private boolean ascending = true;
+
+	private int limit;
+	private int offset;
+
+	private boolean fetchDepartment = true;
+
+	public SellerQuery() {
+	}
+
+	public SellerQuery(SellerQuery other) {
+		this.namePrefix = other.namePrefix;
+		this.emailPrefix = other.emailPrefix;
+		this.departmentId = other.departmentId;
+		this.minSalary = other.minSalary;
+		this.maxSalary = other.maxSalary;
+		this.bornFrom = other.bornFrom;
+		this.bornTo = other.bornTo;
+		this.sortColumn = other.sortColumn;
+		this.ascending = other.ascending;
+		this.limit = other.limit;
+		this.offset = other.offset;
+		this.fetchDepartment = other.fetchDepartment;
+	}
+
+	public String getNamePrefix() {
+		return namePrefix;
+	}
+
+	public void setNamePrefix(String namePrefix) {
+		this.namePrefix = namePrefix == null || namePrefix.isEmpty() ? null : namePrefix;
+	}
+
+	public String getEmailPrefix() {
+		return emailPrefix;
+	}
+
+	public void setEmailPrefix(String emailPrefix) {
+		this.emailPrefix = emailPrefix == null || emailPrefix.isEmpty() ? null : emailPrefix;
+	}
+
+	public Integer getDepartmentId() {
+		return departmentId;
+	}
+
+	public void setDepartmentId(Integer departmentId) {
+		this.departmentId = departmentId;
+	}
+
+	public Double getMinSalary() {
+		return minSalary;
+	}
+
+	public void setMinSalary(Double minSalary) {
+		this.minSalary = minSalary;
+	}
+
+	public Double getMaxSalary() {
+		return maxSalary;
+	}
+
+	public void setMaxSalary(Double maxSalary) {
+		this.maxSalary = maxSalary;
+	}
+
+	public LocalDate getBornFrom() {
+		return bornFrom;
+	}
+
+	public void setBornFrom(LocalDate bornFrom) {
+		this.bornFrom = bornFrom;
+	}
+
+	public LocalDate getBornTo() {
+		return bornTo;
+	}
+
+	public void setBornTo(LocalDate bornTo) {
+		this.bornTo = bornTo;
+	}
+
+	public SellerSortColumn getSortColumn() {
+		return sortColumn;
+	}
+
+	public void setSortColumn(SellerSortColumn sortColumn) {
+		this.sortColumn = sortColumn == null ? SellerSortColumn.NAME : sortColumn;
+	}
+
+	public boolean isAscending() {
+		return ascending;
+	}
+
+	public void setAscending(boolean ascending) {
+		this.ascending = ascending;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public void setOffset(int offset) {
+		this.offset = offset;
+	}
+
+	public boolean isFetchDepartment() {
+		return fetchDepartment;
+	}
+
+	/**
+	 * When false, results may carry a lazy department reference instead of the
+	 * joined department, which lets the query skip the join.
+	 */
+	public void setFetchDepartment(boolean fetchDepartment) {
+		this.fetchDepartment = fetchDepartment;
+	}
+
+	public Comparator<Seller> getComparator() {
+		Comparator<Seller> order = sortColumn.getComparator().thenComparing(SellerSortColumn.ID.getComparator());
+		return ascending ? order : order.reversed();
+	}
+
+	public boolean matches(Seller seller) {
+		if (namePrefix != null && !startsWithIgnoreCase(seller.getName(), namePrefix)) {
+			return false;
+		}
+		if (emailPrefix != null && !startsWithIgnoreCase(seller.getEmail(), emailPrefix)) {
+			return false;
+		}
+		if (departmentId != null && !departmentId.equals(seller.getDepartmentId())) {
+			return false;
+		}
+		if (minSalary != null && (!seller.hasBaseSalary() || seller.getBaseSalaryCents() / 100.0 < minSalary)) {
+			return false;
+		}
+		if (maxSalary != null && (!seller.hasBaseSalary() || seller.getBaseSalaryCents() / 100.0 > maxSalary)) {
+			return false;
+		}
+		if (bornFrom != null || bornTo != null) {
+			if (!seller.hasBirthDate()) {
+				return false;
+			}
+			int born = seller.getBirthEpochDay();
+			if ((bornFrom != null && born < bornFrom.toEpochDay()) || (bornTo != null && born > bornTo.toEpochDay())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean startsWithIgnoreCase(String value, String prefix) {
+		return value != null && value.regionMatches(true, 0, prefix, 0, prefix.length());
+	}
+
+	@Override
+	public String toString() {
+		return "SellerQuery [namePrefix=" + namePrefix + ", emailPrefix=" + emailPrefix + ", departmentId="
+				+ departmentId + ", minSalary=" + minSalary + ", maxSalary=" + maxSalary + ", bornFrom=" + bornFrom
+				+ ", bornTo=" + bornTo + ", sortColumn=" + sortColumn + ", ascending=" + ascending + ", limit=" + limit
+				+ ", offset=" + offset + ", fetchDepartment=" + fetchDepartment + "]";
+	}
+}
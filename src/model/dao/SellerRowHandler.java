@@ -0,0 +1,14 @@
+package model.dao;
+
+import java.time.LocalDate;
+
+/**
+ * Receives the columns of one seller row at a time, for callers that consume
+ * large result sets without building a Seller for every row.
+ */
+@FunctionalInterface
+public interface SellerRowHandler {
+
+	void handle(int id, String name, String email, LocalDate birthDate, double baseSalary, int departmentId,
+			String departmentName);
+}
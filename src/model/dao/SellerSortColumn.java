@@ -0,0 +1,73 @@
+package model.dao;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.function.Function;
+
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Columns a seller query can be ordered by. Each knows its SQL expression, the
+ * in-memory order matching it and the value a keyset page continues after.
+ * A missing value sorts first on both sides and continues after the lowest
+ * value of its type, so an unsaved seller or one without its department never
+ * ends paging early.
+ */
+public enum SellerSortColumn {
+
+	ID("seller.Id", Comparator.comparing(Seller::getId, Comparator.nullsFirst(Comparator.naturalOrder())),
+			seller -> seller.getId() != null ? seller.getId() : Integer.MIN_VALUE),
+	NAME("seller.Name", Comparator.comparing(seller -> text(seller.getName()), String.CASE_INSENSITIVE_ORDER),
+			seller -> text(seller.getName())),
+	EMAIL("seller.Email", Comparator.comparing(seller -> text(seller.getEmail()), String.CASE_INSENSITIVE_ORDER),
+			seller -> text(seller.getEmail())),
+	BIRTH_DATE("seller.BirthDate", Comparator.comparingInt(Seller::getBirthEpochDay),
+			SellerSortColumn::birthTimestamp),
+	BASE_SALARY("seller.BaseSalary", Comparator.comparingLong(Seller::getBaseSalaryCents),
+			seller -> seller.hasBaseSalary() ? seller.getBaseSalary() : -Double.MAX_VALUE),
+	DEPARTMENT("COALESCE(department.Name, '')",
+			Comparator.comparing(SellerSortColumn::departmentName, String.CASE_INSENSITIVE_ORDER),
+			SellerSortColumn::departmentName);
+
+	private final String expression;
+	private final Comparator<Seller> comparator;
+	private final Function<Seller, Object> value;
+
+	SellerSortColumn(String expression, Comparator<Seller> comparator, Function<Seller, Object> value) {
+		this.expression = expression;
+		this.comparator = comparator;
+		this.value = value;
+	}
+
+	public String getExpression() {
+		return expression;
+	}
+
+	public Comparator<Seller> getComparator() {
+		return comparator;
+	}
+
+	public Object valueOf(Seller seller) {
+		return value.apply(seller);
+	}
+
+	private static String text(String value) {
+		return value != null ? value : "";
+	}
+
+	private static Timestamp birthTimestamp(Seller seller) {
+		LocalDateTime start = seller.hasBirthDate() ? seller.getBirthDate().atStartOfDay() : LocalDateTime.of(1, 1, 1, 0, 0);
+		return Timestamp.valueOf(start);
+	}
+
+	/**
+	 * Reads the name from the department the row was loaded with; a seller
+	 * holding only a department reference sorts like a department without a name.
+	 */
+	private static String departmentName(Seller seller) {
+		Department department = seller.getDepartment();
+		return department != null ? text(department.getName()) : "";
+	}
+}
@@ -0,0 +1,275 @@
+package model.dao.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import db.DB;
+import model.collections.IntObjectMap;
+import model.dao.BatchResult;
+import model.dao.CacheStats;
+import model.dao.DepartmentDao;
+import model.dao.EntitySession;
+import model.entities.Department;
+
+/**
+ * Read-through cache in front of a DepartmentDao. Departments are kept by id
+ * and as the ordered findAll() list for ttlMillis; any write through this DAO
+ * drops the whole cache, and drops it again when the surrounding transaction
+ * ends so nothing read before a rollback survives. A load that overlaps an
+ * invalidation is returned but not cached. Seller mapping calls
+ * resolve() so every seller row shares the cached Department instance instead
+ * of allocating its own.
+ */
+public class CachingDepartmentDao implements DepartmentDao {
+
+	private final DepartmentDao delegate;
+	private final long ttlMillis;
+
+	private EntitySession session;
+
+	private Runnable writeListener;
+
+	private final IntObjectMap<Entry> byId = new IntObjectMap<>();
+	private volatile List<Department> all;
+	private volatile long allLoadedAt;
+	private final AtomicLong generation = new AtomicLong();
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public CachingDepartmentDao(DepartmentDao delegate, long ttlMillis) {
+		this.delegate = delegate;
+		this.ttlMillis = ttlMillis;
+	}
+
+	public void setSession(EntitySession session) {
+		this.session = session;
+	}
+
+	/**
+	 * Sets a callback run together with the invalidation that follows every
+	 * write through this DAO.
+	 */
+	public void setWriteListener(Runnable writeListener) {
+		this.writeListener = writeListener;
+	}
+
+	@Override
+	public Department findById(Integer id) {
+		Entry entry = lookup(id);
+		if (entry != null && isFresh(entry.loadedAt)) {
+			hits.incrementAndGet();
+			return entry.department;
+		}
+		misses.incrementAndGet();
+		long loadingGeneration = generation.get();
+		Department dep = delegate.findById(id);
+		return dep == null ? null : cache(dep, loadingGeneration);
+	}
+
+	/**
+	 * Answers the ids still fresh in the cache and loads only the others, with
+	 * one multi-id query on the delegate.
+	 */
+	@Override
+	public Map<Integer, Department> findByIds(Collection<Integer> ids) {
+		Map<Integer, Department> found = new HashMap<>();
+		List<Integer> missing = new ArrayList<>();
+		for (Integer id : ids) {
+			if (id == null || found.containsKey(id)) {
+				continue;
+			}
+			Entry entry = lookup(id);
+			if (entry != null && isFresh(entry.loadedAt)) {
+				hits.incrementAndGet();
+				found.put(id, entry.department);
+			}
+			else {
+				misses.incrementAndGet();
+				missing.add(id);
+			}
+		}
+		if (!missing.isEmpty()) {
+			long loadingGeneration = generation.get();
+			for (Department dep : delegate.findByIds(missing).values()) {
+				found.put(dep.getId(), cache(dep, loadingGeneration));
+			}
+		}
+		return found;
+	}
+
+	@Override
+	public List<Department> findAll() {
+		List<Department> list = all;
+		if (list != null && isFresh(allLoadedAt)) {
+			hits.incrementAndGet();
+			return new ArrayList<>(list);
+		}
+		misses.incrementAndGet();
+		long loadingGeneration = generation.get();
+		List<Department> loaded = new ArrayList<>();
+		for (Department dep : delegate.findAll()) {
+			loaded.add(cache(dep, loadingGeneration));
+		}
+		synchronized (byId) {
+			if (generation.get() == loadingGeneration) {
+				allLoadedAt = System.currentTimeMillis();
+				all = loaded;
+			}
+		}
+		return new ArrayList<>(loaded);
+	}
+
+	public Department resolve(int id, String name, int version) {
+		Entry entry = lookup(id);
+		if (entry != null && isFresh(entry.loadedAt)) {
+			hits.incrementAndGet();
+			if (version > entry.department.getVersion()) {
+				entry.department.setName(name);
+				entry.department.setVersion(version);
+			}
+			return entry.department;
+		}
+		misses.incrementAndGet();
+		Department dep = new Department(id, name);
+		dep.setVersion(version);
+		return cache(dep, generation.get());
+	}
+
+	private Department cache(Department dep, long loadingGeneration) {
+		Department loaded = session == null ? dep : session.merge(dep);
+		long now = System.currentTimeMillis();
+		synchronized (byId) {
+			Entry old = byId.get(loaded.getId());
+			if (generation.get() != loadingGeneration) {
+				return old == null ? loaded : old.department;
+			}
+			if (old == null || old.department == loaded) {
+				byId.put(loaded.getId(), new Entry(loaded, now));
+				return loaded;
+			}
+			if (loaded.getVersion() >= old.department.getVersion()) {
+				old.department.setName(loaded.getName());
+				old.department.setVersion(loaded.getVersion());
+			}
+			byId.put(loaded.getId(), new Entry(old.department, now));
+			return old.department;
+		}
+	}
+
+	private Entry lookup(int id) {
+		synchronized (byId) {
+			return byId.get(id);
+		}
+	}
+
+	private boolean isFresh(long loadedAt) {
+		return System.currentTimeMillis() - loadedAt < ttlMillis;
+	}
+
+	public void invalidate() {
+		invalidations.incrementAndGet();
+		synchronized (byId) {
+			generation.incrementAndGet();
+			all = null;
+			byId.clear();
+		}
+	}
+
+	private void invalidateAfterWrite() {
+		invalidate();
+		if (writeListener != null) {
+			writeListener.run();
+		}
+		if (DB.isInTransaction()) {
+			DB.afterCompletion(this::invalidate);
+			if (writeListener != null) {
+				DB.afterCompletion(writeListener);
+			}
+		}
+	}
+
+	public CacheStats getStats() {
+		int size;
+		synchronized (byId) {
+			size = byId.size();
+		}
+		return new CacheStats(hits.get(), misses.get(), invalidations.get(), size);
+	}
+
+	@Override
+	public void insert(Department obj) {
+		try {
+			delegate.insert(obj);
+		}
+		finally {
+			invalidateAfterWrite();
+		}
+	}
+
+	@Override
+	public void update(Department obj) {
+		try {
+			delegate.update(obj);
+		}
+		finally {
+			invalidateAfterWrite();
+		}
+	}
+
+	@Override
+	public void deleteById(Integer id) {
+		try {
+			delegate.deleteById(id);
+		}
+		finally {
+			invalidateAfterWrite();
+		}
+	}
+
+	@Override
+	public BatchResult insertAll(Collection<Department> list) {
+		try {
+			return delegate.insertAll(list);
+		}
+		finally {
+			invalidateAfterWrite();
+		}
+	}
+
+	@Override
+	public BatchResult updateAll(Collection<Department> list) {
+		try {
+			return delegate.updateAll(list);
+		}
+		finally {
+			invalidateAfterWrite();
+		}
+	}
+
+	@Override
+	public BatchResult deleteAllById(Collection<Integer> ids) {
+		try {
+			return delegate.deleteAllById(ids);
+		}
+		finally {
+			invalidateAfterWrite();
+		}
+	}
+
+	private static class Entry {
+
+		private final Department department;
+		private final long loadedAt;
+
+		private Entry(Department department, long loadedAt) {
+			this.department = department;
+			this.loadedAt = loadedAt;
+		}
+	}
+}
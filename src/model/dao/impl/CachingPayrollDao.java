@@ -0,0 +1,68 @@
+package model.dao.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.dao.CacheStats;
+import model.dao.PayrollDao;
+import model.reports.PayrollReport;
+
+/**
+ * Keeps the last payroll report for ttlMillis. invalidate() is called after
+ * every seller or department write made through the DAOs; a report whose query
+ * overlapped an invalidation is returned but not kept, so a write is never
+ * hidden by figures read just before it. Writes made outside the application
+ * show up once the TTL expires.
+ */
+public class CachingPayrollDao implements PayrollDao {
+
+	private final PayrollDao delegate;
+	private final long ttlMillis;
+
+	private PayrollReport cached;
+	private long generation;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+
+	public CachingPayrollDao(PayrollDao delegate, long ttlMillis) {
+		this.delegate = delegate;
+		this.ttlMillis = ttlMillis;
+	}
+
+	@Override
+	public PayrollReport findPayrollByDepartment() {
+		long loadingGeneration;
+		synchronized (this) {
+			if (cached != null && System.currentTimeMillis() - cached.getGeneratedAt() < ttlMillis) {
+				hits.incrementAndGet();
+				return cached;
+			}
+			loadingGeneration = generation;
+		}
+		misses.incrementAndGet();
+		PayrollReport report = delegate.findPayrollByDepartment();
+		synchronized (this) {
+			if (generation == loadingGeneration) {
+				cached = report;
+			}
+		}
+		return report;
+	}
+
+	public void invalidate() {
+		invalidations.incrementAndGet();
+		synchronized (this) {
+			generation++;
+			cached = null;
+		}
+	}
+
+	public CacheStats getStats() {
+		int size;
+		synchronized (this) {
+			size = cached == null ? 0 : 1;
+		}
+		return new CacheStats(hits.get(), misses.get(), invalidations.get(), size);
+	}
+}
@@ -6,36 +6,57 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
 
 import db.DB;
+import db.DbConcurrencyException;
 import db.DbException;
 import db.DbIntegrityException;
+import model.dao.BatchResult;
 import model.dao.DepartmentDao;
+import model.dao.EntitySession;
 import model.entities.Department;
 
 public class DepartmentDaoJDBC implements DepartmentDao {
 
-	private Connection conn;
+	private static final int DEFAULT_BATCH_SIZE = 500;
+
+	private DataSource dataSource;
+	
+	private int batchSize;
 	
-	public DepartmentDaoJDBC(Connection conn) {
-		this.conn = conn;
+	private EntitySession session;
+	
+	public DepartmentDaoJDBC(DataSource dataSource) {
+		this(dataSource, DEFAULT_BATCH_SIZE);
+	}
+	
+	public DepartmentDaoJDBC(DataSource dataSource, int batchSize) {
+		this.dataSource = dataSource;
+		this.batchSize = batchSize;
+	}
+	
+	public void setSession(EntitySession session) {
+		this.session = session;
 	}
 	
 	@Override
 	public Department findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement(
 				"SELECT * FROM department WHERE Id = ?");
 			st.setInt(1, id);
 			rs = st.executeQuery();
 			if (rs.next()) {
-				Department obj = new Department();
-				obj.setId(rs.getInt("Id"));
-				obj.setName(rs.getString("Name"));
-				return obj;
+				return new DepartmentRowMapper(rs, session).map(rs);
 			}
 			return null;
 		}
@@ -43,27 +64,35 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 			throw new DbException(e.getMessage());
 		}
 		finally {
-			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
+	@Override
+	public Map<Integer, Department> findByIds(Collection<Integer> ids) {
+		return IdLookup.find(dataSource,
+			"SELECT * FROM department WHERE Id IN (",
+			ids, rs -> new DepartmentRowMapper(rs, session), Department::getId);
+	}
+
 	@Override
 	public List<Department> findAll() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement(
 				"SELECT * FROM department ORDER BY Name");
 			rs = st.executeQuery();
 
+			DepartmentRowMapper mapper = new DepartmentRowMapper(rs, session);
 			List<Department> list = new ArrayList<>();
 
 			while (rs.next()) {
-				Department obj = new Department();
-				obj.setId(rs.getInt("Id"));
-				obj.setName(rs.getString("Name"));
-				list.add(obj);
+				list.add(mapper.map(rs));
 			}
 			return list;
 		}
@@ -71,15 +100,18 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 			throw new DbException(e.getMessage());
 		}
 		finally {
-			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void insert(Department obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement(
 				"INSERT INTO department " +
 				"(Name) " +
@@ -96,6 +128,7 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 				if (rs.next()) {
 					int id = rs.getInt(1);
 					obj.setId(id);
+					register(obj);
 				}
 			}
 			else {
@@ -107,47 +140,119 @@ public class DepartmentDaoJDBC implements DepartmentDao {
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Department obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement(
 				"UPDATE department " +
-				"SET Name = ? " +
-				"WHERE Id = ?");
+				"SET Name = ?, Version = Version + 1 " +
+				"WHERE Id = ? AND Version = ?");
 
 			st.setString(1, obj.getName());
 			st.setInt(2, obj.getId());
+			st.setInt(3, obj.getVersion());
 
-			st.executeUpdate();
+			if (st.executeUpdate() == 0) {
+				throw new DbConcurrencyException(DbConcurrencyException.STALE_ROW + " (department " + obj.getId() + ")");
+			}
+			obj.setVersion(obj.getVersion() + 1);
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement(
 				"DELETE FROM department WHERE Id = ?");
 
 			st.setInt(1, id);
 
 			st.executeUpdate();
+			
+			if (session != null) {
+				session.getDepartments().remove(id);
+			}
 		}
 		catch (SQLException e) {
 			throw new DbIntegrityException(e.getMessage());
 		} 
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public BatchResult insertAll(Collection<Department> list) {
+		List<Department> rows = new ArrayList<>(list);
+		
+		BatchResult result = JdbcBatch.execute(dataSource,
+				"INSERT INTO department (Name) VALUES (?)",
+				rows, batchSize, true, JdbcBatch.NO_ROWS_AFFECTED, (st, obj) -> {
+					st.setString(1, obj.getName());
+				});
+		
+		for (int i = 0; i < result.getGeneratedKeys().size(); i++) {
+			rows.get(i).setId(result.getGeneratedKeys().get(i));
+			register(rows.get(i));
+		}
+		return result;
+	}
+
+	@Override
+	public BatchResult updateAll(Collection<Department> list) {
+		List<Department> rows = new ArrayList<>(list);
+		
+		BatchResult result = JdbcBatch.execute(dataSource,
+				"UPDATE department SET Name = ?, Version = Version + 1 WHERE Id = ? AND Version = ?",
+				rows, batchSize, false, DbConcurrencyException.STALE_ROW, (st, obj) -> {
+					st.setString(1, obj.getName());
+					st.setInt(2, obj.getId());
+					st.setInt(3, obj.getVersion());
+				});
+		
+		if (result.isCommitted()) {
+			for (Department obj : rows) {
+				obj.setVersion(obj.getVersion() + 1);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public BatchResult deleteAllById(Collection<Integer> ids) {
+		BatchResult result = JdbcBatch.execute(dataSource,
+				"DELETE FROM department WHERE Id = ?",
+				ids, batchSize, false, null, (st, id) -> st.setInt(1, id));
+		
+		if (result.isCommitted() && session != null) {
+			for (Integer id : ids) {
+				session.getDepartments().remove(id);
+			}
+		}
+		return result;
+	}
+	
+	private void register(Department obj) {
+		if (session != null) {
+			session.getDepartments().putIfAbsent(obj.getId(), obj);
 		}
 	}
 }
@@ -0,0 +1,38 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import model.dao.EntitySession;
+import model.entities.Department;
+
+public class DepartmentRowMapper implements RowMapper<Department> {
+
+	private final int id;
+	private final int name;
+	private final int version;
+
+	private final EntitySession session;
+
+	public DepartmentRowMapper(ResultSet rs) throws SQLException {
+		this(rs, null);
+	}
+
+	public DepartmentRowMapper(ResultSet rs, EntitySession session) throws SQLException {
+		Map<String, Integer> indexes = RowMapper.columnIndexes(rs);
+		this.id = RowMapper.requireColumn(indexes, "Id");
+		this.name = RowMapper.requireColumn(indexes, "Name");
+		this.version = RowMapper.requireColumn(indexes, "Version");
+		this.session = session;
+	}
+
+	@Override
+	public Department map(ResultSet rs) throws SQLException {
+		Department obj = new Department();
+		obj.setId(rs.getInt(id));
+		obj.setName(rs.getString(name));
+		obj.setVersion(rs.getInt(version));
+		return session == null ? obj : session.merge(obj);
+	}
+}
@@ -0,0 +1,123 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.sql.DataSource;
+
+import db.DB;
+import db.DbException;
+import model.collections.IntSet;
+
+/**
+ * Loads rows for a set of ids with "Id IN (?, ...)" queries on one connection,
+ * at most MAX_CHUNK ids per query. A chunk is padded to the next power of two
+ * by repeating its last id, so only log2(MAX_CHUNK) + 1 different statements
+ * are ever prepared and the pooled statement cache keeps reusing them.
+ * Duplicate and null ids are skipped; ids without a row are left out of the
+ * returned map. If the calling thread is interrupted, e.g. a search task
+ * cancelled because the user typed on, no further chunk is queried.
+ */
+class IdLookup {
+
+	static final int MAX_CHUNK = 256;
+
+	interface MapperFactory<T> {
+
+		RowMapper<T> create(ResultSet rs) throws SQLException;
+	}
+
+	/**
+	 * Runs selectPrefix followed by the placeholder list and ")" for each
+	 * chunk; selectPrefix must end with "IN (".
+	 */
+	static <T> Map<Integer, T> find(DataSource dataSource, String selectPrefix, Collection<Integer> ids,
+			MapperFactory<T> mappers, Function<T, Integer> idOf) {
+
+		int[] distinct = distinct(ids);
+		Map<Integer, T> found = new HashMap<>(Math.max(16, distinct.length * 4 / 3 + 1));
+
+		if (distinct.length == 0) {
+			return found;
+		}
+
+		Connection conn = null;
+		try {
+			conn = dataSource.getConnection();
+
+			for (int from = 0; from < distinct.length; from += MAX_CHUNK) {
+				if (Thread.currentThread().isInterrupted()) {
+					throw new DbException("Interrupted while loading rows by id");
+				}
+				int count = Math.min(MAX_CHUNK, distinct.length - from);
+				findChunk(conn, selectPrefix, distinct, from, count, mappers, idOf, found);
+			}
+			return found;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	private static <T> void findChunk(Connection conn, String selectPrefix, int[] ids, int from, int count,
+			MapperFactory<T> mappers, Function<T, Integer> idOf, Map<Integer, T> found) throws SQLException {
+
+		int size = paddedSize(count);
+
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.prepareStatement(selectPrefix + placeholders(size) + ")");
+
+			for (int i = 0; i < size; i++) {
+				st.setInt(i + 1, ids[from + Math.min(i, count - 1)]);
+			}
+
+			rs = st.executeQuery();
+
+			RowMapper<T> mapper = mappers.create(rs);
+			while (rs.next()) {
+				T obj = mapper.map(rs);
+				found.put(idOf.apply(obj), obj);
+			}
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+		}
+	}
+
+	static int paddedSize(int count) {
+		return count <= 1 ? 1 : Integer.highestOneBit(count - 1) << 1;
+	}
+
+	static String placeholders(int size) {
+		StringBuilder sb = new StringBuilder(size * 2);
+		for (int i = 0; i < size; i++) {
+			sb.append(i == 0 ? "?" : ",?");
+		}
+		return sb.toString();
+	}
+
+	private static int[] distinct(Collection<Integer> ids) {
+		IntSet seen = new IntSet(ids.size());
+		int[] distinct = new int[ids.size()];
+		int n = 0;
+		for (Integer id : ids) {
+			if (id != null && seen.add(id)) {
+				distinct[n++] = id;
+			}
+		}
+		return n == distinct.length ? distinct : Arrays.copyOf(distinct, n);
+	}
+}
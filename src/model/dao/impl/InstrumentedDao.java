@@ -0,0 +1,136 @@
+package model.dao.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.BaseStream;
+
+import model.dao.BatchResult;
+import model.dao.DaoMetrics;
+import model.dao.SellerRowHandler;
+
+/**
+ * Decorates a DAO interface with a dynamic proxy that times every call and
+ * reports it to DaoMetrics, together with the number of rows returned and
+ * whether it failed. Callback arguments are wrapped to count streamed rows.
+ * Methods returning a Stream are timed until the stream is returned only.
+ */
+public class InstrumentedDao implements InvocationHandler {
+
+	private final Object target;
+	private final Class<?> type;
+	private final DaoMetrics metrics;
+	private final Map<Method, String> names = new ConcurrentHashMap<>();
+
+	private InstrumentedDao(Object target, Class<?> type, DaoMetrics metrics) {
+		this.target = target;
+		this.type = type;
+		this.metrics = metrics;
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <T> T wrap(Class<T> type, T target, DaoMetrics metrics) {
+		return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+				new InstrumentedDao(target, type, metrics));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+		if (method.getDeclaringClass() == Object.class) {
+			switch (method.getName()) {
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			default:
+				return method.invoke(target, args);
+			}
+		}
+
+		AtomicLong streamed = new AtomicLong();
+		Object[] callArgs = countCallbacks(args, streamed);
+
+		long start = System.nanoTime();
+		Object result = null;
+		boolean failed = false;
+		try {
+			result = method.invoke(target, callArgs);
+			return result;
+		}
+		catch (InvocationTargetException e) {
+			failed = true;
+			throw e.getCause();
+		}
+		finally {
+			metrics.record(nameOf(method), System.nanoTime() - start, rowsOf(result) + streamed.get(), failed, args);
+		}
+	}
+
+	private String nameOf(Method method) {
+		return names.computeIfAbsent(method, m -> {
+			String name = type.getSimpleName() + "." + m.getName();
+			for (Method other : type.getMethods()) {
+				if (!other.equals(m) && other.getName().equals(m.getName())) {
+					StringJoiner params = new StringJoiner(", ", "(", ")");
+					for (Class<?> param : m.getParameterTypes()) {
+						params.add(param.getSimpleName());
+					}
+					return name + params;
+				}
+			}
+			return name;
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Object[] countCallbacks(Object[] args, AtomicLong streamed) {
+		if (args == null) {
+			return null;
+		}
+		Object[] wrapped = args;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] instanceof SellerRowHandler) {
+				SellerRowHandler handler = (SellerRowHandler) args[i];
+				wrapped = wrapped == args ? args.clone() : wrapped;
+				wrapped[i] = (SellerRowHandler) (id, name, email, birthDate, baseSalary, departmentId,
+						departmentName) -> {
+					streamed.incrementAndGet();
+					handler.handle(id, name, email, birthDate, baseSalary, departmentId, departmentName);
+				};
+			}
+			else if (args[i] instanceof Consumer) {
+				Consumer<Object> consumer = (Consumer<Object>) args[i];
+				wrapped = wrapped == args ? args.clone() : wrapped;
+				wrapped[i] = (Consumer<Object>) item -> {
+					streamed.incrementAndGet();
+					consumer.accept(item);
+				};
+			}
+		}
+		return wrapped;
+	}
+
+	private static long rowsOf(Object result) {
+		if (result == null || result instanceof Number || result instanceof BaseStream) {
+			return 0;
+		}
+		if (result instanceof Collection) {
+			return ((Collection<?>) result).size();
+		}
+		if (result instanceof Map) {
+			return ((Map<?, ?>) result).size();
+		}
+		if (result instanceof BatchResult) {
+			return ((BatchResult) result).getRowCount();
+		}
+		return 1;
+	}
+}
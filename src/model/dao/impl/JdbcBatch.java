@@ -0,0 +1,169 @@
+package model.dao.impl;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import db.DB;
+import db.DbException;
+import model.dao.BatchResult;
+
+/**
+ * Runs one statement for many rows with addBatch/executeBatch, in chunks of
+ * batchSize, inside a single transaction. Rows that fail are reported by their
+ * position in the input; if any row fails the whole transaction is rolled back.
+ * A row that affects nothing fails with noRowFailure, unless that is null.
+ */
+class JdbcBatch {
+
+	static final String NO_ROWS_AFFECTED = "No rows affected";
+
+	interface Binder<T> {
+
+		void bind(PreparedStatement st, T row) throws SQLException;
+	}
+
+	static <T> BatchResult execute(DataSource dataSource, String sql, Collection<T> rows, int batchSize,
+			boolean returnKeys, String noRowFailure, Binder<T> binder) {
+
+		List<T> list = new ArrayList<>(rows);
+		Map<Integer, String> failures = new TreeMap<>();
+		Integer[] keys = returnKeys ? new Integer[list.size()] : null;
+		int affected = 0;
+
+		if (list.isEmpty()) {
+			return new BatchResult(0, 0, Collections.emptyList(), failures, true);
+		}
+
+		Connection conn = null;
+		PreparedStatement st = null;
+		try {
+			conn = dataSource.getConnection();
+			conn.setAutoCommit(false);
+
+			st = returnKeys ? conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS) : conn.prepareStatement(sql);
+
+			List<Integer> chunk = new ArrayList<>(batchSize);
+
+			for (int i = 0; i < list.size(); i++) {
+
+				try {
+					binder.bind(st, list.get(i));
+					st.addBatch();
+					chunk.add(i);
+				}
+				catch (SQLException | RuntimeException e) {
+					failures.put(i, e.getMessage());
+					st.clearParameters();
+				}
+
+				if (chunk.size() == batchSize || (i == list.size() - 1 && !chunk.isEmpty())) {
+					affected += flush(st, chunk, keys, failures, noRowFailure);
+					chunk.clear();
+				}
+			}
+
+			boolean committed = failures.isEmpty();
+
+			if (committed) {
+				conn.commit();
+			}
+			else {
+				conn.rollback();
+			}
+
+			List<Integer> generatedKeys = keys != null && committed ? Arrays.asList(keys) : Collections.emptyList();
+
+			return new BatchResult(list.size(), committed ? affected : 0, generatedKeys, failures, committed);
+		}
+		catch (SQLException e) {
+			rollback(conn);
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	private static int flush(PreparedStatement st, List<Integer> chunk, Integer[] keys, Map<Integer, String> failures,
+			String noRowFailure) throws SQLException {
+
+		int[] counts;
+		try {
+			counts = st.executeBatch();
+		}
+		catch (BatchUpdateException e) {
+			int[] partial = e.getUpdateCounts() == null ? new int[0] : e.getUpdateCounts();
+			for (int j = 0; j < chunk.size(); j++) {
+				if (j < partial.length && partial[j] == Statement.EXECUTE_FAILED) {
+					failures.put(chunk.get(j), e.getMessage());
+				}
+				else if (j == partial.length) {
+					failures.put(chunk.get(j), e.getMessage());
+				}
+				else if (j > partial.length) {
+					failures.put(chunk.get(j), BatchResult.NOT_EXECUTED);
+				}
+			}
+			st.clearBatch();
+			return 0;
+		}
+
+		int affected = 0;
+
+		for (int j = 0; j < counts.length && j < chunk.size(); j++) {
+			if (counts[j] == Statement.EXECUTE_FAILED) {
+				failures.put(chunk.get(j), "Execution failed");
+			}
+			else if (counts[j] == Statement.SUCCESS_NO_INFO) {
+				affected++;
+			}
+			else if (counts[j] == 0 && noRowFailure != null) {
+				failures.put(chunk.get(j), noRowFailure);
+			}
+			else {
+				affected += counts[j];
+			}
+		}
+
+		if (keys != null) {
+			ResultSet rs = st.getGeneratedKeys();
+			try {
+				int j = 0;
+				while (rs.next() && j < chunk.size()) {
+					keys[chunk.get(j++)] = rs.getInt(1);
+				}
+			}
+			finally {
+				DB.closeResultSet(rs);
+			}
+		}
+
+		return affected;
+	}
+
+	private static void rollback(Connection conn) {
+
+		if (conn != null) {
+			try {
+				conn.rollback();
+			}
+			catch (SQLException e) {
+				// the original failure is the one worth reporting
+			}
+		}
+	}
+}
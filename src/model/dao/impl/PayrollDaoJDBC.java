@@ -0,0 +1,151 @@
+package model.dao.impl;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import db.DB;
+import db.DbException;
+import model.dao.PayrollDao;
+import model.reports.DepartmentPayroll;
+import model.reports.PayrollReport;
+
+/**
+ * Computes the payroll report with one GROUP BY DepartmentId query, joined to
+ * the department table so departments without sellers are listed too. The
+ * median and 90th percentile are nearest-rank values taken from ROW_NUMBER()
+ * over each department's salaries, rather than PERCENTILE_DISC, which MySQL
+ * lacks and H2 computes differently. Percentiles are off unless enabled: the
+ * window query was far slower than the plain GROUP BY on H2 (see
+ * PayrollReportBenchmark) and has not been measured on MySQL. When enabled,
+ * they are only computed if the server version supports window functions
+ * (MySQL 8, MariaDB 10.2, H2 2), read once from DatabaseMetaData.
+ */
+public class PayrollDaoJDBC implements PayrollDao {
+
+	private static final Logger LOGGER = Logger.getLogger(PayrollDaoJDBC.class.getName());
+
+	private static final String AGGREGATES = "COUNT(*) AS Sellers, SUM(BaseSalary) AS Total, "
+			+ "AVG(BaseSalary) AS Average, MIN(BaseSalary) AS Minimum, MAX(BaseSalary) AS Maximum";
+
+	private static final String SELECT = "SELECT department.Id, department.Name, payroll.Sellers, payroll.Total, "
+			+ "payroll.Average, payroll.Minimum, payroll.Maximum";
+
+	private static final String JOIN = " ON payroll.DepartmentId = department.Id "
+			+ "ORDER BY department.Name, department.Id";
+
+	private static final String WITH_PERCENTILES = SELECT + ", payroll.Median, payroll.P90 "
+			+ "FROM department LEFT JOIN ("
+			+ "SELECT DepartmentId, " + AGGREGATES + ", "
+			+ "MAX(CASE WHEN SalaryRank = CEIL(0.5 * DepartmentSize) THEN BaseSalary END) AS Median, "
+			+ "MAX(CASE WHEN SalaryRank = CEIL(0.9 * DepartmentSize) THEN BaseSalary END) AS P90 "
+			+ "FROM (SELECT DepartmentId, BaseSalary, "
+			+ "ROW_NUMBER() OVER (PARTITION BY DepartmentId ORDER BY BaseSalary) AS SalaryRank, "
+			+ "COUNT(*) OVER (PARTITION BY DepartmentId) AS DepartmentSize "
+			+ "FROM seller) ranked "
+			+ "GROUP BY DepartmentId) payroll" + JOIN;
+
+	private static final String WITHOUT_PERCENTILES = SELECT + " "
+			+ "FROM department LEFT JOIN ("
+			+ "SELECT DepartmentId, " + AGGREGATES + " "
+			+ "FROM seller "
+			+ "GROUP BY DepartmentId) payroll" + JOIN;
+
+	private DataSource dataSource;
+
+	private final boolean percentiles;
+
+	private volatile Boolean windowFunctions;
+
+	public PayrollDaoJDBC(DataSource dataSource) {
+		this(dataSource, false);
+	}
+
+	public PayrollDaoJDBC(DataSource dataSource, boolean percentiles) {
+		this.dataSource = dataSource;
+		this.percentiles = percentiles;
+	}
+
+	@Override
+	public PayrollReport findPayrollByDepartment() {
+		Connection conn = null;
+		try {
+			conn = dataSource.getConnection();
+			boolean withPercentiles = percentiles && supportsWindowFunctions(conn);
+			return query(conn, withPercentiles ? WITH_PERCENTILES : WITHOUT_PERCENTILES, withPercentiles);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeConnection(conn);
+		}
+	}
+
+	private boolean supportsWindowFunctions(Connection conn) throws SQLException {
+		Boolean supported = windowFunctions;
+		if (supported == null) {
+			DatabaseMetaData meta = conn.getMetaData();
+			supported = supportsWindowFunctions(meta.getDatabaseProductName(), meta.getDatabaseProductVersion(),
+					meta.getDatabaseMajorVersion(), meta.getDatabaseMinorVersion());
+			if (!supported) {
+				LOGGER.info("Window functions not supported by " + meta.getDatabaseProductName() + " "
+						+ meta.getDatabaseProductVersion() + ", payroll report without percentiles");
+			}
+			windowFunctions = supported;
+		}
+		return supported;
+	}
+
+	/**
+	 * MariaDB reached through the MySQL driver reports itself as MySQL with
+	 * "MariaDB" in the version string.
+	 */
+	static boolean supportsWindowFunctions(String product, String version, int major, int minor) {
+		if ("MariaDB".equalsIgnoreCase(product) || (version != null && version.contains("MariaDB"))) {
+			return major > 10 || (major == 10 && minor >= 2);
+		}
+		if ("MySQL".equalsIgnoreCase(product)) {
+			return major >= 8;
+		}
+		if ("H2".equalsIgnoreCase(product)) {
+			return major >= 2;
+		}
+		return false;
+	}
+
+	private PayrollReport query(Connection conn, String sql, boolean withPercentiles) throws SQLException {
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			st = conn.prepareStatement(sql);
+
+			rs = st.executeQuery();
+
+			List<DepartmentPayroll> list = new ArrayList<>();
+			while (rs.next()) {
+				list.add(new DepartmentPayroll(rs.getInt(1), rs.getString(2), rs.getInt(3), rs.getDouble(4),
+						getDouble(rs, 5), getDouble(rs, 6), getDouble(rs, 7),
+						withPercentiles ? getDouble(rs, 8) : null,
+						withPercentiles ? getDouble(rs, 9) : null));
+			}
+			return new PayrollReport(list, withPercentiles, System.currentTimeMillis());
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+		}
+	}
+
+	private static Double getDouble(ResultSet rs, int column) throws SQLException {
+		double value = rs.getDouble(column);
+		return rs.wasNull() ? null : value;
+	}
+}
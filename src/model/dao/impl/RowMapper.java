@@ -0,0 +1,36 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import db.DbException;
+
+/**
+ * Maps the current row of a ResultSet to an entity. Implementations resolve
+ * the column positions they need once, when created for a ResultSet, and then
+ * read every row by index instead of by label.
+ */
+public interface RowMapper<T> {
+
+	T map(ResultSet rs) throws SQLException;
+
+	static Map<String, Integer> columnIndexes(ResultSet rs) throws SQLException {
+		ResultSetMetaData meta = rs.getMetaData();
+		Map<String, Integer> indexes = new HashMap<>();
+		for (int i = meta.getColumnCount(); i >= 1; i--) {
+			indexes.put(meta.getColumnLabel(i).toLowerCase(), i);
+		}
+		return indexes;
+	}
+
+	static int requireColumn(Map<String, Integer> indexes, String label) {
+		Integer index = indexes.get(label.toLowerCase());
+		if (index == null) {
+			throw new DbException("Column " + label + " not found in result set");
+		}
+		return index;
+	}
+}
@@ -6,28 +6,78 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
 
 import db.DB;
+import db.DbConcurrencyException;
 import db.DbException;
+import db.QueryPlanCheck;
+import model.dao.BatchResult;
+import model.dao.EntitySession;
 import model.dao.SellerDao;
+import model.dao.SellerQuery;
+import model.dao.SellerRowHandler;
+import model.dao.SellerSortColumn;
 import model.entities.Department;
 import model.entities.Seller;
 
 public class SellerDaoJDBC implements SellerDao {
 
-	private Connection conn;
+	private static final int DEFAULT_BATCH_SIZE = 500;
+
+	private static final String SELECT_JOIN = "SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
+			+ "FROM seller INNER JOIN department "
+			+ "ON seller.DepartmentId = department.Id ";
+
+	private static final String FIND_BY_ID = SELECT_JOIN + "WHERE seller.Id = ?";
+
+	private static final String FIND_BY_IDS = SELECT_JOIN + "WHERE seller.Id IN (";
+
+	private static final String FIND_BY_DEPARTMENT = SELECT_JOIN + "WHERE DepartmentId = ? ORDER BY Name";
+
+	private static final String FIND_PAGE_FIRST = SELECT_JOIN + "ORDER BY seller.Name, seller.Id LIMIT ?";
+
+	private static final String FIND_PAGE_AFTER = SELECT_JOIN
+			+ "WHERE seller.Name > ? OR (seller.Name = ? AND seller.Id > ?) "
+			+ "ORDER BY seller.Name, seller.Id LIMIT ?";
+
+	private DataSource dataSource;
+	
+	private int batchSize;
+	
+	private CachingDepartmentDao departmentCache;
+	
+	private int streamFetchSize = Integer.MIN_VALUE;
 	
-	public SellerDaoJDBC(Connection conn) {
-		this.conn = conn;
+	private EntitySession session;
+	
+	private Runnable writeListener;
+	
+	public SellerDaoJDBC(DataSource dataSource) {
+		this(dataSource, DEFAULT_BATCH_SIZE, null);
+	}
+	
+	public SellerDaoJDBC(DataSource dataSource, int batchSize, CachingDepartmentDao departmentCache) {
+		this.dataSource = dataSource;
+		this.batchSize = batchSize;
+		this.departmentCache = departmentCache;
 	}
 	
 	@Override
 	public void insert(Seller obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement(
 					"INSERT INTO seller "
 					+ "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
@@ -37,9 +87,9 @@ public class SellerDaoJDBC implements SellerDao {
 			
 			st.setString(1, obj.getName());
 			st.setString(2, obj.getEmail());
-			st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
-			st.setDouble(4, obj.getBaseSalary());
-			st.setInt(5, obj.getDepartment().getId());
+			st.setDate(3, java.sql.Date.valueOf(obj.getBirthDate()));
+			st.setDouble(4, obj.getBaseSalaryCents() / 100.0);
+			st.setInt(5, obj.getDepartmentId());
 			
 			int rowsAffected = st.executeUpdate();
 			
@@ -48,82 +98,97 @@ public class SellerDaoJDBC implements SellerDao {
 				if (rs.next()) {
 					int id = rs.getInt(1);
 					obj.setId(id);
+					register(obj);
 				}
 				DB.closeResultSet(rs);
 			}
 			else {
 				throw new DbException("Unexpected error! No rows affected!");
 			}
+			written();
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void update(Seller obj) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement(
 					"UPDATE seller "
-					+ "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ? "
-					+ "WHERE Id = ?");
+					+ "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ?, Version = Version + 1 "
+					+ "WHERE Id = ? AND Version = ?");
 			
 			st.setString(1, obj.getName());
 			st.setString(2, obj.getEmail());
-			st.setDate(3, new java.sql.Date(obj.getBirthDate().getTime()));
-			st.setDouble(4, obj.getBaseSalary());
-			st.setInt(5, obj.getDepartment().getId());
+			st.setDate(3, java.sql.Date.valueOf(obj.getBirthDate()));
+			st.setDouble(4, obj.getBaseSalaryCents() / 100.0);
+			st.setInt(5, obj.getDepartmentId());
 			st.setInt(6, obj.getId());
+			st.setInt(7, obj.getVersion());
 			
-			st.executeUpdate();
+			if (st.executeUpdate() == 0) {
+				throw new DbConcurrencyException(DbConcurrencyException.STALE_ROW + " (seller " + obj.getId() + ")");
+			}
+			obj.setVersion(obj.getVersion() + 1);
+			written();
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public void deleteById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement("DELETE FROM seller WHERE Id = ?");
 			
 			st.setInt(1, id);
 			
 			st.executeUpdate();
+			
+			if (session != null) {
+				session.getSellers().remove(id);
+			}
+			written();
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		}
 		finally {
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
 	public Seller findById(Integer id) {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
-			st = conn.prepareStatement(
-					"SELECT seller.*,department.Name as DepName "
-					+ "FROM seller INNER JOIN department "
-					+ "ON seller.DepartmentId = department.Id "
-					+ "WHERE seller.Id = ?");
+			conn = dataSource.getConnection();
+			st = conn.prepareStatement(FIND_BY_ID);
 			
 			st.setInt(1, id);
 			rs = st.executeQuery();
 			if (rs.next()) {
-				Department dep = instantiateDepartment(rs);
-				Seller obj = instantiateSeller(rs, dep);
-				return obj;
+				return newMapper(rs).map(rs);
 			}
 			return null;
 		}
@@ -131,107 +196,467 @@ public class SellerDaoJDBC implements SellerDao {
 			throw new DbException(e.getMessage());
 		}
 		finally {
-			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public Map<Integer, Seller> findByIds(Collection<Integer> ids) {
+		return IdLookup.find(dataSource, FIND_BY_IDS, ids, this::newMapper, Seller::getId);
+	}
+
+	public void setStreamFetchSize(int streamFetchSize) {
+		this.streamFetchSize = streamFetchSize;
+	}
+
+	public void setSession(EntitySession session) {
+		this.session = session;
+	}
+
+	/**
+	 * Sets a callback run after every successful seller write, and once more
+	 * when the surrounding transaction ends, so caches of derived data (the
+	 * payroll report) can be dropped.
+	 */
+	public void setWriteListener(Runnable writeListener) {
+		this.writeListener = writeListener;
+	}
+
+	private void written() {
+		if (writeListener != null) {
+			writeListener.run();
+			if (DB.isInTransaction()) {
+				DB.afterCompletion(writeListener);
+			}
 		}
 	}
 
-	private Seller instantiateSeller(ResultSet rs, Department dep) throws SQLException {
-		Seller obj = new Seller();
-		obj.setId(rs.getInt("Id"));
-		obj.setName(rs.getString("Name"));
-		obj.setEmail(rs.getString("Email"));
-		obj.setBaseSalary(rs.getDouble("BaseSalary"));
-		obj.setBirthDate(new java.util.Date(rs.getTimestamp("BirthDate").getTime()));
-		obj.setDepartment(dep);
-		return obj;
+	private SellerRowMapper newMapper(ResultSet rs) throws SQLException {
+		return new SellerRowMapper(rs, departmentCache, session);
 	}
 
-	private Department instantiateDepartment(ResultSet rs) throws SQLException {
-		Department dep = new Department();
-		dep.setId(rs.getInt("DepartmentId"));
-		dep.setName(rs.getString("DepName"));
-		return dep;
+	private void register(Seller obj) {
+		if (session != null) {
+			session.getSellers().putIfAbsent(obj.getId(), obj);
+		}
+	}
+
+	private List<Seller> mapAll(ResultSet rs) throws SQLException {
+		SellerRowMapper mapper = newMapper(rs);
+		List<Seller> list = new ArrayList<>();
+		while (rs.next()) {
+			list.add(mapper.map(rs));
+		}
+		return list;
 	}
 
 	@Override
 	public List<Seller> findAll() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
-			st = conn.prepareStatement(
-					"SELECT seller.*,department.Name as DepName "
-					+ "FROM seller INNER JOIN department "
-					+ "ON seller.DepartmentId = department.Id "
-					+ "ORDER BY Name");
+			conn = dataSource.getConnection();
+			st = conn.prepareStatement(SELECT_JOIN + "ORDER BY Name");
 			
 			rs = st.executeQuery();
 			
-			List<Seller> list = new ArrayList<>();
-			Map<Integer, Department> map = new HashMap<>();
+			return mapAll(rs);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<Seller> findByDepartment(Department department) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = dataSource.getConnection();
+			st = conn.prepareStatement(FIND_BY_DEPARTMENT);
 			
-			while (rs.next()) {
-				
-				Department dep = map.get(rs.getInt("DepartmentId"));
+			st.setInt(1, department.getId());
+			
+			rs = st.executeQuery();
+			
+			return mapAll(rs);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public List<Seller> findPage(String afterName, Integer afterId, int limit) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = dataSource.getConnection();
+			
+			if (afterName == null) {
+				st = conn.prepareStatement(FIND_PAGE_FIRST);
 				
-				if (dep == null) {
-					dep = instantiateDepartment(rs);
-					map.put(rs.getInt("DepartmentId"), dep);
-				}
+				st.setInt(1, limit);
+			}
+			else {
+				st = conn.prepareStatement(FIND_PAGE_AFTER);
 				
-				Seller obj = instantiateSeller(rs, dep);
-				list.add(obj);
+				st.setString(1, afterName);
+				st.setString(2, afterName);
+				st.setInt(3, afterId);
+				st.setInt(4, limit);
 			}
-			return list;
+			
+			rs = st.executeQuery();
+			
+			return mapAll(rs);
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		}
 		finally {
+			DB.closeResultSet(rs);
 			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public int count() {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = dataSource.getConnection();
+			st = conn.prepareStatement(
+					"SELECT COUNT(*) "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id");
+			
+			rs = st.executeQuery();
+			
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
 			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 
 	@Override
-	public List<Seller> findByDepartment(Department department) {
+	public List<Seller> find(SellerQuery query) {
+		SellerQuerySql sql = new SellerQuerySql(query, departmentCache != null);
+		return select(sql, sql.select());
+	}
+
+	@Override
+	public List<Seller> findPage(SellerQuery query, Seller after, int limit) {
+		SellerQuerySql sql = new SellerQuerySql(query, departmentCache != null);
+		return select(sql, sql.selectPage(after, limit));
+	}
+
+	/**
+	 * The lookups and paged queries this DAO issues, with sample parameters,
+	 * for QueryPlanCheck. The SQL comes from the same constants and
+	 * SellerQuerySql builder used above.
+	 */
+	public List<QueryPlanCheck.Query> getQueryPlanSamples() {
+		List<QueryPlanCheck.Query> samples = new ArrayList<>();
+		samples.add(new QueryPlanCheck.Query("SellerDao.findById", FIND_BY_ID, 1));
+		samples.add(new QueryPlanCheck.Query("SellerDao.findByIds", FIND_BY_IDS + IdLookup.placeholders(4) + ")",
+				1, 2, 3, 4));
+		samples.add(new QueryPlanCheck.Query("SellerDao.findByDepartment", FIND_BY_DEPARTMENT, 1));
+		samples.add(new QueryPlanCheck.Query("SellerDao.findPage", FIND_PAGE_FIRST, 100));
+		samples.add(new QueryPlanCheck.Query("SellerDao.findPage after", FIND_PAGE_AFTER, "M", "M", 1, 100));
+
+		Seller after = new Seller(1, "M", "m", null, null, null);
+
+		SellerQuery byName = new SellerQuery();
+		samples.add(querySample("SellerDao.find page", byName, null));
+		samples.add(querySample("SellerDao.find page after", byName, after));
+
+		SellerQuerySql position = new SellerQuerySql(byName, departmentCache != null);
+		samples.add(new QueryPlanCheck.Query("SellerDao.countBefore", position.countBefore(after), position.getParams()));
+
+		SellerQuery lazy = new SellerQuery();
+		lazy.setFetchDepartment(false);
+		samples.add(querySample("SellerDao.find page without department", lazy, after));
+
+		SellerQuery byNamePrefix = new SellerQuery();
+		byNamePrefix.setNamePrefix("M");
+		samples.add(querySample("SellerDao.find by name prefix", byNamePrefix, null));
+
+		SellerQuery byEmailPrefix = new SellerQuery();
+		byEmailPrefix.setEmailPrefix("m");
+		samples.add(querySample("SellerDao.find by email prefix", byEmailPrefix, null));
+
+		SellerQuery byDepartment = new SellerQuery();
+		byDepartment.setDepartmentId(1);
+		samples.add(querySample("SellerDao.find by department", byDepartment, after));
+
+		SellerQuery byDepartmentName = new SellerQuery();
+		byDepartmentName.setSortColumn(SellerSortColumn.DEPARTMENT);
+		samples.add(querySample("SellerDao.find sorted by department", byDepartmentName, null));
+
+		return samples;
+	}
+
+	private QueryPlanCheck.Query querySample(String name, SellerQuery query, Seller after) {
+		SellerQuerySql sql = new SellerQuerySql(query, departmentCache != null);
+		String statement = sql.selectPage(after, 100);
+		return new QueryPlanCheck.Query(name, statement, sql.getParams());
+	}
+
+	private List<Seller> select(SellerQuerySql sql, String statement) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = dataSource.getConnection();
+			st = conn.prepareStatement(statement);
+			
+			sql.bind(st);
+			
+			rs = st.executeQuery();
+			
+			return mapAll(rs);
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public int count(SellerQuery query) {
+		SellerQuerySql sql = new SellerQuerySql(query, departmentCache != null);
+		return count(sql, sql.count());
+	}
+
+	@Override
+	public int countBefore(SellerQuery query, Seller item) {
+		SellerQuerySql sql = new SellerQuerySql(query, departmentCache != null);
+		return count(sql, sql.countBefore(item));
+	}
+
+	private int count(SellerQuerySql sql, String statement) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = dataSource.getConnection();
+			st = conn.prepareStatement(statement);
+			
+			sql.bind(st);
+			
+			rs = st.executeQuery();
+			
+			return rs.next() ? rs.getInt(1) : 0;
+		}
+		catch (SQLException e) {
+			throw new DbException(e.getMessage());
+		}
+		finally {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+		}
+	}
+
+	@Override
+	public BatchResult insertAll(Collection<Seller> list) {
+		List<Seller> rows = new ArrayList<>(list);
+		
+		BatchResult result = JdbcBatch.execute(dataSource,
+				"INSERT INTO seller "
+				+ "(Name, Email, BirthDate, BaseSalary, DepartmentId) "
+				+ "VALUES "
+				+ "(?, ?, ?, ?, ?)",
+				rows, batchSize, true, JdbcBatch.NO_ROWS_AFFECTED, (st, obj) -> {
+					st.setString(1, obj.getName());
+					st.setString(2, obj.getEmail());
+					st.setDate(3, java.sql.Date.valueOf(obj.getBirthDate()));
+					st.setDouble(4, obj.getBaseSalaryCents() / 100.0);
+					st.setInt(5, obj.getDepartmentId());
+				});
+		
+		for (int i = 0; i < result.getGeneratedKeys().size(); i++) {
+			rows.get(i).setId(result.getGeneratedKeys().get(i));
+			register(rows.get(i));
+		}
+		if (result.isCommitted()) {
+			written();
+		}
+		return result;
+	}
+
+	@Override
+	public BatchResult updateAll(Collection<Seller> list) {
+		List<Seller> rows = new ArrayList<>(list);
+		
+		BatchResult result = JdbcBatch.execute(dataSource,
+				"UPDATE seller "
+				+ "SET Name = ?, Email = ?, BirthDate = ?, BaseSalary = ?, DepartmentId = ?, Version = Version + 1 "
+				+ "WHERE Id = ? AND Version = ?",
+				rows, batchSize, false, DbConcurrencyException.STALE_ROW, (st, obj) -> {
+					st.setString(1, obj.getName());
+					st.setString(2, obj.getEmail());
+					st.setDate(3, java.sql.Date.valueOf(obj.getBirthDate()));
+					st.setDouble(4, obj.getBaseSalaryCents() / 100.0);
+					st.setInt(5, obj.getDepartmentId());
+					st.setInt(6, obj.getId());
+					st.setInt(7, obj.getVersion());
+				});
+		
+		if (result.isCommitted()) {
+			for (Seller obj : rows) {
+				obj.setVersion(obj.getVersion() + 1);
+			}
+			written();
+		}
+		return result;
+	}
+
+	@Override
+	public BatchResult deleteAllById(Collection<Integer> ids) {
+		BatchResult result = JdbcBatch.execute(dataSource,
+				"DELETE FROM seller WHERE Id = ?",
+				ids, batchSize, false, null, (st, id) -> st.setInt(1, id));
+		
+		if (result.isCommitted()) {
+			if (session != null) {
+				for (Integer id : ids) {
+					session.getSellers().remove(id);
+				}
+			}
+			written();
+		}
+		return result;
+	}
+
+	@Override
+	public void stream(Consumer<? super Seller> action) {
+		try (Stream<Seller> stream = stream()) {
+			stream.forEach(action);
+		}
+	}
+
+	@Override
+	public Stream<Seller> stream() {
+		Connection conn = null;
 		PreparedStatement st = null;
 		ResultSet rs = null;
 		try {
+			conn = dataSource.getConnection();
 			st = conn.prepareStatement(
-					"SELECT seller.*,department.Name as DepName "
+					"SELECT seller.*,department.Name as DepName,department.Version as DepVersion "
 					+ "FROM seller INNER JOIN department "
 					+ "ON seller.DepartmentId = department.Id "
-					+ "WHERE DepartmentId = ? "
-					+ "ORDER BY Name");
+					+ "ORDER BY seller.Id",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
 			
-			st.setInt(1, department.getId());
+			st.setFetchSize(streamFetchSize);
 			
 			rs = st.executeQuery();
 			
-			List<Seller> list = new ArrayList<>();
-			Map<Integer, Department> map = new HashMap<>();
+			ResultSet cursor = rs;
+			SellerRowMapper mapper = newMapper(rs);
 			
-			while (rs.next()) {
+			Spliterator<Seller> spliterator = new Spliterators.AbstractSpliterator<Seller>(Long.MAX_VALUE,
+					Spliterator.ORDERED | Spliterator.NONNULL) {
 				
-				Department dep = map.get(rs.getInt("DepartmentId"));
-				
-				if (dep == null) {
-					dep = instantiateDepartment(rs);
-					map.put(rs.getInt("DepartmentId"), dep);
+				@Override
+				public boolean tryAdvance(Consumer<? super Seller> action) {
+					try {
+						if (!cursor.next()) {
+							return false;
+						}
+						action.accept(mapper.map(cursor));
+						return true;
+					}
+					catch (SQLException e) {
+						throw new DbException(e.getMessage());
+					}
 				}
-				
-				Seller obj = instantiateSeller(rs, dep);
-				list.add(obj);
+			};
+			
+			Connection streamConn = conn;
+			PreparedStatement streamSt = st;
+			
+			return StreamSupport.stream(spliterator, false).onClose(() -> {
+				try {
+					DB.closeResultSet(cursor);
+					DB.closeStatement(streamSt);
+				}
+				finally {
+					DB.closeConnection(streamConn);
+				}
+			});
+		}
+		catch (SQLException | RuntimeException e) {
+			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
+			throw e instanceof SQLException ? new DbException(e.getMessage()) : (RuntimeException) e;
+		}
+	}
+
+	@Override
+	public void forEachRow(SellerRowHandler handler) {
+		Connection conn = null;
+		PreparedStatement st = null;
+		ResultSet rs = null;
+		try {
+			conn = dataSource.getConnection();
+			st = conn.prepareStatement(
+					"SELECT seller.Id, seller.Name, seller.Email, seller.BirthDate, seller.BaseSalary, "
+					+ "seller.DepartmentId, department.Name "
+					+ "FROM seller INNER JOIN department "
+					+ "ON seller.DepartmentId = department.Id "
+					+ "ORDER BY seller.Id",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			
+			st.setFetchSize(streamFetchSize);
+			
+			rs = st.executeQuery();
+			
+			while (rs.next()) {
+				java.sql.Date birthDate = rs.getDate(4);
+				handler.handle(rs.getInt(1), rs.getString(2), rs.getString(3),
+						birthDate == null ? null : birthDate.toLocalDate(), rs.getDouble(5), rs.getInt(6),
+						rs.getString(7));
 			}
-			return list;
 		}
 		catch (SQLException e) {
 			throw new DbException(e.getMessage());
 		}
 		finally {
-			DB.closeStatement(st);
 			DB.closeResultSet(rs);
+			DB.closeStatement(st);
+			DB.closeConnection(conn);
 		}
 	}
 }
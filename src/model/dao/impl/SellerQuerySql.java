@@ -0,0 +1,174 @@
+package model.dao.impl;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.dao.SellerQuery;
+import model.dao.SellerSortColumn;
+import model.entities.Seller;
+
+/**
+ * Builds the WHERE and ORDER BY clauses for a SellerQuery. Every value is a
+ * bind parameter, so the SQL text only depends on which filters are set and
+ * the pooled statement cache can reuse it.
+ */
+class SellerQuerySql {
+
+	private static final String FROM = "FROM seller INNER JOIN department ON seller.DepartmentId = department.Id ";
+
+	private static final String FROM_SELLER = "FROM seller ";
+
+	private static final String COLUMNS = "SELECT seller.*,department.Name as DepName,department.Version as DepVersion ";
+
+	private static final String SELLER_COLUMNS = "SELECT seller.* ";
+
+	private final SellerQuery query;
+	private final boolean join;
+	private final StringBuilder where = new StringBuilder();
+	private final List<Object> params = new ArrayList<>();
+
+	/**
+	 * The department join is left out when the query does not fetch the
+	 * department, does not sort by it and the caller can resolve departments
+	 * lazily; DepartmentId is NOT NULL with a foreign key, so the rows and the
+	 * count are the same either way.
+	 */
+	SellerQuerySql(SellerQuery query, boolean lazyDepartments) {
+
+		this.query = query;
+		this.join = !lazyDepartments || query.isFetchDepartment()
+				|| query.getSortColumn() == SellerSortColumn.DEPARTMENT;
+
+		if (query.getNamePrefix() != null) {
+			and("seller.Name LIKE ? ESCAPE '!'", likePrefix(query.getNamePrefix()));
+		}
+		if (query.getEmailPrefix() != null) {
+			and("seller.Email LIKE ? ESCAPE '!'", likePrefix(query.getEmailPrefix()));
+		}
+		if (query.getDepartmentId() != null) {
+			and("seller.DepartmentId = ?", query.getDepartmentId());
+		}
+		if (query.getMinSalary() != null) {
+			and("seller.BaseSalary >= ?", query.getMinSalary());
+		}
+		if (query.getMaxSalary() != null) {
+			and("seller.BaseSalary <= ?", query.getMaxSalary());
+		}
+		if (query.getBornFrom() != null) {
+			and("seller.BirthDate >= ?", java.sql.Date.valueOf(query.getBornFrom()));
+		}
+		if (query.getBornTo() != null) {
+			and("seller.BirthDate < ?", java.sql.Date.valueOf(query.getBornTo().plusDays(1)));
+		}
+	}
+
+	String count() {
+
+		return "SELECT COUNT(*) " + (join ? FROM : FROM_SELLER) + where;
+	}
+
+	String select() {
+
+		StringBuilder sql = new StringBuilder(join ? COLUMNS : SELLER_COLUMNS).append(join ? FROM : FROM_SELLER).append(where);
+
+		appendOrderBy(sql);
+
+		if (query.getLimit() > 0) {
+			sql.append(" LIMIT ?");
+			params.add(query.getLimit());
+
+			if (query.getOffset() > 0) {
+				sql.append(" OFFSET ?");
+				params.add(query.getOffset());
+			}
+		}
+
+		return sql.toString();
+	}
+
+	String selectPage(Seller after, int limit) {
+
+		if (after != null) {
+			andKeyset(after, query.isAscending() ? ">" : "<");
+		}
+
+		StringBuilder sql = new StringBuilder(join ? COLUMNS : SELLER_COLUMNS).append(join ? FROM : FROM_SELLER).append(where);
+
+		appendOrderBy(sql);
+
+		sql.append(" LIMIT ?");
+		params.add(limit);
+
+		return sql.toString();
+	}
+
+	/**
+	 * Counts the other rows the query orders before the given seller, which is
+	 * the index it takes in the result. The database compares the sort column
+	 * by its own collation, so this agrees with selectPage where the in-memory
+	 * comparator can only approximate it.
+	 */
+	String countBefore(Seller item) {
+
+		andKeyset(item, query.isAscending() ? "<" : ">");
+		and("seller.Id <> ?", SellerSortColumn.ID.valueOf(item));
+
+		return count();
+	}
+
+	Object[] getParams() {
+
+		return params.toArray();
+	}
+
+	void bind(PreparedStatement st) throws SQLException {
+
+		for (int i = 0; i < params.size(); i++) {
+			st.setObject(i + 1, params.get(i));
+		}
+	}
+
+	private void appendOrderBy(StringBuilder sql) {
+
+		String direction = query.isAscending() ? "" : " DESC";
+
+		sql.append("ORDER BY ").append(query.getSortColumn().getExpression()).append(direction);
+
+		if (query.getSortColumn() != SellerSortColumn.ID) {
+			sql.append(", seller.Id").append(direction);
+		}
+	}
+
+	private void andKeyset(Seller seller, String op) {
+
+		String column = query.getSortColumn().getExpression();
+		Object value = query.getSortColumn().valueOf(seller);
+
+		and("(" + column + " " + op + " ? OR (" + column + " = ? AND seller.Id " + op + " ?))", value);
+		params.add(value);
+		params.add(SellerSortColumn.ID.valueOf(seller));
+	}
+
+	private void and(String condition, Object value) {
+
+		where.append(where.length() == 0 ? "WHERE " : "AND ").append(condition).append(' ');
+		params.add(value);
+	}
+
+	private static String likePrefix(String prefix) {
+
+		StringBuilder pattern = new StringBuilder(prefix.length() + 1);
+
+		for (int i = 0; i < prefix.length(); i++) {
+			char c = prefix.charAt(i);
+			if (c == '!' || c == '%' || c == '_') {
+				pattern.append('!');
+			}
+			pattern.append(c);
+		}
+
+		return pattern.append('%').toString();
+	}
+}
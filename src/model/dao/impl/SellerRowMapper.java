@@ -0,0 +1,122 @@
+package model.dao.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+
+import model.collections.IntObjectMap;
+import model.dao.EntitySession;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Maps rows of the seller/department join. Departments are shared between the
+ * rows of one result set and, when a cache is given, with the department cache.
+ * With a session, a seller already loaded is returned as the same instance and
+ * only refreshed if the row has a newer version. Rows read without the
+ * department columns get the session's department if it has one, else only
+ * a reference by id, resolved later in a batch by SellerService.
+ */
+public class SellerRowMapper implements RowMapper<Seller> {
+
+	private final int id;
+	private final int name;
+	private final int email;
+	private final int birthDate;
+	private final int baseSalary;
+	private final int departmentId;
+	private final int departmentName;
+	private final int departmentVersion;
+	private final int version;
+
+	private final CachingDepartmentDao departmentCache;
+	private final EntitySession session;
+	private final IntObjectMap<Department> departments = new IntObjectMap<>();
+
+	public SellerRowMapper(ResultSet rs, CachingDepartmentDao departmentCache) throws SQLException {
+		this(rs, departmentCache, null);
+	}
+
+	public SellerRowMapper(ResultSet rs, CachingDepartmentDao departmentCache, EntitySession session)
+			throws SQLException {
+		Map<String, Integer> indexes = RowMapper.columnIndexes(rs);
+		this.id = RowMapper.requireColumn(indexes, "Id");
+		this.name = RowMapper.requireColumn(indexes, "Name");
+		this.email = RowMapper.requireColumn(indexes, "Email");
+		this.birthDate = RowMapper.requireColumn(indexes, "BirthDate");
+		this.baseSalary = RowMapper.requireColumn(indexes, "BaseSalary");
+		this.departmentId = RowMapper.requireColumn(indexes, "DepartmentId");
+		this.departmentName = indexes.getOrDefault("depname", 0);
+		this.departmentVersion = indexes.getOrDefault("depversion", 0);
+		this.version = RowMapper.requireColumn(indexes, "Version");
+		this.departmentCache = departmentCache;
+		this.session = session;
+	}
+
+	@Override
+	public Seller map(ResultSet rs) throws SQLException {
+		int sellerId = rs.getInt(id);
+		int rowVersion = rs.getInt(version);
+
+		Seller existing = session == null ? null : session.getSellers().get(sellerId);
+
+		if (existing != null && existing.getVersion() >= rowVersion) {
+			if (!existing.isDepartmentLoaded() && departmentName > 0) {
+				existing.setDepartment(mapDepartment(rs));
+			}
+			return existing;
+		}
+
+		Seller obj = existing != null ? existing : new Seller();
+		obj.setId(sellerId);
+		obj.setName(rs.getString(name));
+		obj.setEmail(rs.getString(email));
+		obj.setBaseSalaryCents(Seller.toCents(rs.getDouble(baseSalary)));
+		obj.setBirthDate(rs.getObject(birthDate, LocalDate.class));
+		obj.setVersion(rowVersion);
+
+		if (departmentName > 0) {
+			obj.setDepartment(mapDepartment(rs));
+		}
+		else {
+			mapDepartmentReference(obj, rs.getInt(departmentId));
+		}
+
+		return existing != null || session == null ? obj : session.getSellers().putIfAbsent(sellerId, obj);
+	}
+
+	private Department mapDepartment(ResultSet rs) throws SQLException {
+		int depId = rs.getInt(departmentId);
+		Department dep = departments.get(depId);
+		if (dep == null) {
+			int depVersion = departmentVersion > 0 ? rs.getInt(departmentVersion) : 0;
+			if (departmentCache != null) {
+				dep = departmentCache.resolve(depId, rs.getString(departmentName), depVersion);
+			}
+			else {
+				dep = new Department(depId, rs.getString(departmentName));
+				dep.setVersion(depVersion);
+				if (session != null) {
+					dep = session.merge(dep);
+				}
+			}
+			departments.put(depId, dep);
+		}
+		return dep;
+	}
+
+	private void mapDepartmentReference(Seller obj, int depId) {
+		Department dep = departments.get(depId);
+		if (dep == null && session != null) {
+			dep = session.getDepartments().get(depId);
+		}
+		if (dep != null) {
+			departments.put(depId, dep);
+			obj.setDepartment(dep);
+		}
+		else {
+			obj.setDepartmentReference(depId);
+		}
+	}
+}
@@ -1,30 +1,46 @@
 package model.entities;
 
 import java.io.Serializable;
-import java.util.Date;
-
+import java.time.LocalDate;
+
+/**
+ * A seller kept in a compact form, since lists hold up to millions of them:
+ * the birth date is an epoch day and the base salary a count of cents, both
+ * primitives, with a sentinel when unset. The department is the instance
+ * shared through the department cache and session, or just its id until
+ * SellerService.loadDepartments resolves it; the entity never does I/O. The
+ * LocalDate and Double accessors convert on each call; hot paths use the
+ * primitive ones.
+ */
 public class Seller implements Serializable {
 
-	private static final long serialVersionUID = 1L;
+	private static final long serialVersionUID = 2L;
+
+	public static final int NO_BIRTH_DATE = Integer.MIN_VALUE;
+
+	public static final long NO_BASE_SALARY = Long.MIN_VALUE;
 
 	private Integer id;
 	private String name;
 	private String email;
-	private Date birthDate;
-	private Double baseSalary;
+	private int birthEpochDay = NO_BIRTH_DATE;
+	private long baseSalaryCents = NO_BASE_SALARY;
 	
 	private Department department;
+	private int departmentId;
+	private int version;
 	
 	public Seller() {
 	}
 
-	public Seller(Integer id, String name, String email, Date birthDate, Double baseSalary, Department department) {
+	public Seller(Integer id, String name, String email, LocalDate birthDate, Double baseSalary,
+			Department department) {
 		this.id = id;
 		this.name = name;
 		this.email = email;
-		this.birthDate = birthDate;
-		this.baseSalary = baseSalary;
-		this.department = department;
+		setBirthDate(birthDate);
+		setBaseSalary(baseSalary);
+		setDepartment(department);
 	}
 
 	public Integer getId() {
@@ -51,28 +67,94 @@ public class Seller implements Serializable {
 		this.email = email;
 	}
 
-	public Date getBirthDate() {
-		return birthDate;
+	public LocalDate getBirthDate() {
+		return birthEpochDay == NO_BIRTH_DATE ? null : LocalDate.ofEpochDay(birthEpochDay);
+	}
+
+	public void setBirthDate(LocalDate birthDate) {
+		this.birthEpochDay = birthDate == null ? NO_BIRTH_DATE : Math.toIntExact(birthDate.toEpochDay());
+	}
+
+	/**
+	 * Returns the birth date as days since 1970-01-01, or NO_BIRTH_DATE.
+	 */
+	public int getBirthEpochDay() {
+		return birthEpochDay;
+	}
+
+	public void setBirthEpochDay(int birthEpochDay) {
+		this.birthEpochDay = birthEpochDay;
 	}
 
-	public void setBirthDate(Date birthDate) {
-		this.birthDate = birthDate;
+	public boolean hasBirthDate() {
+		return birthEpochDay != NO_BIRTH_DATE;
 	}
 
 	public Double getBaseSalary() {
-		return baseSalary;
+		return baseSalaryCents == NO_BASE_SALARY ? null : baseSalaryCents / 100.0;
 	}
 
+	/**
+	 * Sets the base salary, rounded to whole cents.
+	 */
 	public void setBaseSalary(Double baseSalary) {
-		this.baseSalary = baseSalary;
+		this.baseSalaryCents = baseSalary == null ? NO_BASE_SALARY : toCents(baseSalary);
+	}
+
+	/**
+	 * Returns the base salary in cents, or NO_BASE_SALARY.
+	 */
+	public long getBaseSalaryCents() {
+		return baseSalaryCents;
+	}
+
+	public void setBaseSalaryCents(long baseSalaryCents) {
+		this.baseSalaryCents = baseSalaryCents;
 	}
 
+	public boolean hasBaseSalary() {
+		return baseSalaryCents != NO_BASE_SALARY;
+	}
+
+	public static long toCents(double amount) {
+		return Math.round(amount * 100);
+	}
+
+	/**
+	 * Returns the department, or null while the seller only holds a reference
+	 * to it; see isDepartmentLoaded.
+	 */
 	public Department getDepartment() {
 		return department;
 	}
 
 	public void setDepartment(Department department) {
 		this.department = department;
+		this.departmentId = department == null || department.getId() == null ? 0 : department.getId();
+	}
+
+	public Integer getDepartmentId() {
+		if (department != null) {
+			return department.getId();
+		}
+		return departmentId == 0 ? null : departmentId;
+	}
+
+	public void setDepartmentReference(Integer departmentId) {
+		this.department = null;
+		this.departmentId = departmentId == null ? 0 : departmentId;
+	}
+
+	public boolean isDepartmentLoaded() {
+		return department != null || departmentId == 0;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public void setVersion(int version) {
+		this.version = version;
 	}
 
 	@Override
@@ -102,7 +184,7 @@ public class Seller implements Serializable {
 
 	@Override
 	public String toString() {
-		return "Seller [id=" + id + ", name=" + name + ", email=" + email + ", birthDate=" + birthDate + ", baseSalary="
-				+ baseSalary + ", department=" + department + "]";
+		return "Seller [id=" + id + ", name=" + name + ", email=" + email + ", birthDate=" + getBirthDate()
+				+ ", baseSalary=" + getBaseSalary() + ", department=" + department + "]";
 	}
 }
@@ -0,0 +1,169 @@
+package model.exports;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Buffered binary and text output over a FileChannel. Strings are encoded to
+ * UTF-8 straight into the buffer and numbers are written digit by digit, so
+ * writing a row does not allocate.
+ */
+class ByteOutput implements Closeable {
+
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final byte[] digits = new byte[20];
+	private long written;
+
+	ByteOutput(FileChannel channel) {
+		this.channel = channel;
+	}
+
+	long getBytesWritten() {
+		return written + buffer.position();
+	}
+
+	void put(byte b) throws IOException {
+		if (!buffer.hasRemaining()) {
+			flush();
+		}
+		buffer.put(b);
+	}
+
+	void putAscii(String s) throws IOException {
+		for (int i = 0; i < s.length(); i++) {
+			put((byte) s.charAt(i));
+		}
+	}
+
+	void putDecimal(long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			putAscii(Long.toString(value));
+			return;
+		}
+		if (value < 0) {
+			put((byte) '-');
+			value = -value;
+		}
+		int n = 0;
+		do {
+			digits[n++] = (byte) ('0' + value % 10);
+			value /= 10;
+		}
+		while (value != 0);
+		while (n > 0) {
+			put(digits[--n]);
+		}
+	}
+
+	void putPadded(int value, int width) throws IOException {
+		int length = 1;
+		for (int v = value; v >= 10; v /= 10) {
+			length++;
+		}
+		for (; length < width; length++) {
+			put((byte) '0');
+		}
+		putDecimal(value);
+	}
+
+	void putUtf8(String s) throws IOException {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				put((byte) c);
+			}
+			else if (c < 0x800) {
+				put((byte) (0xC0 | (c >> 6)));
+				put((byte) (0x80 | (c & 0x3F)));
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+				int cp = Character.toCodePoint(c, s.charAt(++i));
+				put((byte) (0xF0 | (cp >> 18)));
+				put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+				put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+				put((byte) (0x80 | (cp & 0x3F)));
+			}
+			else if (Character.isSurrogate(c)) {
+				put((byte) '?');
+			}
+			else {
+				put((byte) (0xE0 | (c >> 12)));
+				put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	static int utf8Length(String s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) {
+				length++;
+			}
+			else if (c < 0x800) {
+				length += 2;
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+				length += 4;
+				i++;
+			}
+			else if (Character.isSurrogate(c)) {
+				length++;
+			}
+			else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	void putVarLong(long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		put((byte) value);
+	}
+
+	void putZigZag(long value) throws IOException {
+		putVarLong((value << 1) ^ (value >> 63));
+	}
+
+	void putInt(int value) throws IOException {
+		if (buffer.remaining() < Integer.BYTES) {
+			flush();
+		}
+		buffer.putInt(value);
+	}
+
+	void putDouble(double value) throws IOException {
+		if (buffer.remaining() < Double.BYTES) {
+			flush();
+		}
+		buffer.putDouble(value);
+	}
+
+	void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			written += channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		}
+		finally {
+			channel.close();
+		}
+	}
+}
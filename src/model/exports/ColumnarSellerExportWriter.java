@@ -0,0 +1,150 @@
+package model.exports;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import model.collections.IntObjectMap;
+
+/**
+ * Writes sellers in a compact column-oriented binary format. Rows are
+ * collected into blocks of BLOCK_SIZE and each block is written column by
+ * column, which keeps memory constant however many rows are exported.
+ *
+ * Layout: the magic "SLRC" and a version byte, then blocks, then an int 0.
+ * A block is an int row count followed by the departments first seen in the
+ * block (varint count, zigzag id and string each) and the columns: ids as
+ * zigzag deltas, names, emails, birth dates as zigzag epoch day + 1 (0 for
+ * null), salaries as 8-byte doubles and department ids as zigzag varints.
+ * Strings are a varint byte length + 1 (0 for null) and UTF-8 bytes.
+ */
+class ColumnarSellerExportWriter implements SellerExportWriter {
+
+	static final byte[] MAGIC = { 'S', 'L', 'R', 'C' };
+
+	static final byte VERSION = 1;
+
+	static final int BLOCK_SIZE = 64 * 1024;
+
+	private final ByteOutput out;
+
+	private final int[] ids = new int[BLOCK_SIZE];
+	private final String[] names = new String[BLOCK_SIZE];
+	private final String[] emails = new String[BLOCK_SIZE];
+	private final long[] birthDates = new long[BLOCK_SIZE];
+	private final double[] salaries = new double[BLOCK_SIZE];
+	private final int[] departmentIds = new int[BLOCK_SIZE];
+	private int rows;
+
+	private final IntObjectMap<String> departments = new IntObjectMap<>();
+	private int[] newDepartments = new int[16];
+	private int newDepartmentCount;
+
+	ColumnarSellerExportWriter(FileChannel channel) throws IOException {
+		out = new ByteOutput(channel);
+		for (byte b : MAGIC) {
+			out.put(b);
+		}
+		out.put(VERSION);
+	}
+
+	@Override
+	public void handle(int id, String name, String email, LocalDate birthDate, double baseSalary, int departmentId,
+			String departmentName) {
+
+		ids[rows] = id;
+		names[rows] = name;
+		emails[rows] = email;
+		birthDates[rows] = birthDate == null ? 0 : zigZag(birthDate.toEpochDay()) + 1;
+		salaries[rows] = baseSalary;
+		departmentIds[rows] = departmentId;
+
+		if (!departments.containsKey(departmentId)) {
+			departments.put(departmentId, departmentName);
+			if (newDepartmentCount == newDepartments.length) {
+				newDepartments = Arrays.copyOf(newDepartments, newDepartmentCount * 2);
+			}
+			newDepartments[newDepartmentCount++] = departmentId;
+		}
+
+		if (++rows == BLOCK_SIZE) {
+			try {
+				writeBlock();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	private void writeBlock() throws IOException {
+
+		out.putInt(rows);
+
+		out.putVarLong(newDepartmentCount);
+		for (int i = 0; i < newDepartmentCount; i++) {
+			int id = newDepartments[i];
+			out.putZigZag(id);
+			putString(departments.get(id));
+		}
+		newDepartmentCount = 0;
+
+		int previous = 0;
+		for (int i = 0; i < rows; i++) {
+			out.putZigZag((long) ids[i] - previous);
+			previous = ids[i];
+		}
+		for (int i = 0; i < rows; i++) {
+			putString(names[i]);
+			names[i] = null;
+		}
+		for (int i = 0; i < rows; i++) {
+			putString(emails[i]);
+			emails[i] = null;
+		}
+		for (int i = 0; i < rows; i++) {
+			out.putVarLong(birthDates[i]);
+		}
+		for (int i = 0; i < rows; i++) {
+			out.putDouble(salaries[i]);
+		}
+		for (int i = 0; i < rows; i++) {
+			out.putZigZag(departmentIds[i]);
+		}
+
+		rows = 0;
+	}
+
+	private void putString(String value) throws IOException {
+		if (value == null) {
+			out.putVarLong(0);
+			return;
+		}
+		out.putVarLong(ByteOutput.utf8Length(value) + 1L);
+		out.putUtf8(value);
+	}
+
+	private static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return out.getBytesWritten();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			if (rows > 0) {
+				writeBlock();
+			}
+			out.putInt(0);
+		}
+		finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,168 @@
+package model.exports;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+import model.collections.IntObjectMap;
+import model.dao.SellerRowHandler;
+
+/**
+ * Reads a file written by the columnar export back row by row, one block in
+ * memory at a time.
+ */
+public class ColumnarSellerReader {
+
+	private final FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocate(ByteOutput.BUFFER_SIZE);
+
+	private ColumnarSellerReader(FileChannel channel) {
+		this.channel = channel;
+		buffer.flip();
+	}
+
+	public static long read(Path file, SellerRowHandler handler) throws IOException {
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new ColumnarSellerReader(channel).readAll(handler);
+		}
+	}
+
+	private long readAll(SellerRowHandler handler) throws IOException {
+
+		ensure(ColumnarSellerExportWriter.MAGIC.length + 1);
+		for (byte b : ColumnarSellerExportWriter.MAGIC) {
+			if (buffer.get() != b) {
+				throw new IOException("Not a columnar seller export");
+			}
+		}
+		if (buffer.get() != ColumnarSellerExportWriter.VERSION) {
+			throw new IOException("Unsupported columnar seller export version");
+		}
+
+		IntObjectMap<String> departments = new IntObjectMap<>();
+		int[] ids = new int[0];
+		String[] names = new String[0];
+		String[] emails = new String[0];
+		long[] birthDates = new long[0];
+		double[] salaries = new double[0];
+		int[] departmentIds = new int[0];
+		long total = 0;
+
+		while (true) {
+
+			ensure(Integer.BYTES);
+			int rows = buffer.getInt();
+			if (rows == 0) {
+				return total;
+			}
+			if (rows < 0 || rows > ColumnarSellerExportWriter.BLOCK_SIZE) {
+				throw new IOException("Corrupt block header: " + rows + " rows");
+			}
+			if (ids.length < rows) {
+				ids = new int[rows];
+				names = new String[rows];
+				emails = new String[rows];
+				birthDates = new long[rows];
+				salaries = new double[rows];
+				departmentIds = new int[rows];
+			}
+
+			long newDepartments = readVarLong();
+			for (long i = 0; i < newDepartments; i++) {
+				int id = (int) readZigZag();
+				departments.put(id, readString());
+			}
+
+			int previous = 0;
+			for (int i = 0; i < rows; i++) {
+				previous += (int) readZigZag();
+				ids[i] = previous;
+			}
+			for (int i = 0; i < rows; i++) {
+				names[i] = readString();
+			}
+			for (int i = 0; i < rows; i++) {
+				emails[i] = readString();
+			}
+			for (int i = 0; i < rows; i++) {
+				birthDates[i] = readVarLong();
+			}
+			for (int i = 0; i < rows; i++) {
+				ensure(Double.BYTES);
+				salaries[i] = buffer.getDouble();
+			}
+			for (int i = 0; i < rows; i++) {
+				departmentIds[i] = (int) readZigZag();
+			}
+
+			for (int i = 0; i < rows; i++) {
+				long day = birthDates[i];
+				LocalDate birthDate = day == 0 ? null : LocalDate.ofEpochDay(unZigZag(day - 1));
+				handler.handle(ids[i], names[i], emails[i], birthDate, salaries[i], departmentIds[i],
+						departments.get(departmentIds[i]));
+			}
+
+			total += rows;
+		}
+	}
+
+	private String readString() throws IOException {
+		long length = readVarLong();
+		if (length == 0) {
+			return null;
+		}
+		int bytes = (int) (length - 1);
+		ensure(bytes);
+		String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), bytes,
+				StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + bytes);
+		return value;
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			ensure(1);
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+	private long readZigZag() throws IOException {
+		return unZigZag(readVarLong());
+	}
+
+	private static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private void ensure(int bytes) throws IOException {
+		if (buffer.remaining() >= bytes) {
+			return;
+		}
+		if (buffer.capacity() < bytes) {
+			ByteBuffer larger = ByteBuffer.allocate(bytes);
+			larger.put(buffer);
+			buffer = larger;
+		}
+		else {
+			buffer.compact();
+		}
+		while (buffer.position() < bytes) {
+			if (channel.read(buffer) < 0) {
+				throw new EOFException("Unexpected end of columnar seller export");
+			}
+		}
+		buffer.flip();
+	}
+}
@@ -0,0 +1,114 @@
+package model.exports;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.time.LocalDate;
+
+/**
+ * Writes sellers as UTF-8 comma separated values with a header row. The
+ * columns match what the seller import reads, so an export can be imported
+ * again.
+ */
+class CsvSellerExportWriter implements SellerExportWriter {
+
+	private static final String HEADER = "Id,Name,Email,BirthDate,BaseSalary,DepartmentId,Department\n";
+
+	private final ByteOutput out;
+
+	CsvSellerExportWriter(FileChannel channel) throws IOException {
+		out = new ByteOutput(channel);
+		out.putAscii(HEADER);
+	}
+
+	@Override
+	public void handle(int id, String name, String email, LocalDate birthDate, double baseSalary, int departmentId,
+			String departmentName) {
+		try {
+			out.putDecimal(id);
+			out.put((byte) ',');
+			putText(name);
+			out.put((byte) ',');
+			putText(email);
+			out.put((byte) ',');
+			putDate(birthDate);
+			out.put((byte) ',');
+			putNumber(baseSalary);
+			out.put((byte) ',');
+			out.putDecimal(departmentId);
+			out.put((byte) ',');
+			putText(departmentName);
+			out.put((byte) '\n');
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void putText(String value) throws IOException {
+		if (value == null) {
+			return;
+		}
+		if (!needsQuotes(value)) {
+			out.putUtf8(value);
+			return;
+		}
+		out.put((byte) '"');
+		int start = 0;
+		int quote;
+		while ((quote = value.indexOf('"', start)) >= 0) {
+			out.putUtf8(value.substring(start, quote + 1));
+			out.put((byte) '"');
+			start = quote + 1;
+		}
+		out.putUtf8(start == 0 ? value : value.substring(start));
+		out.put((byte) '"');
+	}
+
+	private static boolean needsQuotes(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void putDate(LocalDate date) throws IOException {
+		if (date == null) {
+			return;
+		}
+		if (date.getYear() < 0 || date.getYear() > 9999) {
+			out.putAscii(date.toString());
+			return;
+		}
+		out.putPadded(date.getYear(), 4);
+		out.put((byte) '-');
+		out.putPadded(date.getMonthValue(), 2);
+		out.put((byte) '-');
+		out.putPadded(date.getDayOfMonth(), 2);
+	}
+
+	private void putNumber(double value) throws IOException {
+		long whole = (long) value;
+		if (whole == value && Math.abs(whole) < 1L << 53) {
+			out.putDecimal(whole);
+			return;
+		}
+		// the shortest digits that read back as the same double, never in
+		// scientific notation
+		out.putAscii(BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+	}
+
+	@Override
+	public long getBytesWritten() {
+		return out.getBytesWritten();
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+}
@@ -0,0 +1,24 @@
+package model.exports;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+public enum ExportFormat {
+
+	CSV(".csv"),
+	COLUMNAR(".sellers");
+
+	private final String extension;
+
+	ExportFormat(String extension) {
+		this.extension = extension;
+	}
+
+	public String getExtension() {
+		return extension;
+	}
+
+	SellerExportWriter open(FileChannel channel) throws IOException {
+		return this == CSV ? new CsvSellerExportWriter(channel) : new ColumnarSellerExportWriter(channel);
+	}
+}
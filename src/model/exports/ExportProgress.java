@@ -0,0 +1,42 @@
+package model.exports;
+
+public class ExportProgress {
+
+	private final long rows;
+	private final long bytes;
+	private final long elapsedMillis;
+	private final boolean finished;
+
+	public ExportProgress(long rows, long bytes, long elapsedMillis, boolean finished) {
+		this.rows = rows;
+		this.bytes = bytes;
+		this.elapsedMillis = elapsedMillis;
+		this.finished = finished;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	public double getRowsPerSecond() {
+		return elapsedMillis == 0 ? 0.0 : rows * 1000.0 / elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "ExportProgress [rows=" + rows + ", bytes=" + bytes + ", elapsedMillis=" + elapsedMillis
+				+ ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) + "]";
+	}
+}
@@ -0,0 +1,14 @@
+package model.exports;
+
+import java.io.Closeable;
+
+import model.dao.SellerRowHandler;
+
+/**
+ * Writes the rows handed to it to an export file. I/O failures while handling
+ * a row are thrown as UncheckedIOException.
+ */
+public interface SellerExportWriter extends SellerRowHandler, Closeable {
+
+	long getBytesWritten();
+}
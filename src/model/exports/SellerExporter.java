@@ -0,0 +1,89 @@
+package model.exports;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CancellationException;
+
+import model.dao.SellerDao;
+
+/**
+ * Streams every seller from SellerDao.forEachRow straight into an export
+ * writer, so no Seller objects are built and memory use does not grow with
+ * the table. The file is written next to the target and moved into place
+ * only when the export completes; interrupting the exporting thread cancels
+ * it and removes the partial file.
+ */
+public class SellerExporter {
+
+	private static final int CANCEL_CHECK_INTERVAL = 1024;
+
+	private final SellerDao sellerDao;
+
+	private volatile long rows;
+	private volatile SellerExportWriter writer;
+	private volatile long startedAt;
+	private volatile long finishedAt;
+
+	public SellerExporter(SellerDao sellerDao) {
+
+		this.sellerDao = sellerDao;
+	}
+
+	public ExportProgress getProgress() {
+
+		long start = startedAt;
+		long end = finishedAt;
+		long elapsed = start == 0 ? 0 : ((end == 0 ? System.nanoTime() : end) - start) / 1_000_000;
+		SellerExportWriter current = writer;
+
+		return new ExportProgress(rows, current == null ? 0 : current.getBytesWritten(), elapsed, end != 0);
+	}
+
+	public ExportProgress run(ExportFormat format, Path file) throws IOException {
+
+		startedAt = System.nanoTime();
+
+		Path partial = file.resolveSibling(file.getFileName() + ".part");
+		boolean completed = false;
+
+		try {
+			try (SellerExportWriter out = format.open(FileChannel.open(partial, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+
+				writer = out;
+
+				sellerDao.forEachRow((id, name, email, birthDate, baseSalary, departmentId, departmentName) -> {
+
+					out.handle(id, name, email, birthDate, baseSalary, departmentId, departmentName);
+
+					long count = rows + 1;
+					rows = count;
+
+					if (count % CANCEL_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+						throw new CancellationException("Export cancelled");
+					}
+				});
+			}
+			catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+
+			Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+			completed = true;
+		}
+		finally {
+			finishedAt = System.nanoTime();
+
+			if (!completed) {
+				Files.deleteIfExists(partial);
+			}
+		}
+
+		return getProgress();
+	}
+}
@@ -0,0 +1,65 @@
+package model.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Buffered character input for the import parsers that keeps track of the
+ * current line. The decoded characters come from a channel reader, so the
+ * file is read in large blocks and never copied into a String as a whole.
+ */
+class CharSource implements Closeable {
+
+	static final int EOF = -1;
+
+	private final Reader reader;
+	private final char[] buffer = new char[SellerRecordReader.BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private long line = 1;
+
+	CharSource(Reader reader) {
+		this.reader = reader;
+	}
+
+	int peek() throws IOException {
+		if (position == limit && !fill()) {
+			return EOF;
+		}
+		return buffer[position];
+	}
+
+	int read() throws IOException {
+		if (position == limit && !fill()) {
+			return EOF;
+		}
+		char c = buffer[position++];
+		if (c == '\n') {
+			line++;
+		}
+		return c;
+	}
+
+	long getLine() {
+		return line;
+	}
+
+	private boolean fill() throws IOException {
+		int n = reader.read(buffer, 0, buffer.length);
+		while (n == 0) {
+			n = reader.read(buffer, 0, buffer.length);
+		}
+		if (n < 0) {
+			return false;
+		}
+		position = 0;
+		limit = n;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+}
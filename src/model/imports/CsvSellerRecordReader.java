@@ -0,0 +1,110 @@
+package model.imports;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads sellers from comma separated values with a header row naming the
+ * columns Name, Email, BirthDate, BaseSalary and Department in any order.
+ * Fields may be quoted with double quotes, doubling a quote to escape it, and
+ * quoted fields may span lines.
+ */
+class CsvSellerRecordReader implements SellerRecordReader {
+
+	private final CharSource source;
+	private final StringBuilder field = new StringBuilder();
+	private final List<String> row = new ArrayList<>();
+	private final int[] columns;
+
+	CsvSellerRecordReader(CharSource source) throws IOException {
+
+		this.source = source;
+
+		if (!readRow()) {
+			throw new ImportException("Empty file");
+		}
+		columns = RecordFields.resolve(row);
+	}
+
+	@Override
+	public SellerRecord next() throws IOException {
+
+		long line;
+		do {
+			line = source.getLine();
+			if (!readRow()) {
+				return null;
+			}
+		}
+		while (row.size() == 1 && row.get(0).isEmpty());
+
+		String[] values = new String[RecordFields.COUNT];
+		for (int i = 0; i < RecordFields.COUNT; i++) {
+			int column = columns[i];
+			values[i] = column >= 0 && column < row.size() ? row.get(column) : null;
+		}
+		return RecordFields.toRecord(line, values);
+	}
+
+	private boolean readRow() throws IOException {
+
+		row.clear();
+
+		int c = source.read();
+		if (c == CharSource.EOF) {
+			return false;
+		}
+
+		field.setLength(0);
+		boolean quoted = false;
+
+		while (true) {
+
+			if (quoted) {
+				if (c == CharSource.EOF) {
+					throw new ImportException("Unterminated quoted field at line " + source.getLine());
+				}
+				if (c == '"') {
+					if (source.peek() == '"') {
+						field.append((char) source.read());
+					}
+					else {
+						quoted = false;
+					}
+				}
+				else {
+					field.append((char) c);
+				}
+			}
+			else if (c == '"' && field.length() == 0) {
+				quoted = true;
+			}
+			else if (c == ',') {
+				row.add(field.toString());
+				field.setLength(0);
+			}
+			else if (c == '\n' || c == CharSource.EOF) {
+				row.add(field.toString());
+				return true;
+			}
+			else if (c == '\r') {
+				if (source.peek() == '\n') {
+					source.read();
+				}
+				row.add(field.toString());
+				return true;
+			}
+			else {
+				field.append((char) c);
+			}
+
+			c = source.read();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		source.close();
+	}
+}
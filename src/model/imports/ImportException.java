@@ -0,0 +1,10 @@
+package model.imports;
+
+public class ImportException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ImportException(String msg) {
+		super(msg);
+	}
+}
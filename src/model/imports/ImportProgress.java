@@ -0,0 +1,48 @@
+package model.imports;
+
+public class ImportProgress {
+
+	private final long read;
+	private final long imported;
+	private final long rejected;
+	private final long elapsedMillis;
+	private final boolean finished;
+
+	public ImportProgress(long read, long imported, long rejected, long elapsedMillis, boolean finished) {
+		this.read = read;
+		this.imported = imported;
+		this.rejected = rejected;
+		this.elapsedMillis = elapsedMillis;
+		this.finished = finished;
+	}
+
+	public long getRead() {
+		return read;
+	}
+
+	public long getImported() {
+		return imported;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	public double getRowsPerSecond() {
+		return elapsedMillis == 0 ? 0.0 : (imported + rejected) * 1000.0 / elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return "ImportProgress [read=" + read + ", imported=" + imported + ", rejected=" + rejected + ", elapsedMillis="
+				+ elapsedMillis + ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) + "]";
+	}
+}
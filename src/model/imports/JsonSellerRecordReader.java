@@ -0,0 +1,190 @@
+package model.imports;
+
+import java.io.IOException;
+
+/**
+ * Reads sellers from a JSON array of flat objects, one object per seller,
+ * using the same field names as the CSV header. Objects are parsed one at a
+ * time as the array is consumed, so the whole document is never held in
+ * memory. Unknown fields are skipped.
+ */
+class JsonSellerRecordReader implements SellerRecordReader {
+
+	private final CharSource source;
+	private final StringBuilder text = new StringBuilder();
+	private boolean first = true;
+	private boolean done;
+
+	JsonSellerRecordReader(CharSource source) throws IOException {
+
+		this.source = source;
+
+		if (skipWhitespace() != '[') {
+			throw error("Expected a JSON array");
+		}
+		source.read();
+	}
+
+	@Override
+	public SellerRecord next() throws IOException {
+
+		if (done) {
+			return null;
+		}
+
+		int c = skipWhitespace();
+
+		if (c == ']') {
+			source.read();
+			done = true;
+			return null;
+		}
+
+		if (!first) {
+			if (c != ',') {
+				throw error("Expected ',' or ']'");
+			}
+			source.read();
+			c = skipWhitespace();
+		}
+		first = false;
+
+		if (c != '{') {
+			throw error("Expected an object");
+		}
+
+		long line = source.getLine();
+		source.read();
+
+		String[] values = new String[RecordFields.COUNT];
+
+		c = skipWhitespace();
+		if (c == '}') {
+			source.read();
+			return RecordFields.toRecord(line, values);
+		}
+
+		while (true) {
+
+			if (skipWhitespace() != '"') {
+				throw error("Expected a field name");
+			}
+			int field = RecordFields.indexOf(readString());
+
+			if (skipWhitespace() != ':') {
+				throw error("Expected ':'");
+			}
+			source.read();
+
+			String value = readValue();
+			if (field >= 0) {
+				values[field] = value;
+			}
+
+			c = skipWhitespace();
+			source.read();
+			if (c == '}') {
+				return RecordFields.toRecord(line, values);
+			}
+			if (c != ',') {
+				throw error("Expected ',' or '}'");
+			}
+		}
+	}
+
+	private String readValue() throws IOException {
+
+		int c = skipWhitespace();
+
+		if (c == '"') {
+			return readString();
+		}
+		if (c == '{' || c == '[') {
+			throw error("Nested values are not supported");
+		}
+
+		text.setLength(0);
+		while ((c = source.peek()) != CharSource.EOF && c != ',' && c != '}' && c != ']'
+				&& !Character.isWhitespace(c)) {
+			text.append((char) source.read());
+		}
+
+		String literal = text.toString();
+		if (literal.isEmpty()) {
+			throw error("Expected a value");
+		}
+		return literal.equals("null") ? null : literal;
+	}
+
+	private String readString() throws IOException {
+
+		source.read();
+		text.setLength(0);
+
+		while (true) {
+			int c = source.read();
+			if (c == CharSource.EOF) {
+				throw error("Unterminated string");
+			}
+			if (c == '"') {
+				return text.toString();
+			}
+			if (c != '\\') {
+				text.append((char) c);
+				continue;
+			}
+			c = source.read();
+			switch (c) {
+			case 'n':
+				text.append('\n');
+				break;
+			case 't':
+				text.append('\t');
+				break;
+			case 'r':
+				text.append('\r');
+				break;
+			case 'b':
+				text.append('\b');
+				break;
+			case 'f':
+				text.append('\f');
+				break;
+			case 'u':
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(source.read(), 16);
+					if (digit < 0) {
+						throw error("Invalid unicode escape");
+					}
+					code = code * 16 + digit;
+				}
+				text.append((char) code);
+				break;
+			case CharSource.EOF:
+				throw error("Unterminated string");
+			default:
+				text.append((char) c);
+			}
+		}
+	}
+
+	private int skipWhitespace() throws IOException {
+
+		int c = source.peek();
+		while (c != CharSource.EOF && (Character.isWhitespace(c) || c == '\uFEFF')) {
+			source.read();
+			c = source.peek();
+		}
+		return c;
+	}
+
+	private ImportException error(String message) {
+		return new ImportException(message + " at line " + source.getLine());
+	}
+
+	@Override
+	public void close() throws IOException {
+		source.close();
+	}
+}
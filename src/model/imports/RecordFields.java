@@ -0,0 +1,40 @@
+package model.imports;
+
+import java.util.List;
+
+class RecordFields {
+
+	static final int COUNT = 5;
+
+	private static final String[] NAMES = { "name", "email", "birthdate", "basesalary", "department" };
+
+	static int indexOf(String key) {
+		String normalized = key.replace("\uFEFF", "").trim().toLowerCase().replace("_", "").replace(" ", "");
+		for (int i = 0; i < NAMES.length; i++) {
+			if (NAMES[i].equals(normalized)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	static int[] resolve(List<String> header) {
+		int[] columns = { -1, -1, -1, -1, -1 };
+		for (int i = 0; i < header.size(); i++) {
+			int field = indexOf(header.get(i));
+			if (field >= 0 && columns[field] < 0) {
+				columns[field] = i;
+			}
+		}
+		for (int i = 0; i < COUNT; i++) {
+			if (columns[i] < 0) {
+				throw new ImportException("Missing column: " + NAMES[i]);
+			}
+		}
+		return columns;
+	}
+
+	static SellerRecord toRecord(long line, String[] values) {
+		return new SellerRecord(line, values[0], values[1], values[2], values[3], values[4]);
+	}
+}
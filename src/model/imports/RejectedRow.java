@@ -0,0 +1,25 @@
+package model.imports;
+
+public class RejectedRow {
+
+	private final long line;
+	private final String reason;
+
+	public RejectedRow(long line, String reason) {
+		this.line = line;
+		this.reason = reason;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	@Override
+	public String toString() {
+		return "Line " + line + ": " + reason;
+	}
+}
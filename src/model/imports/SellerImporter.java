@@ -0,0 +1,345 @@
+package model.imports;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import db.DbException;
+import model.dao.BatchResult;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+import model.services.SellerValidator;
+
+/**
+ * Loads sellers from a SellerRecordReader in three stages connected by bounded
+ * queues: the calling thread reads records in chunks, a pool of workers parses
+ * and validates the chunks in parallel, and a single writer inserts the valid
+ * rows with SellerDao.insertAll. A full queue blocks the stage feeding it, so
+ * at most a few chunks per stage are ever in memory.
+ *
+ * Invalid rows are rejected with their line number and the import goes on.
+ * When a batch fails only the failing rows are dropped and the rest of the
+ * batch is inserted again.
+ */
+public class SellerImporter {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	private static final int MAX_REPORTED_REJECTIONS = 10000;
+
+	private static final DateTimeFormatter[] DATE_FORMATS = { DateTimeFormatter.ISO_LOCAL_DATE,
+			DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT) };
+
+	private static final List<SellerRecord> END_OF_RECORDS = new ArrayList<>(0);
+
+	private static final Chunk END_OF_CHUNKS = new Chunk(0);
+
+	private final SellerDao sellerDao;
+	private final Map<String, Department> departments = new HashMap<>();
+	private final int workers;
+	private final int chunkSize;
+
+	private final AtomicLong read = new AtomicLong();
+	private final AtomicLong imported = new AtomicLong();
+	private final AtomicLong rejected = new AtomicLong();
+	private final Queue<RejectedRow> rejectedRows = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger reportedRejections = new AtomicInteger();
+
+	private volatile long startedAt;
+	private volatile long finishedAt;
+
+	public SellerImporter(SellerDao sellerDao, Collection<Department> departments, int workers, int chunkSize) {
+
+		this.sellerDao = sellerDao;
+		this.workers = Math.max(1, workers);
+		this.chunkSize = Math.max(1, chunkSize);
+
+		for (Department dep : departments) {
+			this.departments.put(normalize(dep.getName()), dep);
+		}
+	}
+
+	public ImportProgress getProgress() {
+
+		long start = startedAt;
+		long end = finishedAt;
+		long elapsed = start == 0 ? 0 : ((end == 0 ? System.nanoTime() : end) - start) / 1_000_000;
+
+		return new ImportProgress(read.get(), imported.get(), rejected.get(), elapsed, end != 0);
+	}
+
+	public List<RejectedRow> getRejectedRows() {
+
+		return new ArrayList<>(rejectedRows);
+	}
+
+	public ImportProgress run(SellerRecordReader reader) throws IOException, InterruptedException {
+
+		startedAt = System.nanoTime();
+
+		BlockingQueue<List<SellerRecord>> records = new ArrayBlockingQueue<>(workers * 2);
+		BlockingQueue<Chunk> chunks = new ArrayBlockingQueue<>(workers * 2);
+		AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		AtomicInteger runningWorkers = new AtomicInteger(workers);
+
+		ExecutorService executor = Executors.newFixedThreadPool(workers + 1, runnable -> {
+			Thread thread = new Thread(runnable, "seller-import");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try {
+			for (int i = 0; i < workers; i++) {
+				executor.execute(() -> parse(records, chunks, runningWorkers, failure));
+			}
+			executor.execute(() -> write(chunks, failure));
+			executor.shutdown();
+
+			List<SellerRecord> chunk = new ArrayList<>(chunkSize);
+			SellerRecord record;
+
+			while ((record = reader.next()) != null) {
+
+				read.incrementAndGet();
+				chunk.add(record);
+
+				if (chunk.size() == chunkSize) {
+					put(records, chunk, failure);
+					chunk = new ArrayList<>(chunkSize);
+				}
+			}
+
+			if (!chunk.isEmpty()) {
+				put(records, chunk, failure);
+			}
+			for (int i = 0; i < workers; i++) {
+				put(records, END_OF_RECORDS, failure);
+			}
+
+			while (!executor.awaitTermination(100, TimeUnit.MILLISECONDS)) {
+				checkFailure(failure);
+			}
+			checkFailure(failure);
+
+			return getProgress();
+		}
+		finally {
+			executor.shutdownNow();
+			finishedAt = System.nanoTime();
+		}
+	}
+
+	private void parse(BlockingQueue<List<SellerRecord>> records, BlockingQueue<Chunk> chunks,
+			AtomicInteger runningWorkers, AtomicReference<RuntimeException> failure) {
+
+		try {
+			while (true) {
+
+				List<SellerRecord> batch = records.take();
+				if (batch == END_OF_RECORDS) {
+					break;
+				}
+
+				Chunk chunk = new Chunk(batch.size());
+				for (SellerRecord record : batch) {
+					Seller seller = toSeller(record);
+					if (seller != null) {
+						chunk.add(record.getLine(), seller);
+					}
+				}
+				if (!chunk.sellers.isEmpty()) {
+					chunks.put(chunk);
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			return;
+		}
+		catch (RuntimeException e) {
+			failure.compareAndSet(null, e);
+		}
+
+		if (runningWorkers.decrementAndGet() == 0) {
+			try {
+				chunks.put(END_OF_CHUNKS);
+			}
+			catch (InterruptedException e) {
+				// cancelled, the writer is being stopped as well
+			}
+		}
+	}
+
+	private Seller toSeller(SellerRecord record) {
+
+		String birthDate = trim(record.getBirthDate());
+		String departmentName = trim(record.getDepartment());
+
+		Seller seller = new Seller();
+		try {
+			SellerValidator.validate(seller, trim(record.getName()), trim(record.getEmail()), parseDate(birthDate),
+					trim(record.getBaseSalary()), departmentName == null ? null : departments.get(normalize(departmentName)));
+			return seller;
+		}
+		catch (ValidationException e) {
+			Map<String, String> errors = e.getErrors();
+			if (errors.containsKey("BirthDate") && birthDate != null && !birthDate.isEmpty()) {
+				errors.put("BirthDate", "Invalid date: " + birthDate);
+			}
+			if (errors.containsKey("Department") && departmentName != null && !departmentName.isEmpty()) {
+				errors.put("Department", "Unknown department: " + departmentName);
+			}
+			StringBuilder reason = new StringBuilder();
+			for (Map.Entry<String, String> error : errors.entrySet()) {
+				if (reason.length() > 0) {
+					reason.append("; ");
+				}
+				reason.append(error.getKey()).append(": ").append(error.getValue());
+			}
+			reject(record.getLine(), reason.toString());
+			return null;
+		}
+	}
+
+	private void write(BlockingQueue<Chunk> chunks, AtomicReference<RuntimeException> failure) {
+
+		try {
+			while (true) {
+
+				Chunk chunk = chunks.take();
+				if (chunk == END_OF_CHUNKS) {
+					return;
+				}
+				insert(chunk);
+			}
+		}
+		catch (InterruptedException e) {
+			// cancelled
+		}
+		catch (RuntimeException e) {
+			failure.compareAndSet(null, e);
+		}
+	}
+
+	private void insert(Chunk chunk) {
+
+		List<Seller> sellers = chunk.sellers;
+		List<Long> lines = chunk.lines;
+
+		while (!sellers.isEmpty()) {
+
+			BatchResult result = sellerDao.insertAll(sellers);
+
+			if (result.isCommitted()) {
+				imported.addAndGet(sellers.size());
+				return;
+			}
+
+			if (!result.hasFailures()) {
+				throw new DbException("Batch insert was rolled back without reporting a failed row");
+			}
+
+			List<Seller> retrySellers = new ArrayList<>(sellers.size());
+			List<Long> retryLines = new ArrayList<>(sellers.size());
+
+			for (int i = 0; i < sellers.size(); i++) {
+				String reason = result.getFailures().get(i);
+				if (reason != null) {
+					reject(lines.get(i), reason);
+				}
+				else {
+					retrySellers.add(sellers.get(i));
+					retryLines.add(lines.get(i));
+				}
+			}
+
+			sellers = retrySellers;
+			lines = retryLines;
+		}
+	}
+
+	private void reject(long line, String reason) {
+
+		rejected.incrementAndGet();
+
+		if (reportedRejections.incrementAndGet() <= MAX_REPORTED_REJECTIONS) {
+			rejectedRows.add(new RejectedRow(line, reason));
+		}
+	}
+
+	private static <T> void put(BlockingQueue<T> queue, T item, AtomicReference<RuntimeException> failure)
+			throws InterruptedException {
+
+		while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+			checkFailure(failure);
+		}
+	}
+
+	private static void checkFailure(AtomicReference<RuntimeException> failure) {
+
+		RuntimeException e = failure.get();
+		if (e != null) {
+			throw e;
+		}
+	}
+
+	private static LocalDate parseDate(String text) {
+
+		if (text == null || text.isEmpty()) {
+			return null;
+		}
+		for (DateTimeFormatter format : DATE_FORMATS) {
+			try {
+				return LocalDate.parse(text, format);
+			}
+			catch (DateTimeParseException e) {
+				// try the next format
+			}
+		}
+		return null;
+	}
+
+	private static String trim(String value) {
+
+		return value == null ? null : value.trim();
+	}
+
+	private static String normalize(String name) {
+
+		return name == null ? "" : name.trim().toLowerCase();
+	}
+
+	private static class Chunk {
+
+		private final List<Long> lines;
+		private final List<Seller> sellers;
+
+		private Chunk(int capacity) {
+			lines = new ArrayList<>(capacity);
+			sellers = new ArrayList<>(capacity);
+		}
+
+		private void add(long line, Seller seller) {
+			lines.add(line);
+			sellers.add(seller);
+		}
+	}
+}
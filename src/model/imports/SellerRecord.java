@@ -0,0 +1,49 @@
+package model.imports;
+
+/**
+ * One seller row exactly as it was read from an import file, before any
+ * parsing or validation. The line is the 1-based line the row started on.
+ */
+public class SellerRecord {
+
+	private final long line;
+	private final String name;
+	private final String email;
+	private final String birthDate;
+	private final String baseSalary;
+	private final String department;
+
+	public SellerRecord(long line, String name, String email, String birthDate, String baseSalary,
+			String department) {
+		this.line = line;
+		this.name = name;
+		this.email = email;
+		this.birthDate = birthDate;
+		this.baseSalary = baseSalary;
+		this.department = department;
+	}
+
+	public long getLine() {
+		return line;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public String getBirthDate() {
+		return birthDate;
+	}
+
+	public String getBaseSalary() {
+		return baseSalary;
+	}
+
+	public String getDepartment() {
+		return department;
+	}
+}
@@ -0,0 +1,32 @@
+package model.imports;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public interface SellerRecordReader extends Closeable {
+
+	int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Returns the next record, or null once the input is exhausted.
+	 */
+	SellerRecord next() throws IOException;
+
+	static SellerRecordReader open(Path file) throws IOException {
+
+		CharSource source = new CharSource(Channels.newReader(FileChannel.open(file, StandardOpenOption.READ),
+				StandardCharsets.UTF_8.newDecoder(), BUFFER_SIZE));
+
+		String name = file.getFileName().toString().toLowerCase();
+
+		if (name.endsWith(".json")) {
+			return new JsonSellerRecordReader(source);
+		}
+		return new CsvSellerRecordReader(source);
+	}
+}
@@ -0,0 +1,75 @@
+package model.reports;
+
+/**
+ * Salary figures of one department. Average, minimum and maximum are null for
+ * a department without sellers; the median and 90th percentile are also null
+ * when the database cannot compute them.
+ */
+public class DepartmentPayroll {
+
+	private final Integer departmentId;
+	private final String departmentName;
+	private final int sellers;
+	private final double total;
+	private final Double average;
+	private final Double minimum;
+	private final Double maximum;
+	private final Double median;
+	private final Double p90;
+
+	public DepartmentPayroll(Integer departmentId, String departmentName, int sellers, double total, Double average,
+			Double minimum, Double maximum, Double median, Double p90) {
+		this.departmentId = departmentId;
+		this.departmentName = departmentName;
+		this.sellers = sellers;
+		this.total = total;
+		this.average = average;
+		this.minimum = minimum;
+		this.maximum = maximum;
+		this.median = median;
+		this.p90 = p90;
+	}
+
+	public Integer getDepartmentId() {
+		return departmentId;
+	}
+
+	public String getDepartmentName() {
+		return departmentName;
+	}
+
+	public int getSellers() {
+		return sellers;
+	}
+
+	public double getTotal() {
+		return total;
+	}
+
+	public Double getAverage() {
+		return average;
+	}
+
+	public Double getMinimum() {
+		return minimum;
+	}
+
+	public Double getMaximum() {
+		return maximum;
+	}
+
+	public Double getMedian() {
+		return median;
+	}
+
+	public Double getP90() {
+		return p90;
+	}
+
+	@Override
+	public String toString() {
+		return "DepartmentPayroll [departmentId=" + departmentId + ", departmentName=" + departmentName + ", sellers="
+				+ sellers + ", total=" + total + ", average=" + average + ", minimum=" + minimum + ", maximum="
+				+ maximum + ", median=" + median + ", p90=" + p90 + "]";
+	}
+}
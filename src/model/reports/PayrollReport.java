@@ -0,0 +1,64 @@
+package model.reports;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Payroll per department as computed by the database at generatedAt, plus a
+ * total line over all departments. Percentiles cannot be combined from the
+ * department figures, so the total line has none.
+ */
+public class PayrollReport {
+
+	public static final String TOTAL_NAME = "All departments";
+
+	private final List<DepartmentPayroll> departments;
+	private final DepartmentPayroll total;
+	private final boolean percentiles;
+	private final long generatedAt;
+
+	public PayrollReport(List<DepartmentPayroll> departments, boolean percentiles, long generatedAt) {
+		this.departments = Collections.unmodifiableList(departments);
+		this.total = sum(departments);
+		this.percentiles = percentiles;
+		this.generatedAt = generatedAt;
+	}
+
+	public List<DepartmentPayroll> getDepartments() {
+		return departments;
+	}
+
+	public DepartmentPayroll getTotal() {
+		return total;
+	}
+
+	/**
+	 * Returns false when the database has no window functions (e.g. MySQL
+	 * before 8.0) and the median and 90th percentile were left out.
+	 */
+	public boolean hasPercentiles() {
+		return percentiles;
+	}
+
+	public long getGeneratedAt() {
+		return generatedAt;
+	}
+
+	private static DepartmentPayroll sum(List<DepartmentPayroll> departments) {
+		int sellers = 0;
+		double total = 0.0;
+		Double minimum = null;
+		Double maximum = null;
+		for (DepartmentPayroll dep : departments) {
+			if (dep.getSellers() == 0) {
+				continue;
+			}
+			sellers += dep.getSellers();
+			total += dep.getTotal();
+			minimum = minimum == null ? dep.getMinimum() : Math.min(minimum, dep.getMinimum());
+			maximum = maximum == null ? dep.getMaximum() : Math.max(maximum, dep.getMaximum());
+		}
+		Double average = sellers == 0 ? null : total / sellers;
+		return new DepartmentPayroll(null, TOTAL_NAME, sellers, total, average, minimum, maximum, null, null);
+	}
+}
@@ -0,0 +1,202 @@
+package model.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+import model.collections.IntObjectMap;
+
+/**
+ * Case-insensitive prefix index from string keys to int ids, kept as two
+ * parallel arrays sorted by (key, id). A prefix lookup is a binary search for
+ * the first candidate followed by a scan of the matching run, so it costs
+ * O(log n + matches) no matter how many keys there are. Single updates shift
+ * the arrays in place; bulk loads append and sort once.
+ *
+ * Not thread-safe.
+ */
+public class PrefixIndex {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private String[] keys = new String[INITIAL_CAPACITY];
+	private int[] ids = new int[INITIAL_CAPACITY];
+	private int size;
+
+	private final IntObjectMap<String> keyById = new IntObjectMap<>();
+
+	private boolean sorted = true;
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds a key without keeping the arrays sorted; sort() must be called before
+	 * the index is used again. Meant for the initial load.
+	 */
+	public void append(int id, String value) {
+		String key = normalize(value);
+		if (keyById.put(id, key) != null) {
+			throw new IllegalStateException("Id already indexed: " + id);
+		}
+		ensureCapacity(size + 1);
+		keys[size] = key;
+		ids[size] = id;
+		size++;
+		sorted = false;
+	}
+
+	public void sort() {
+		if (sorted) {
+			return;
+		}
+		Entry[] entries = new Entry[size];
+		for (int i = 0; i < size; i++) {
+			entries[i] = new Entry(keys[i], ids[i]);
+		}
+		Arrays.parallelSort(entries, Comparator.comparing((Entry e) -> e.key).thenComparingInt(e -> e.id));
+		for (int i = 0; i < size; i++) {
+			keys[i] = entries[i].key;
+			ids[i] = entries[i].id;
+		}
+		sorted = true;
+	}
+
+	public void put(int id, String value) {
+		checkSorted();
+		String key = normalize(value);
+		String old = keyById.put(id, key);
+		if (old != null) {
+			if (old.equals(key)) {
+				return;
+			}
+			removeAt(find(old, id));
+		}
+		int position = find(key, id);
+		insertAt(-position - 1, key, id);
+	}
+
+	public void remove(int id) {
+		checkSorted();
+		String old = keyById.remove(id);
+		if (old != null) {
+			removeAt(find(old, id));
+		}
+	}
+
+	/**
+	 * Returns the ids of up to limit keys starting with prefix, in key order.
+	 */
+	public int[] search(String prefix, int limit) {
+		checkSorted();
+		String p = normalize(prefix);
+		int from = lowerBound(p);
+		int to = Math.min(endOfPrefix(p, from), from + limit);
+		return Arrays.copyOfRange(ids, from, Math.max(from, to));
+	}
+
+	public int count(String prefix) {
+		checkSorted();
+		String p = normalize(prefix);
+		int from = lowerBound(p);
+		return endOfPrefix(p, from) - from;
+	}
+
+	private int lowerBound(String prefix) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid].compareTo(prefix) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int endOfPrefix(String prefix, int from) {
+		int low = from;
+		int high = size;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid].startsWith(prefix)) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int find(String key, int id) {
+		int low = 0;
+		int high = size - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int cmp = keys[mid].compareTo(key);
+			if (cmp == 0) {
+				cmp = Integer.compare(ids[mid], id);
+			}
+			if (cmp < 0) {
+				low = mid + 1;
+			}
+			else if (cmp > 0) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	private void insertAt(int index, String key, int id) {
+		ensureCapacity(size + 1);
+		System.arraycopy(keys, index, keys, index + 1, size - index);
+		System.arraycopy(ids, index, ids, index + 1, size - index);
+		keys[index] = key;
+		ids[index] = id;
+		size++;
+	}
+
+	private void removeAt(int index) {
+		System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+		System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+		size--;
+		keys[size] = null;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > keys.length) {
+			int newCapacity = Math.max(capacity, keys.length + (keys.length >> 1));
+			keys = Arrays.copyOf(keys, newCapacity);
+			ids = Arrays.copyOf(ids, newCapacity);
+		}
+	}
+
+	private void checkSorted() {
+		if (!sorted) {
+			throw new IllegalStateException("Index must be sorted after appending");
+		}
+	}
+
+	private static String normalize(String value) {
+		return value == null ? "" : value.toLowerCase(Locale.ROOT);
+	}
+
+	private static class Entry {
+
+		private final String key;
+		private final int id;
+
+		private Entry(String key, int id) {
+			this.key = key;
+			this.id = id;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package model.search;
+
+import java.util.Arrays;
+
+import model.collections.IntSet;
+import model.dao.SellerDao;
+import model.entities.Seller;
+
+/**
+ * Prefix index over seller names and emails, loaded once by streaming the
+ * seller table and then kept current with put/remove as sellers change.
+ * A search returns name matches first, then email matches not already found.
+ *
+ * Not thread-safe: build it on any thread, then use it from one thread only.
+ */
+public class SellerSearchIndex {
+
+	private final PrefixIndex names = new PrefixIndex();
+
+	private final PrefixIndex emails = new PrefixIndex();
+
+	public static SellerSearchIndex build(SellerDao dao) {
+
+		SellerSearchIndex index = new SellerSearchIndex();
+
+		dao.forEachRow((id, name, email, birthDate, baseSalary, departmentId, departmentName) -> {
+			index.names.append(id, name);
+			index.emails.append(id, email);
+		});
+
+		index.names.sort();
+		index.emails.sort();
+
+		return index;
+	}
+
+	public int size() {
+
+		return names.size();
+	}
+
+	public void put(Seller seller) {
+
+		names.put(seller.getId(), seller.getName());
+		emails.put(seller.getId(), seller.getEmail());
+	}
+
+	public void remove(int id) {
+
+		names.remove(id);
+		emails.remove(id);
+	}
+
+	public int[] search(String prefix, int limit) {
+
+		int[] byName = names.search(prefix, limit);
+
+		if (byName.length == limit) {
+			return byName;
+		}
+
+		int[] byEmail = emails.search(prefix, limit);
+		int[] result = Arrays.copyOf(byName, Math.min(limit, byName.length + byEmail.length));
+		int count = byName.length;
+
+		IntSet seen = new IntSet(byName.length);
+		for (int id : byName) {
+			seen.add(id);
+		}
+		for (int i = 0; i < byEmail.length && count < limit; i++) {
+			if (seen.add(byEmail[i])) {
+				result[count++] = byEmail[i];
+			}
+		}
+
+		return count == result.length ? result : Arrays.copyOf(result, count);
+	}
+}
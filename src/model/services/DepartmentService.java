@@ -1,15 +1,24 @@
 package model.services;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
+import db.DB;
+import db.DbConcurrencyException;
+import model.dao.BatchResult;
 import model.dao.DaoFactory;
 import model.dao.DepartmentDao;
+import model.dao.SellerDao;
 import model.entities.Department;
+import model.entities.Seller;
 
 public class DepartmentService {
 
 	private DepartmentDao dao = DaoFactory.createDepartmentDao();
 	
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
+	
 	public List<Department> findAll() {
 		
 		return dao.findAll();
@@ -27,6 +36,24 @@ public class DepartmentService {
 		}
 	}
 	
+	public Department findById(Integer id) {
+		
+		return dao.findById(id);
+	}
+	
+	public void overwrite(Department obj) {
+		
+		Department current = dao.findById(obj.getId());
+		
+		if (current == null) {
+			
+			throw new DbConcurrencyException("The department was deleted by another user");
+		}
+		
+		obj.setVersion(current.getVersion());
+		dao.update(obj);
+	}
+	
 	public void remove(Department obj) {
 		
 		if (obj.getId() != null) {
@@ -34,4 +61,75 @@ public class DepartmentService {
 			dao.deleteById(obj.getId());
 		}
 	}
+	
+	public int removeMovingSellers(Department obj, Department target) {
+		
+		if (obj.getId() == null) {
+			
+			return 0;
+		}
+		
+		if (target == null || target.getId() == null || target.getId().equals(obj.getId())) {
+			
+			throw new IllegalArgumentException("Sellers must move to another saved department");
+		}
+		
+		List<Seller> moved = new ArrayList<>();
+		List<Department> previous = new ArrayList<>();
+		
+		try {
+			
+			return DB.inTransaction(() -> {
+				
+				List<Seller> sellers = sellerDao.findByDepartment(obj);
+				UnitOfWork unitOfWork = new UnitOfWork(sellerDao, dao);
+				
+				for (Seller seller : sellers) {
+					
+					moved.add(seller);
+					previous.add(seller.isDepartmentLoaded() ? seller.getDepartment() : obj);
+					seller.setDepartment(target);
+					unitOfWork.save(seller);
+				}
+				
+				unitOfWork.remove(obj);
+				unitOfWork.commit();
+				
+				return sellers.size();
+			});
+		}
+		catch (RuntimeException e) {
+			
+			for (int i = 0; i < moved.size(); i++) {
+				
+				moved.get(i).setDepartment(previous.get(i));
+			}
+			throw e;
+		}
+	}
+	
+	public BatchResult insertAll(Collection<Department> list) {
+		
+		return dao.insertAll(list);
+	}
+	
+	public BatchResult updateAll(Collection<Department> list) {
+		
+		return dao.updateAll(list);
+	}
+	
+	public BatchResult removeAll(Collection<Department> list) {
+		
+		List<Integer> ids = new ArrayList<>();
+		
+		for (Department obj : list) {
+			
+			if (obj.getId() != null) {
+				
+				ids.add(obj.getId());
+			}
+		}
+		
+		return dao.deleteAllById(ids);
+	}
 }
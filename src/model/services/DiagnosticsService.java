@@ -0,0 +1,37 @@
+package model.services;
+
+import java.util.List;
+
+import db.DB;
+import db.PoolMetrics;
+import model.dao.CacheStats;
+import model.dao.DaoFactory;
+import model.dao.DaoMethodStats;
+
+public class DiagnosticsService {
+
+	public List<DaoMethodStats> getMethodStats() {
+		
+		return DaoFactory.getDaoMetrics().getMethodStats();
+	}
+	
+	public long getSlowQueryCount() {
+		
+		return DaoFactory.getDaoMetrics().getSlowQueryCount();
+	}
+	
+	public PoolMetrics getPoolMetrics() {
+		
+		return DB.getPoolMetrics();
+	}
+	
+	public CacheStats getDepartmentCacheStats() {
+		
+		return DaoFactory.getDepartmentCacheStats();
+	}
+	
+	public void reset() {
+		
+		DaoFactory.getDaoMetrics().reset();
+	}
+}
@@ -0,0 +1,15 @@
+package model.services;
+
+import model.dao.DaoFactory;
+import model.dao.PayrollDao;
+import model.reports.PayrollReport;
+
+public class PayrollReportService {
+
+	private PayrollDao dao = DaoFactory.createPayrollDao();
+
+	public PayrollReport getPayrollByDepartment() {
+
+		return dao.findPayrollByDepartment();
+	}
+}
@@ -0,0 +1,25 @@
+package model.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import model.dao.DaoFactory;
+import model.dao.SellerDao;
+import model.exports.ExportFormat;
+import model.exports.ExportProgress;
+import model.exports.SellerExporter;
+
+public class SellerExportService {
+
+	private SellerDao dao = DaoFactory.createSellerDao();
+
+	public SellerExporter createExporter() {
+
+		return new SellerExporter(dao);
+	}
+
+	public ExportProgress export(SellerExporter exporter, ExportFormat format, Path file) throws IOException {
+
+		return exporter.run(format, file);
+	}
+}
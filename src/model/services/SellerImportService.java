@@ -0,0 +1,32 @@
+package model.services;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.imports.ImportProgress;
+import model.imports.SellerImporter;
+import model.imports.SellerRecordReader;
+
+public class SellerImportService {
+
+	private SellerDao sellerDao = DaoFactory.createSellerDao();
+
+	private DepartmentDao departmentDao = DaoFactory.createDepartmentDao();
+
+	public SellerImporter createImporter() {
+
+		return new SellerImporter(sellerDao, departmentDao.findAll(), Runtime.getRuntime().availableProcessors(),
+				SellerImporter.DEFAULT_CHUNK_SIZE);
+	}
+
+	public ImportProgress importFile(SellerImporter importer, Path file) throws IOException, InterruptedException {
+
+		try (SellerRecordReader reader = SellerRecordReader.open(file)) {
+
+			return importer.run(reader);
+		}
+	}
+}
@@ -1,37 +1,364 @@
 package model.services;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import db.DB;
+import db.DbConcurrencyException;
+import db.DbException;
+import model.dao.BatchResult;
 import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
 import model.dao.SellerDao;
+import model.dao.SellerQuery;
+import model.entities.Department;
 import model.entities.Seller;
+import model.search.SellerSearchIndex;
+import model.writebehind.WriteBehindQueue;
+import model.writebehind.WriteBehindStats;
+import model.writebehind.WriteFailure;
 
 public class SellerService {
 
+	private static WriteBehindQueue writeBehind;
+	
+	private static Executor entityUpdates = Runnable::run;
+	
 	private SellerDao dao = DaoFactory.createSellerDao();
 	
+	private DepartmentDao departmentDao = DaoFactory.createDepartmentDao();
+	
+	private static synchronized WriteBehindQueue getWriteBehind() {
+		
+		if (writeBehind == null && DB.isWriteBehindEnabled()) {
+			
+			try {
+				
+				writeBehind = new WriteBehindQueue(DaoFactory.createSellerDao(), Paths.get(DB.getWriteBehindJournal()),
+						DB.getWriteBehindCapacity(), DB.getBatchSize(), DB.getWriteBehindFlushMillis(), entityUpdates);
+			}
+			catch (IOException e) {
+				
+				throw new DbException("Could not open write-behind journal: " + e.getMessage());
+			}
+		}
+		
+		return writeBehind;
+	}
+	
+	/**
+	 * Opens the write-behind queue, if enabled, so that writes left in the
+	 * journal by a previous run are replayed right away. Versions of flushed
+	 * sellers are set on their entities through entityUpdates, the thread that
+	 * owns them.
+	 */
+	public static synchronized void startWriteBehind(Executor entityUpdates) {
+		
+		SellerService.entityUpdates = entityUpdates;
+		getWriteBehind();
+	}
+	
+	/**
+	 * Flushes what the write-behind queue can within its close timeout; writes
+	 * left over stay in the journal and are replayed on the next start.
+	 */
+	public static synchronized void shutdownWriteBehind() {
+		
+		if (writeBehind != null) {
+			
+			writeBehind.close();
+			writeBehind = null;
+		}
+	}
+	
 	public List<Seller> findAll() {
 		
 		return dao.findAll();
 	}
 	
+	public List<Seller> findPage(Seller after, int limit) {
+		
+		if (after == null) {
+			
+			return dao.findPage((String) null, null, limit);
+		}
+		
+		return dao.findPage(after.getName(), after.getId(), limit);
+	}
+	
+	public int count() {
+		
+		return dao.count();
+	}
+	
+	public List<Seller> find(SellerQuery query) {
+		
+		List<Seller> list = dao.find(query);
+		
+		if (query.isFetchDepartment()) {
+			
+			loadDepartments(list);
+		}
+		
+		return list;
+	}
+	
+	public List<Seller> findPage(SellerQuery query, Seller after, int limit) {
+		
+		List<Seller> list = dao.findPage(query, after, limit);
+		
+		if (query.isFetchDepartment()) {
+			
+			loadDepartments(list);
+		}
+		
+		return list;
+	}
+	
+	public int count(SellerQuery query) {
+		
+		return dao.count(query);
+	}
+	
+	/**
+	 * Returns the index the seller takes among the rows matching the query,
+	 * in the order the database returns them.
+	 */
+	public int countBefore(SellerQuery query, Seller seller) {
+		
+		return dao.countBefore(query, seller);
+	}
+	
+	public List<Seller> findByIds(int[] ids) {
+		
+		List<Integer> keys = new ArrayList<>(ids.length);
+		
+		for (int id : ids) {
+			
+			keys.add(id);
+		}
+		
+		Map<Integer, Seller> found = dao.findByIds(keys);
+		
+		List<Seller> list = new ArrayList<>(found.size());
+		
+		for (int id : ids) {
+			
+			Seller seller = found.get(id);
+			
+			if (seller != null) {
+				
+				list.add(seller);
+			}
+		}
+		
+		loadDepartments(list);
+		
+		return list;
+	}
+	
+	public SellerSearchIndex buildSearchIndex() {
+		
+		return SellerSearchIndex.build(dao);
+	}
+	
+	public void forEach(Consumer<? super Seller> action) {
+		
+		dao.stream(action);
+	}
+	
+	public Stream<Seller> stream() {
+		
+		return dao.stream();
+	}
+	
 	public void saveOrUpdate(Seller obj) {
 		
 		if (obj.getId() == null) {
 			
 			dao.insert(obj);
 		}
+		else if (getWriteBehind() != null) {
+			
+			getWriteBehind().enqueue(obj);
+		}
 		else {
 			
 			dao.update(obj);
 		}
 	}
 	
+	public Seller findById(Integer id) {
+		
+		return dao.findById(id);
+	}
+	
+	public void overwrite(Seller obj) {
+		
+		discardPendingWrite(obj);
+		
+		Seller current = dao.findById(obj.getId());
+		
+		if (current == null) {
+			
+			throw new DbConcurrencyException("The seller was deleted by another user");
+		}
+		
+		obj.setVersion(current.getVersion());
+		dao.update(obj);
+	}
+	
 	public void remove(Seller obj) {
 		
 		if (obj.getId() != null) {
 			
+			discardPendingWrite(obj);
 			dao.deleteById(obj.getId());
 		}
 	}
+	
+	private void discardPendingWrite(Seller obj) {
+		
+		if (getWriteBehind() != null) {
+			
+			getWriteBehind().discard(obj.getId());
+		}
+	}
+	
+	public boolean isWriteBehindEnabled() {
+		
+		return getWriteBehind() != null;
+	}
+	
+	public WriteBehindStats getWriteBehindStats() {
+		
+		return getWriteBehind() == null ? null : getWriteBehind().getStats();
+	}
+	
+	public List<WriteFailure> getWriteBehindFailures() {
+		
+		return getWriteBehind() == null ? Collections.emptyList() : getWriteBehind().getFailures();
+	}
+	
+	public void retryFailedWrites() {
+		
+		if (getWriteBehind() != null) {
+			
+			getWriteBehind().retryFailed();
+		}
+	}
+	
+	public void discardFailedWrites() {
+		
+		if (getWriteBehind() != null) {
+			
+			getWriteBehind().discardFailed();
+		}
+	}
+	
+	public void saveAll(Collection<Seller> list) {
+		
+		UnitOfWork unitOfWork = new UnitOfWork(dao, departmentDao);
+		
+		for (Seller obj : list) {
+			
+			unitOfWork.save(obj);
+		}
+		
+		unitOfWork.commit();
+	}
+	
+	public void moveToDepartment(Collection<Seller> list, Department department) {
+		
+		List<Seller> sellers = new ArrayList<>(list);
+		List<Department> previous = new ArrayList<>(sellers.size());
+		
+		loadDepartments(sellers);
+		
+		for (Seller obj : sellers) {
+			
+			previous.add(obj.getDepartment());
+			obj.setDepartment(department);
+		}
+		
+		try {
+			
+			saveAll(sellers);
+		}
+		catch (RuntimeException e) {
+			
+			for (int i = 0; i < sellers.size(); i++) {
+				
+				sellers.get(i).setDepartment(previous.get(i));
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * Resolves the department references of sellers read without the
+	 * department join with one findByIds call. Sellers never load their
+	 * department themselves, so lists shown with the department column go
+	 * through here, on a background thread.
+	 */
+	public void loadDepartments(Collection<Seller> sellers) {
+		
+		List<Integer> ids = new ArrayList<>();
+		
+		for (Seller obj : sellers) {
+			
+			if (!obj.isDepartmentLoaded()) {
+				
+				ids.add(obj.getDepartmentId());
+			}
+		}
+		
+		if (ids.isEmpty()) {
+			
+			return;
+		}
+		
+		Map<Integer, Department> departments = departmentDao.findByIds(ids);
+		
+		for (Seller obj : sellers) {
+			
+			if (!obj.isDepartmentLoaded() && departments.containsKey(obj.getDepartmentId())) {
+				
+				obj.setDepartment(departments.get(obj.getDepartmentId()));
+			}
+		}
+	}
+	
+	public BatchResult insertAll(Collection<Seller> list) {
+		
+		return dao.insertAll(list);
+	}
+	
+	public BatchResult updateAll(Collection<Seller> list) {
+		
+		return dao.updateAll(list);
+	}
+	
+	public BatchResult removeAll(Collection<Seller> list) {
+		
+		List<Integer> ids = new ArrayList<>();
+		
+		for (Seller obj : list) {
+			
+			if (obj.getId() != null) {
+				
+				ids.add(obj.getId());
+			}
+		}
+		
+		return dao.deleteAllById(ids);
+	}
 }
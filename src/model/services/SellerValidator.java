@@ -0,0 +1,91 @@
+package model.services;
+
+import java.time.LocalDate;
+
+import model.entities.Department;
+import model.entities.Seller;
+import model.exceptions.ValidationException;
+
+public class SellerValidator {
+
+	public static final int NAME_MAX_LENGTH = 60;
+
+	public static final int EMAIL_MAX_LENGTH = 60;
+
+	public static void validate(Seller entity, String name, String email, LocalDate birthDate, String baseSalary,
+			Department department) {
+
+		ValidationException exception = new ValidationException("Validation error.");
+
+		if (name == null || name.trim().isEmpty()) {
+
+			exception.addError("Name", "Field can't be empty");
+		}
+		else if (name.length() > NAME_MAX_LENGTH) {
+
+			exception.addError("Name", "Field can't exceed " + NAME_MAX_LENGTH + " characters");
+		}
+
+		entity.setName(name);
+
+
+		if (email == null || email.trim().isEmpty()) {
+
+			exception.addError("Email", "Field can't be empty");
+		}
+		else if (email.length() > EMAIL_MAX_LENGTH) {
+
+			exception.addError("Email", "Field can't exceed " + EMAIL_MAX_LENGTH + " characters");
+		}
+
+		entity.setEmail(email);
+
+
+		if (birthDate == null) {
+
+			exception.addError("BirthDate", "Field can't be empty");
+		}
+		else {
+
+			entity.setBirthDate(birthDate);
+		}
+
+
+		if (baseSalary == null || baseSalary.trim().isEmpty()) {
+
+			exception.addError("BaseSalary", "Field can't be empty");
+		}
+
+		entity.setBaseSalary(tryParseToDouble(baseSalary));
+
+		if (!entity.hasBaseSalary() && baseSalary != null && !baseSalary.trim().isEmpty()) {
+
+			exception.addError("BaseSalary", "Invalid number");
+		}
+
+
+		if (department == null) {
+
+			exception.addError("Department", "Field can't be empty");
+		}
+
+		entity.setDepartment(department);
+
+		if (!exception.getErrors().isEmpty()) {
+
+			throw exception;
+		}
+	}
+
+	private static Double tryParseToDouble(String str) {
+
+		try {
+
+			return Double.parseDouble(str.trim());
+		}
+		catch (NumberFormatException | NullPointerException e) {
+
+			return null;
+		}
+	}
+}
@@ -0,0 +1,248 @@
+package model.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ToIntFunction;
+
+import db.DB;
+import db.DbConcurrencyException;
+import db.DbException;
+import model.dao.BatchResult;
+import model.dao.DaoFactory;
+import model.dao.DepartmentDao;
+import model.dao.SellerDao;
+import model.entities.Department;
+import model.entities.Seller;
+
+/**
+ * Collects new, changed and removed entities and writes them in a single
+ * transaction on commit(), with one batch per table and kind of change.
+ * Departments are inserted before sellers and deleted after them, so sellers
+ * can move to a new department or out of a removed one in the same unit.
+ *
+ * If any row fails the whole unit is rolled back, ids handed out to new
+ * entities and versions of changed ones are restored and the registered
+ * changes are kept. A changed row whose version no longer matches fails the
+ * unit with a DbConcurrencyException.
+ */
+public class UnitOfWork {
+
+	private final SellerDao sellerDao;
+	private final DepartmentDao departmentDao;
+
+	private final Changes<Seller> sellers = new Changes<>(Seller::getId, Seller::setId, Seller::getVersion,
+			Seller::setVersion);
+	private final Changes<Department> departments = new Changes<>(Department::getId, Department::setId,
+			Department::getVersion, Department::setVersion);
+
+	public UnitOfWork() {
+
+		this(DaoFactory.createSellerDao(), DaoFactory.createDepartmentDao());
+	}
+
+	public UnitOfWork(SellerDao sellerDao, DepartmentDao departmentDao) {
+
+		this.sellerDao = sellerDao;
+		this.departmentDao = departmentDao;
+	}
+
+	public UnitOfWork save(Seller obj) {
+
+		sellers.save(obj);
+		return this;
+	}
+
+	public UnitOfWork remove(Seller obj) {
+
+		sellers.remove(obj);
+		return this;
+	}
+
+	public UnitOfWork save(Department obj) {
+
+		departments.save(obj);
+		return this;
+	}
+
+	public UnitOfWork remove(Department obj) {
+
+		departments.remove(obj);
+		return this;
+	}
+
+	public boolean isEmpty() {
+
+		return sellers.isEmpty() && departments.isEmpty();
+	}
+
+	public void clear() {
+
+		sellers.clear();
+		departments.clear();
+	}
+
+	public void commit() {
+
+		if (isEmpty()) {
+			return;
+		}
+
+		sellers.snapshot();
+		departments.snapshot();
+
+		try {
+			DB.inTransaction(this::flush);
+		}
+		catch (RuntimeException e) {
+			sellers.restore();
+			departments.restore();
+			throw e;
+		}
+
+		clear();
+	}
+
+	private void flush() {
+
+		List<Department> changedDepartments = departments.changed();
+		List<Seller> changedSellers = sellers.changed();
+
+		check("department", departments.added, departmentDao.insertAll(departments.added));
+		check("department", changedDepartments, departmentDao.updateAll(changedDepartments));
+		check("seller", sellers.added, sellerDao.insertAll(sellers.added));
+		check("seller", changedSellers, sellerDao.updateAll(changedSellers));
+		check("seller", sellers.removed(), sellerDao.deleteAllById(sellers.removedIds()));
+		check("department", departments.removed(), departmentDao.deleteAllById(departments.removedIds()));
+	}
+
+	private static void check(String table, List<?> rows, BatchResult result) {
+
+		if (result.hasFailures()) {
+			Map.Entry<Integer, String> first = result.getFailures().entrySet().iterator().next();
+			String message = "Could not write " + table + " " + rows.get(first.getKey()) + ": " + first.getValue();
+			if (DbConcurrencyException.STALE_ROW.equals(first.getValue())) {
+				throw new DbConcurrencyException(message);
+			}
+			throw new DbException(message);
+		}
+	}
+
+	private static class Changes<T> {
+
+		private final Function<T, Integer> id;
+		private final BiConsumer<T, Integer> setId;
+		private final ToIntFunction<T> version;
+		private final ObjIntConsumer<T> setVersion;
+
+		private final List<T> added = new ArrayList<>();
+		private final Map<Integer, T> dirty = new LinkedHashMap<>();
+		private final Map<Integer, T> deleted = new LinkedHashMap<>();
+		private final Map<Integer, Integer> versions = new LinkedHashMap<>();
+
+		private Changes(Function<T, Integer> id, BiConsumer<T, Integer> setId, ToIntFunction<T> version,
+				ObjIntConsumer<T> setVersion) {
+
+			this.id = id;
+			this.setId = setId;
+			this.version = version;
+			this.setVersion = setVersion;
+		}
+
+		private void save(T obj) {
+
+			Integer key = id.apply(obj);
+
+			if (key == null) {
+				if (indexOfIdentity(obj) < 0) {
+					added.add(obj);
+				}
+			}
+			else {
+				deleted.remove(key);
+				dirty.put(key, obj);
+			}
+		}
+
+		private void remove(T obj) {
+
+			int index = indexOfIdentity(obj);
+
+			if (index >= 0) {
+				added.remove(index);
+				return;
+			}
+
+			Integer key = id.apply(obj);
+
+			if (key != null) {
+				dirty.remove(key);
+				deleted.put(key, obj);
+			}
+		}
+
+		private int indexOfIdentity(T obj) {
+
+			for (int i = 0; i < added.size(); i++) {
+				if (added.get(i) == obj) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private List<T> changed() {
+
+			return new ArrayList<>(dirty.values());
+		}
+
+		private List<T> removed() {
+
+			return new ArrayList<>(deleted.values());
+		}
+
+		private Collection<Integer> removedIds() {
+
+			return new ArrayList<>(deleted.keySet());
+		}
+
+		private void snapshot() {
+
+			versions.clear();
+			for (Map.Entry<Integer, T> entry : dirty.entrySet()) {
+				versions.put(entry.getKey(), version.applyAsInt(entry.getValue()));
+			}
+		}
+
+		private void restore() {
+
+			for (T obj : added) {
+				setId.accept(obj, null);
+			}
+			for (Map.Entry<Integer, T> entry : dirty.entrySet()) {
+				Integer previous = versions.get(entry.getKey());
+				if (previous != null) {
+					setVersion.accept(entry.getValue(), previous);
+				}
+			}
+		}
+
+		private boolean isEmpty() {
+
+			return added.isEmpty() && dirty.isEmpty() && deleted.isEmpty();
+		}
+
+		private void clear() {
+
+			added.clear();
+			dirty.clear();
+			deleted.clear();
+			versions.clear();
+		}
+	}
+}
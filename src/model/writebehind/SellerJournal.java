@@ -0,0 +1,292 @@
+package model.writebehind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import model.entities.Seller;
+
+/**
+ * Append-only journal of queued seller writes. Each record is framed with its
+ * length and a CRC32 and forced to disk before append() returns, so a write the
+ * caller was told about survives a crash; a torn record at the tail is dropped
+ * on replay. Flushed writes are marked by ack records. The file is truncated
+ * whenever nothing is outstanding, and rewritten with only the outstanding
+ * writes once acknowledged writes make up most of it, so it does not grow
+ * without bound while the queue never drains.
+ */
+public class SellerJournal implements Closeable {
+
+	// type 1 is reserved: it was a write layout that never left development
+	private static final byte ACK = 2;
+	/** Write with the birth date as an epoch day and the salary in cents. */
+	private static final byte SAVE = 3;
+
+	private static final int HEADER_BYTES = 8;
+
+	private final Path file;
+	private FileChannel channel;
+	private final CRC32 crc = new CRC32();
+
+	private long lastSequence;
+
+	/** Write records in the file, and how many of them are acknowledged. */
+	private int writes;
+	private int acks;
+
+	public SellerJournal(Path file) throws IOException {
+		this.file = file;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		this.channel.position(channel.size());
+	}
+
+	public synchronized long getLastSequence() {
+		return lastSequence;
+	}
+
+	/**
+	 * Reads the journal from the start and returns the writes that were never
+	 * acknowledged, by sequence number in journal order.
+	 */
+	public synchronized Map<Long, Seller> replay() throws IOException {
+
+		Map<Long, Seller> open = new LinkedHashMap<>();
+		ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+		long position = 0;
+		long size = channel.size();
+
+		while (position + HEADER_BYTES <= size) {
+
+			header.clear();
+			readFully(header, position);
+			header.flip();
+
+			int length = header.getInt();
+			int checksum = header.getInt();
+
+			if (length <= 0 || position + HEADER_BYTES + length > size) {
+				break;
+			}
+
+			ByteBuffer payload = ByteBuffer.allocate(length);
+			readFully(payload, position + HEADER_BYTES);
+			payload.flip();
+
+			crc.reset();
+			crc.update(payload.array(), 0, length);
+			if ((int) crc.getValue() != checksum) {
+				break;
+			}
+
+			byte type = payload.get();
+			long sequence = payload.getLong();
+			lastSequence = Math.max(lastSequence, sequence);
+
+			if (type == SAVE) {
+				open.put(sequence, readSeller(payload));
+				writes++;
+			}
+			else if (type == ACK) {
+				open.remove(sequence);
+				acks++;
+			}
+
+			position += HEADER_BYTES + length;
+		}
+
+		channel.truncate(position);
+		channel.position(position);
+
+		return open;
+	}
+
+	/**
+	 * Appends a write, together with acks for the writes it supersedes, and
+	 * forces both to disk.
+	 */
+	public synchronized void append(long sequence, Seller seller, Collection<Long> acks) throws IOException {
+
+		ByteBuffer buffer = encode(sequence, seller, acks);
+
+		write(buffer, sequence);
+		writes++;
+		this.acks += acks.size();
+	}
+
+	private ByteBuffer encode(long sequence, Seller seller, Collection<Long> acks) {
+
+		byte[] name = bytes(seller.getName());
+		byte[] email = bytes(seller.getEmail());
+
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 1 + 8 + 4 + 4 + 4 + len(name) + 4 + len(email) + 4 + 8
+				+ 4 + acks.size() * (HEADER_BYTES + 1 + 8));
+
+		int start = begin(buffer, SAVE, sequence);
+		buffer.putInt(seller.getId());
+		buffer.putInt(seller.getVersion());
+		putBytes(buffer, name);
+		putBytes(buffer, email);
+		buffer.putInt(seller.getBirthEpochDay());
+		buffer.putLong(seller.getBaseSalaryCents());
+		buffer.putInt(seller.getDepartmentId() == null ? 0 : seller.getDepartmentId());
+		end(buffer, start);
+
+		for (Long ack : acks) {
+			end(buffer, begin(buffer, ACK, ack));
+		}
+
+		return buffer;
+	}
+
+	public synchronized void ack(Collection<Long> sequences) throws IOException {
+
+		if (sequences.isEmpty()) {
+			return;
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate(sequences.size() * (HEADER_BYTES + 1 + 8));
+
+		for (Long sequence : sequences) {
+			end(buffer, begin(buffer, ACK, sequence));
+		}
+
+		write(buffer, lastSequence);
+		acks += sequences.size();
+	}
+
+	public synchronized void truncate() throws IOException {
+		channel.truncate(0);
+		channel.position(0);
+		channel.force(false);
+		writes = 0;
+		acks = 0;
+	}
+
+	/**
+	 * Whether acknowledged writes, which replay reads only to skip, make up at
+	 * least half of the write records.
+	 */
+	public synchronized boolean needsCompaction() {
+		return acks > 0 && acks * 2 >= writes;
+	}
+
+	/**
+	 * Replaces the journal with one holding only the given outstanding writes,
+	 * in sequence order. The new file is forced to disk before it is moved over
+	 * the old one, so a crash leaves either journal complete.
+	 */
+	public synchronized void compact(Map<Long, Seller> outstanding) throws IOException {
+
+		Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+
+		try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			for (Map.Entry<Long, Seller> entry : outstanding.entrySet()) {
+				ByteBuffer buffer = encode(entry.getKey(), entry.getValue(), Collections.emptyList());
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					out.write(buffer);
+				}
+			}
+			out.force(true);
+		}
+
+		channel.close();
+		try {
+			Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			writes = outstanding.size();
+			acks = 0;
+		}
+		finally {
+			channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			channel.position(channel.size());
+		}
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		channel.close();
+	}
+
+	private void write(ByteBuffer buffer, long sequence) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		channel.force(false);
+		lastSequence = Math.max(lastSequence, sequence);
+	}
+
+	private static int begin(ByteBuffer buffer, byte type, long sequence) {
+		int start = buffer.position();
+		buffer.position(start + HEADER_BYTES);
+		buffer.put(type);
+		buffer.putLong(sequence);
+		return start;
+	}
+
+	private void end(ByteBuffer buffer, int start) {
+		int length = buffer.position() - start - HEADER_BYTES;
+		crc.reset();
+		crc.update(buffer.array(), start + HEADER_BYTES, length);
+		buffer.putInt(start, length);
+		buffer.putInt(start + 4, (int) crc.getValue());
+	}
+
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of journal");
+			}
+		}
+	}
+
+	private static Seller readSeller(ByteBuffer payload) {
+		Seller seller = new Seller();
+		seller.setId(payload.getInt());
+		seller.setVersion(payload.getInt());
+		seller.setName(getString(payload));
+		seller.setEmail(getString(payload));
+		seller.setBirthEpochDay(payload.getInt());
+		seller.setBaseSalaryCents(payload.getLong());
+		seller.setDepartmentReference(payload.getInt());
+		return seller;
+	}
+
+	private static byte[] bytes(String value) {
+		return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int len(byte[] value) {
+		return value == null ? 0 : value.length;
+	}
+
+	private static void putBytes(ByteBuffer buffer, byte[] value) {
+		buffer.putInt(value == null ? -1 : value.length);
+		if (value != null) {
+			buffer.put(value);
+		}
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + length);
+		return value;
+	}
+}
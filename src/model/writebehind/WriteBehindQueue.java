@@ -0,0 +1,538 @@
+package model.writebehind;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import model.dao.BatchResult;
+import model.dao.SellerDao;
+import model.entities.Seller;
+
+/**
+ * Queues seller updates and writes them to the database from a background
+ * thread. Writes are kept per seller id, so a seller saved several times
+ * within the flush window is written once with its last values; batches of up
+ * to batchSize rows go through SellerDao.updateAll.
+ *
+ * Every write is journaled before enqueue() returns and acknowledged once
+ * flushed, so writes still queued at a crash are replayed on the next start.
+ * Rows the database rejects (e.g. a stale version) are set aside as failures
+ * until they are retried or discarded; when the database is unreachable the
+ * whole batch is requeued and retried with an increasing delay.
+ *
+ * The version a flush produces is handed to the saved entity through the
+ * given executor (the FX thread in the application), never set from the
+ * worker; a write enqueued before that happens is given the new version.
+ */
+public class WriteBehindQueue implements Closeable {
+
+	private static final Logger LOGGER = Logger.getLogger(WriteBehindQueue.class.getName());
+
+	private static final long MIN_RETRY_DELAY = 1000L;
+	private static final long MAX_RETRY_DELAY = 30000L;
+	private static final long CLOSE_TIMEOUT = 10000L;
+
+	private final SellerDao dao;
+	private final SellerJournal journal;
+	private final int capacity;
+	private final int batchSize;
+	private final long flushMillis;
+	private final Executor entityUpdates;
+
+	private final Object lock = new Object();
+	private final Map<Integer, Write> pending = new LinkedHashMap<>();
+	private final Map<Integer, Write> inFlight = new HashMap<>();
+	private final Map<Integer, Write> failed = new LinkedHashMap<>();
+	private final Map<Integer, Integer> unappliedVersions = new HashMap<>();
+
+	private final Thread worker;
+
+	private long nextSequence;
+	private boolean closed;
+
+	private long flushedRows;
+	private long coalescedWrites;
+	private long lastFlushMillis;
+	private int lastFlushRows;
+	private String lastError;
+
+	public WriteBehindQueue(SellerDao dao, Path journalFile, int capacity, int batchSize, long flushMillis,
+			Executor entityUpdates) throws IOException {
+
+		this.dao = dao;
+		this.journal = new SellerJournal(journalFile);
+		this.capacity = capacity;
+		this.batchSize = batchSize;
+		this.flushMillis = flushMillis;
+		this.entityUpdates = entityUpdates;
+
+		List<Long> superseded = new ArrayList<>();
+
+		for (Map.Entry<Long, Seller> entry : journal.replay().entrySet()) {
+			Write previous = pending.put(entry.getValue().getId(), new Write(entry.getKey(), entry.getValue(), null));
+			if (previous != null) {
+				superseded.add(previous.sequence);
+			}
+		}
+
+		journal.ack(superseded);
+		nextSequence = journal.getLastSequence() + 1;
+
+		if (!pending.isEmpty()) {
+			LOGGER.info("Replaying " + pending.size() + " queued seller writes from " + journalFile);
+		}
+
+		worker = new Thread(this::run, "seller-write-behind");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Queues an update of a saved seller. Blocks while the queue is full,
+	 * unless a write for the same seller is already waiting.
+	 */
+	public void enqueue(Seller obj) {
+
+		if (obj.getId() == null) {
+			throw new IllegalArgumentException("Only saved sellers can be written behind");
+		}
+
+		Seller snapshot = copy(obj);
+
+		synchronized (lock) {
+
+			try {
+				while (!closed && !pending.containsKey(obj.getId()) && size() >= capacity) {
+					lock.wait();
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while waiting for room in the write-behind queue");
+			}
+
+			if (closed) {
+				throw new IllegalStateException("Write-behind queue is closed");
+			}
+
+			Integer flushed = unappliedVersions.get(obj.getId());
+			if (flushed != null && snapshot.getVersion() == flushed - 1) {
+				snapshot.setVersion(flushed);
+			}
+
+			List<Long> superseded = new ArrayList<>(2);
+			Write previous = pending.get(obj.getId());
+			Write failure = failed.remove(obj.getId());
+
+			if (previous != null) {
+				superseded.add(previous.sequence);
+				coalescedWrites++;
+			}
+			if (failure != null) {
+				superseded.add(failure.sequence);
+			}
+
+			long sequence = nextSequence++;
+
+			try {
+				journal.append(sequence, snapshot, superseded);
+			}
+			catch (IOException e) {
+				if (failure != null) {
+					failed.put(obj.getId(), failure);
+				}
+				throw new UncheckedIOException("Could not journal seller write", e);
+			}
+
+			pending.put(obj.getId(), new Write(sequence, snapshot, obj));
+
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Drops any queued or failed write for the seller, e.g. before it is
+	 * deleted. A write already being flushed is not affected.
+	 */
+	public void discard(Integer sellerId) {
+
+		synchronized (lock) {
+
+			List<Long> sequences = new ArrayList<>(2);
+			Write queued = pending.remove(sellerId);
+			Write failure = failed.remove(sellerId);
+
+			if (queued != null) {
+				sequences.add(queued.sequence);
+			}
+			if (failure != null) {
+				sequences.add(failure.sequence);
+			}
+
+			acknowledge(sequences);
+
+			lock.notifyAll();
+		}
+	}
+
+	public void retryFailed() {
+
+		synchronized (lock) {
+
+			for (Map.Entry<Integer, Write> entry : failed.entrySet()) {
+				pending.putIfAbsent(entry.getKey(), entry.getValue());
+			}
+			failed.clear();
+
+			lock.notifyAll();
+		}
+	}
+
+	public void discardFailed() {
+
+		synchronized (lock) {
+
+			List<Long> sequences = new ArrayList<>();
+
+			for (Write write : failed.values()) {
+				sequences.add(write.sequence);
+			}
+			failed.clear();
+
+			acknowledge(sequences);
+
+			lock.notifyAll();
+		}
+	}
+
+	public List<WriteFailure> getFailures() {
+
+		synchronized (lock) {
+
+			List<WriteFailure> list = new ArrayList<>(failed.size());
+
+			for (Write write : failed.values()) {
+				list.add(new WriteFailure(write.snapshot.getId(), write.snapshot.getName(), write.error));
+			}
+
+			return list;
+		}
+	}
+
+	public WriteBehindStats getStats() {
+
+		synchronized (lock) {
+
+			return new WriteBehindStats(pending.size(), inFlight.size(), failed.size(), flushedRows, coalescedWrites,
+					lastFlushMillis, lastFlushRows, lastError);
+		}
+	}
+
+	/**
+	 * Stops accepting writes, gives the worker a bounded time to flush what is
+	 * queued and closes the journal. Anything left stays in the journal.
+	 */
+	@Override
+	public void close() {
+
+		synchronized (lock) {
+			closed = true;
+			lock.notifyAll();
+		}
+
+		try {
+			worker.join(CLOSE_TIMEOUT);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		try {
+			journal.close();
+		}
+		catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Error closing write-behind journal", e);
+		}
+	}
+
+	private int size() {
+		return pending.size() + inFlight.size() + failed.size();
+	}
+
+	private void run() {
+
+		long retryDelay = 0;
+
+		while (true) {
+
+			List<Write> batch;
+
+			synchronized (lock) {
+
+				try {
+					while (!closed && pending.isEmpty()) {
+						lock.wait();
+					}
+
+					long deadline = System.currentTimeMillis() + (retryDelay > 0 ? retryDelay : flushMillis);
+					long remaining;
+
+					while (!closed && (remaining = deadline - System.currentTimeMillis()) > 0) {
+						lock.wait(remaining);
+					}
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+
+				if (pending.isEmpty()) {
+					if (closed) {
+						return;
+					}
+					continue;
+				}
+
+				batch = drain();
+			}
+
+			try {
+				flush(batch);
+				retryDelay = 0;
+			}
+			catch (RuntimeException e) {
+				LOGGER.log(Level.WARNING, "Write-behind flush failed, retrying", e);
+				requeue(batch, e);
+				synchronized (lock) {
+					if (closed) {
+						return;
+					}
+				}
+				retryDelay = Math.min(MAX_RETRY_DELAY, Math.max(MIN_RETRY_DELAY, retryDelay * 2));
+			}
+		}
+	}
+
+	private List<Write> drain() {
+
+		List<Write> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+
+		for (Map.Entry<Integer, Write> entry : pending.entrySet()) {
+			if (batch.size() == batchSize) {
+				break;
+			}
+			batch.add(entry.getValue());
+		}
+
+		for (Write write : batch) {
+			pending.remove(write.snapshot.getId());
+			inFlight.put(write.snapshot.getId(), write);
+		}
+
+		return batch;
+	}
+
+	private void flush(List<Write> batch) {
+
+		long start = System.nanoTime();
+		List<Write> remaining = new ArrayList<>(batch);
+		List<Write> rejected = new ArrayList<>();
+
+		while (!remaining.isEmpty()) {
+
+			List<Seller> rows = new ArrayList<>(remaining.size());
+			for (Write write : remaining) {
+				rows.add(write.snapshot);
+			}
+
+			BatchResult result = dao.updateAll(rows);
+
+			if (!result.hasFailures()) {
+				break;
+			}
+
+			// rows without a failure only rolled back with the batch; a failure
+			// may carry a null message, so presence in the map decides
+			List<Write> retry = new ArrayList<>(remaining.size());
+			for (int i = 0; i < remaining.size(); i++) {
+				if (!result.getFailures().containsKey(i)) {
+					retry.add(remaining.get(i));
+					continue;
+				}
+				String error = result.getFailures().get(i);
+				if (BatchResult.NOT_EXECUTED.equals(error)) {
+					retry.add(remaining.get(i));
+				}
+				else {
+					remaining.get(i).error = error != null ? error : "Update rejected by the database";
+					rejected.add(remaining.get(i));
+				}
+			}
+			remaining = retry;
+		}
+
+		long elapsed = (System.nanoTime() - start) / 1000000L;
+
+		synchronized (lock) {
+
+			List<Long> done = new ArrayList<>(batch.size());
+
+			for (Write write : remaining) {
+				inFlight.remove(write.snapshot.getId());
+				done.add(write.sequence);
+				applyVersion(write);
+			}
+
+			for (Write write : rejected) {
+				inFlight.remove(write.snapshot.getId());
+				if (pending.containsKey(write.snapshot.getId())) {
+					done.add(write.sequence);
+				}
+				else {
+					failed.put(write.snapshot.getId(), write);
+				}
+			}
+
+			acknowledge(done);
+
+			flushedRows += remaining.size();
+			lastFlushRows = remaining.size();
+			lastFlushMillis = elapsed;
+			lastError = rejected.isEmpty() ? null : rejected.get(0).error;
+
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Carries the version the flush produced over to the live entity and to a
+	 * newer write for the same seller that was queued from the old version, so
+	 * the next flush does not conflict with our own update.
+	 */
+	private void applyVersion(Write write) {
+
+		int flushed = write.snapshot.getVersion();
+		Integer id = write.snapshot.getId();
+
+		if (write.live != null) {
+			Seller live = write.live;
+			unappliedVersions.put(id, flushed);
+			entityUpdates.execute(() -> {
+				if (live.getVersion() == flushed - 1) {
+					live.setVersion(flushed);
+				}
+				synchronized (lock) {
+					unappliedVersions.remove(id, flushed);
+				}
+			});
+		}
+
+		Write next = pending.get(write.snapshot.getId());
+
+		if (next != null && next.snapshot.getVersion() == flushed - 1) {
+			next.snapshot.setVersion(flushed);
+			long sequence = nextSequence++;
+			try {
+				journal.append(sequence, next.snapshot, Collections.singletonList(next.sequence));
+				next.sequence = sequence;
+			}
+			catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Could not journal updated version", e);
+			}
+		}
+	}
+
+	private void requeue(List<Write> batch, RuntimeException e) {
+
+		synchronized (lock) {
+
+			Map<Integer, Write> reordered = new LinkedHashMap<>();
+			List<Long> superseded = new ArrayList<>();
+
+			for (Write write : batch) {
+				inFlight.remove(write.snapshot.getId());
+				if (pending.containsKey(write.snapshot.getId())) {
+					superseded.add(write.sequence);
+				}
+				else {
+					reordered.put(write.snapshot.getId(), write);
+				}
+			}
+
+			reordered.putAll(pending);
+			pending.clear();
+			pending.putAll(reordered);
+
+			acknowledge(superseded);
+
+			lastError = e.getMessage();
+		}
+	}
+
+	private void acknowledge(List<Long> sequences) {
+
+		try {
+			journal.ack(sequences);
+			if (size() == 0) {
+				journal.truncate();
+			}
+			else if (journal.needsCompaction()) {
+				journal.compact(outstanding());
+			}
+		}
+		catch (IOException e) {
+			LOGGER.log(Level.WARNING, "Could not update write-behind journal", e);
+		}
+	}
+
+	private Map<Long, Seller> outstanding() {
+
+		Map<Long, Seller> writes = new TreeMap<>();
+
+		for (Map<Integer, Write> writesById : Arrays.asList(pending, inFlight, failed)) {
+			for (Write write : writesById.values()) {
+				writes.put(write.sequence, write.snapshot);
+			}
+		}
+
+		return writes;
+	}
+
+	private static Seller copy(Seller obj) {
+
+		Seller copy = new Seller();
+		copy.setId(obj.getId());
+		copy.setName(obj.getName());
+		copy.setEmail(obj.getEmail());
+		copy.setBirthEpochDay(obj.getBirthEpochDay());
+		copy.setBaseSalaryCents(obj.getBaseSalaryCents());
+		copy.setDepartmentReference(obj.getDepartmentId());
+		copy.setVersion(obj.getVersion());
+		return copy;
+	}
+
+	private static class Write {
+
+		private long sequence;
+		private final Seller snapshot;
+		private final Seller live;
+		private String error;
+
+		private Write(long sequence, Seller snapshot, Seller live) {
+			this.sequence = sequence;
+			this.snapshot = snapshot;
+			this.live = live;
+		}
+	}
+}
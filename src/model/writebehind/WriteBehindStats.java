@@ -0,0 +1,64 @@
+package model.writebehind;
+
+public class WriteBehindStats {
+
+	private final int pending;
+	private final int inFlight;
+	private final int failed;
+	private final long flushedRows;
+	private final long coalescedWrites;
+	private final long lastFlushMillis;
+	private final int lastFlushRows;
+	private final String lastError;
+
+	public WriteBehindStats(int pending, int inFlight, int failed, long flushedRows, long coalescedWrites,
+			long lastFlushMillis, int lastFlushRows, String lastError) {
+		this.pending = pending;
+		this.inFlight = inFlight;
+		this.failed = failed;
+		this.flushedRows = flushedRows;
+		this.coalescedWrites = coalescedWrites;
+		this.lastFlushMillis = lastFlushMillis;
+		this.lastFlushRows = lastFlushRows;
+		this.lastError = lastError;
+	}
+
+	public int getPending() {
+		return pending;
+	}
+
+	public int getInFlight() {
+		return inFlight;
+	}
+
+	public int getFailed() {
+		return failed;
+	}
+
+	public long getFlushedRows() {
+		return flushedRows;
+	}
+
+	public long getCoalescedWrites() {
+		return coalescedWrites;
+	}
+
+	public long getLastFlushMillis() {
+		return lastFlushMillis;
+	}
+
+	public int getLastFlushRows() {
+		return lastFlushRows;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	@Override
+	public String toString() {
+		return "WriteBehindStats [pending=" + pending + ", inFlight=" + inFlight + ", failed=" + failed
+				+ ", flushedRows=" + flushedRows + ", coalescedWrites=" + coalescedWrites + ", lastFlushMillis="
+				+ lastFlushMillis + ", lastFlushRows=" + lastFlushRows + ", lastError=" + lastError + "]";
+	}
+}
@@ -0,0 +1,31 @@
+package model.writebehind;
+
+public class WriteFailure {
+
+	private final int sellerId;
+	private final String sellerName;
+	private final String message;
+
+	public WriteFailure(int sellerId, String sellerName, String message) {
+		this.sellerId = sellerId;
+		this.sellerName = sellerName;
+		this.message = message;
+	}
+
+	public int getSellerId() {
+		return sellerId;
+	}
+
+	public String getSellerName() {
+		return sellerName;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	@Override
+	public String toString() {
+		return "WriteFailure [sellerId=" + sellerId + ", sellerName=" + sellerName + ", message=" + message + "]";
+	}
+}